@@ -0,0 +1,13 @@
+package tech.devinhouse.veiculos.reativo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class VeiculosReativoApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(VeiculosReativoApplication.class, args);
+    }
+
+}
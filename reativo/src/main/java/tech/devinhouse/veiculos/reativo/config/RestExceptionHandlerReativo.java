@@ -0,0 +1,41 @@
+package tech.devinhouse.veiculos.reativo.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Respostas de erro idênticas às do {@code RestExceptionHandler} da aplicação bloqueante.
+ */
+@RestControllerAdvice
+public class RestExceptionHandlerReativo {
+
+    @ExceptionHandler(RegistroExistenteException.class)
+    public ResponseEntity<Object> handleRegistroExistenteException(RegistroExistenteException e) {
+        Map<String, String> erro = new HashMap<>();
+        erro.put("erro", "Registro já cadastrado!");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(erro);
+    }
+
+    @ExceptionHandler(RegistroInexistenteException.class)
+    public ResponseEntity<Object> handleRegistroNaoEncontradoException(RegistroInexistenteException e) {
+        Map<String, String> erro = new HashMap<>();
+        erro.put("erro", "Registro não encontrado!");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
+    }
+
+    @ExceptionHandler(VeiculoComMultaException.class)
+    public ResponseEntity<Object> handleVeiculoComMultaException (VeiculoComMultaException e) {
+        Map<String, String> erro = new HashMap<>();
+        erro.put("erro", "Veículo possui multas e não pode ser excluído!");
+        return ResponseEntity.status(HttpStatus.LOCKED).body(erro);
+    }
+
+}
@@ -0,0 +1,63 @@
+package tech.devinhouse.veiculos.reativo.controller;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.reativo.service.VeiculoServiceReativo;
+
+import java.net.URI;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("api/veiculos")
+@AllArgsConstructor
+public class VeiculosReativoController {
+
+    private VeiculoServiceReativo service;
+
+    /**
+     * A lista é escrita à medida que as linhas chegam do banco; a demanda do cliente limita a leitura,
+     * de modo que um cliente lento não acumula a frota inteira em memória.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Veiculo> consultar () {
+        log.debug("Consulta da lista completa de veículos cadastrados");
+        return service.consultar();
+    }
+
+    @GetMapping("{placa}")
+    public Mono<List<Veiculo>> consultar (@PathVariable("placa") String placa) {
+        return service.consultar(placa)
+                .doOnNext(veiculo -> log.debug("Veículo consultado {}", veiculo))
+                .map(List::of);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Veiculo>> inserir (@RequestBody @Valid Veiculo veiculo) {
+        log.debug("Dados do veículo a ser cadastrado: {} ", veiculo);
+        return service.criar(veiculo)
+                .doOnNext(criado -> log.info("Veiculo criado: {}", criado))
+                .map(criado -> ResponseEntity.created(URI.create(criado.getPlaca())).body(criado));
+    }
+
+    @DeleteMapping("{placa}")
+    public Mono<ResponseEntity<Void>> excluir (@PathVariable("placa") String placa) {
+        return service.excluir(placa)
+                .doOnSuccess(nada -> log.debug("veiculo excluido: {}", placa))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PutMapping("{placa}/multas")
+    public Mono<ResponseEntity<Veiculo>> adicionarMulta (@PathVariable("placa") String placa) {
+        return service.adicionarMulta(placa)
+                .doOnNext(veiculo -> log.debug("Multa adiconada ao veículo: {}", veiculo))
+                .map(ResponseEntity::ok);
+    }
+}
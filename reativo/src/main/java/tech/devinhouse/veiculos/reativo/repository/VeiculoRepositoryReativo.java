@@ -0,0 +1,86 @@
+package tech.devinhouse.veiculos.reativo.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+/**
+ * Acesso não bloqueante à tabela VEICULOS, com as mesmas colunas mapeadas pelo JPA em {@code VeiculoRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VeiculoRepositoryReativo {
+
+    private static final String COLUNAS = "placa, tipo, cor, ano_de_fabricacao, qtd_multas";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<Veiculo> findAllOrdenadosPorPlaca() {
+        return databaseClient.sql("select " + COLUNAS + " from veiculos order by placa")
+                .map(VeiculoRepositoryReativo::mapear)
+                .all();
+    }
+
+    public Mono<Veiculo> findById(String placa) {
+        return databaseClient.sql("select " + COLUNAS + " from veiculos where placa = :placa")
+                .bind("placa", placa)
+                .map(VeiculoRepositoryReativo::mapear)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(String placa) {
+        return databaseClient.sql("select placa from veiculos where placa = :placa")
+                .bind("placa", placa)
+                .map(linha -> linha.get("placa", String.class))
+                .first()
+                .hasElement();
+    }
+
+    public Mono<Veiculo> inserir(Veiculo veiculo) {
+        DatabaseClient.GenericExecuteSpec insercao = databaseClient
+                .sql("insert into veiculos (" + COLUNAS + ") values (:placa, :tipo, :cor, :ano, :multas)")
+                .bind("placa", veiculo.getPlaca());
+        insercao = vincular(insercao, "tipo", veiculo.getTipo(), String.class);
+        insercao = vincular(insercao, "cor", veiculo.getCor(), String.class);
+        insercao = vincular(insercao, "ano", veiculo.getAnoDeFabricacao(), Integer.class);
+        insercao = vincular(insercao, "multas", veiculo.getQtdMultas(), Integer.class);
+        return insercao.fetch().rowsUpdated().thenReturn(veiculo);
+    }
+
+    public Mono<Long> deleteById(String placa) {
+        return databaseClient.sql("delete from veiculos where placa = :placa")
+                .bind("placa", placa)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Soma as multas e avança a coluna {@code versao}, como o {@code @Version} do JPA faria, para que o ETag
+     * e o If-Match da aplicação bloqueante percebam a alteração. Diferente de {@code VeiculoService}, aqui
+     * não há evento na tabela de saída, registro no histórico de multas nem atualização do filtro de placas.
+     */
+    public Mono<Long> incrementarMultas(String placa, int quantidade) {
+        return databaseClient.sql("update veiculos set qtd_multas = qtd_multas + :quantidade, versao = versao + 1 where placa = :placa")
+                .bind("quantidade", quantidade)
+                .bind("placa", placa)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec vincular(DatabaseClient.GenericExecuteSpec spec, String nome, T valor, Class<T> tipo) {
+        return valor == null ? spec.bindNull(nome, tipo) : spec.bind(nome, valor);
+    }
+
+    private static Veiculo mapear(Readable linha) {
+        return new Veiculo(
+                linha.get("placa", String.class),
+                linha.get("tipo", String.class),
+                linha.get("cor", String.class),
+                linha.get("ano_de_fabricacao", Integer.class),
+                linha.get("qtd_multas", Integer.class));
+    }
+}
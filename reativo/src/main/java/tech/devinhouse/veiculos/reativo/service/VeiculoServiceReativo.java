@@ -0,0 +1,74 @@
+package tech.devinhouse.veiculos.reativo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.reativo.repository.VeiculoRepositoryReativo;
+
+/**
+ * Mesmas regras de {@code VeiculoService}, sem bloquear a thread que atende a requisição:
+ * os erros de domínio são sinalizados no próprio fluxo.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class VeiculoServiceReativo {
+
+    private final VeiculoRepositoryReativo veiculoRepository;
+
+    public Flux<Veiculo> consultar() {
+        return veiculoRepository.findAllOrdenadosPorPlaca();
+    }
+
+    public Mono<Veiculo> consultar(String placa) {
+        return veiculoRepository.findById(placa)
+                .switchIfEmpty(Mono.error(() -> new RegistroInexistenteException(placa)));
+    }
+
+    @Transactional
+    public Mono<Veiculo> criar(Veiculo veiculo) {
+        return veiculoRepository.existsById(veiculo.getPlaca())
+                .flatMap(existe -> {
+                    if (existe) {
+                        log.error("O veículo não foi cadastrado pois a placa {} já está cadastrada. ", veiculo.getPlaca());
+                        return Mono.error(new RegistroExistenteException(veiculo.getPlaca()));
+                    }
+                    veiculo.setQtdMultas(0);
+                    return veiculoRepository.inserir(veiculo);
+                })
+                .onErrorMap(DuplicateKeyException.class, e -> new RegistroExistenteException(veiculo.getPlaca()));
+    }
+
+    @Transactional
+    public Mono<Void> excluir(String placa) {
+        return veiculoRepository.findById(placa)
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.error("O veículo de placa {} não existe, por isso não foi excluído ", placa);
+                    return Mono.error(new RegistroInexistenteException(placa));
+                }))
+                .flatMap(veiculo -> {
+                    if (veiculo.getQtdMultas() != null && veiculo.getQtdMultas() != 0) {
+                        log.error("O veículo de placa {} não foi excluído pois há {} multa(s) cadastrada(s). ", placa, veiculo.getQtdMultas());
+                        return Mono.error(new VeiculoComMultaException(placa));
+                    }
+                    return veiculoRepository.deleteById(placa);
+                })
+                .then();
+    }
+
+    @Transactional
+    public Mono<Veiculo> adicionarMulta(String placa) {
+        return veiculoRepository.incrementarMultas(placa, 1)
+                .flatMap(atualizados -> atualizados == 0
+                        ? Mono.error(new RegistroInexistenteException(placa))
+                        : consultar(placa));
+    }
+}
@@ -0,0 +1,138 @@
+package tech.devinhouse.veiculos.reativo.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.reativo.service.VeiculoServiceReativo;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@WebFluxTest(VeiculosReativoController.class)
+class VeiculosReativoControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private VeiculoServiceReativo service;
+
+    @Test
+    @DisplayName("Retorna lista com registros quando tem registros")
+    void consultar_lista() {
+        Mockito.when(service.consultar()).thenReturn(Flux.just(
+                new Veiculo("MFW7020", "Clio", "vermelho", 2002),
+                new Veiculo("MFW7021", "Jetta", "prata", 2012)));
+        webTestClient.get().uri("/api/veiculos").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].tipo").isEqualTo("Clio")
+                .jsonPath("$[1].qtdMultas").isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Transmite a lista em NDJSON, um veículo por linha")
+    void consultar_listaNdjson() {
+        Mockito.when(service.consultar()).thenReturn(Flux.just(
+                new Veiculo("MFW7020", "Clio", "vermelho", 2002),
+                new Veiculo("MFW7021", "Jetta", "prata", 2012)));
+        Flux<String> placas = webTestClient.get().uri("/api/veiculos").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Veiculo.class)
+                .getResponseBody()
+                .map(Veiculo::getPlaca);
+        StepVerifier.create(placas)
+                .expectNext("MFW7020", "MFW7021")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Retorna o veículo em uma lista quando a placa existe")
+    void consultar_placa() {
+        Mockito.when(service.consultar("MFW7020")).thenReturn(Mono.just(new Veiculo("MFW7020", "Clio", "vermelho", 2002)));
+        webTestClient.get().uri("/api/veiculos/MFW7020")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].placa").isEqualTo("MFW7020");
+    }
+
+    @Test
+    @DisplayName("Retorna 404 quando a placa não existe")
+    void consultar_placaInexistente() {
+        Mockito.when(service.consultar("MFW7020")).thenReturn(Mono.error(new RegistroInexistenteException("MFW7020")));
+        webTestClient.get().uri("/api/veiculos/MFW7020")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.erro").isEqualTo("Registro não encontrado!");
+    }
+
+    @Test
+    @DisplayName("Cadastra veículo e retorna 201 com a localização")
+    void inserir() {
+        Veiculo veiculo = new Veiculo("MFW7020", "Clio", "vermelho", 2002);
+        Mockito.when(service.criar(any(Veiculo.class))).thenReturn(Mono.just(veiculo));
+        webTestClient.post().uri("/api/veiculos").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(veiculo)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location("MFW7020")
+                .expectBody()
+                .jsonPath("$.placa").isEqualTo("MFW7020");
+    }
+
+    @Test
+    @DisplayName("Retorna 409 quando a placa já está cadastrada")
+    void inserir_placaExistente() {
+        Mockito.when(service.criar(any(Veiculo.class))).thenReturn(Mono.error(new RegistroExistenteException("MFW7020")));
+        webTestClient.post().uri("/api/veiculos").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Veiculo("MFW7020", "Clio", "vermelho", 2002))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("Exclui veículo e retorna 204")
+    void excluir() {
+        Mockito.when(service.excluir("MFW7020")).thenReturn(Mono.empty());
+        webTestClient.delete().uri("/api/veiculos/MFW7020")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    @DisplayName("Retorna 423 ao excluir veículo com multas")
+    void excluir_comMultas() {
+        Mockito.when(service.excluir("MFW7020")).thenReturn(Mono.error(new VeiculoComMultaException("MFW7020")));
+        webTestClient.delete().uri("/api/veiculos/MFW7020")
+                .exchange()
+                .expectStatus().isEqualTo(423);
+    }
+
+    @Test
+    @DisplayName("Adiciona multa e retorna o veículo atualizado")
+    void adicionarMulta() {
+        Mockito.when(service.adicionarMulta("MFW7020")).thenReturn(Mono.just(new Veiculo("MFW7020", "Clio", "vermelho", 2002, 1)));
+        webTestClient.put().uri("/api/veiculos/MFW7020/multas")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.qtdMultas").isEqualTo(1);
+    }
+}
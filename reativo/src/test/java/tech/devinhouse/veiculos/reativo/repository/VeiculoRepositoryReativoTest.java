@@ -0,0 +1,71 @@
+package tech.devinhouse.veiculos.reativo.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+@DataR2dbcTest
+@Import(VeiculoRepositoryReativo.class)
+class VeiculoRepositoryReativoTest {
+
+    @Autowired
+    private VeiculoRepositoryReativo repository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    void limpar() {
+        databaseClient.sql("delete from veiculos").then().block();
+    }
+
+    @Test
+    @DisplayName("Insere e consulta veículo, inclusive com campos nulos")
+    void inserir_consultar() {
+        Veiculo veiculo = new Veiculo("MFW7020", null, "vermelho", null, 0);
+
+        StepVerifier.create(repository.inserir(veiculo).then(repository.findById("MFW7020")))
+                .expectNext(veiculo)
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("MFW7020")).expectNext(true).verifyComplete();
+        StepVerifier.create(repository.existsById("MFW7021")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Lista ordenada por placa respeitando a demanda do assinante")
+    void findAll_sobDemanda() {
+        Flux.range(0, 20)
+                .concatMap(i -> repository.inserir(new Veiculo(String.format("F%06d", 19 - i), "Clio", "prata", 2000)))
+                .blockLast();
+
+        StepVerifier.create(repository.findAllOrdenadosPorPlaca().map(Veiculo::getPlaca), 2)
+                .expectNext("F000000", "F000001")
+                .thenRequest(3)
+                .expectNext("F000002", "F000003", "F000004")
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Incrementa multas e exclui apenas placas existentes")
+    void incrementar_excluir() {
+        repository.inserir(new Veiculo("MFW7020", "Clio", "vermelho", 2002, 0)).block();
+
+        StepVerifier.create(repository.incrementarMultas("MFW7020", 2)).expectNext(1L).verifyComplete();
+        StepVerifier.create(repository.incrementarMultas("MFW7021", 1)).expectNext(0L).verifyComplete();
+        StepVerifier.create(repository.findById("MFW7020").map(Veiculo::getQtdMultas)).expectNext(2).verifyComplete();
+        StepVerifier.create(databaseClient.sql("select versao from veiculos where placa = 'MFW7020'")
+                        .map(linha -> linha.get("versao", Long.class)).one())
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("MFW7020")).expectNext(1L).verifyComplete();
+        StepVerifier.create(repository.findById("MFW7020")).verifyComplete();
+    }
+}
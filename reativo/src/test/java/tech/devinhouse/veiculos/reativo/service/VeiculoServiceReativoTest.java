@@ -0,0 +1,85 @@
+package tech.devinhouse.veiculos.reativo.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.reativo.repository.VeiculoRepositoryReativo;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VeiculoServiceReativoTest {
+
+    @Mock
+    private VeiculoRepositoryReativo veiculoRepository;
+
+    @InjectMocks
+    private VeiculoServiceReativo service;
+
+    @Test
+    @DisplayName("Sinaliza RegistroInexistenteException quando a placa não está cadastrada")
+    void consultar_inexistente() {
+        when(veiculoRepository.findById("MFW7020")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.consultar("MFW7020"))
+                .expectError(RegistroInexistenteException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Cadastra o veículo sem multas quando a placa é nova")
+    void criar() {
+        Veiculo veiculo = new Veiculo("MFW7020", "Clio", "vermelho", 2002, 3);
+        when(veiculoRepository.existsById("MFW7020")).thenReturn(Mono.just(false));
+        when(veiculoRepository.inserir(veiculo)).thenReturn(Mono.just(veiculo));
+
+        StepVerifier.create(service.criar(veiculo).map(Veiculo::getQtdMultas))
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Sinaliza RegistroExistenteException quando a placa existe ou a inserção concorrente viola a chave")
+    void criar_existente() {
+        Veiculo veiculo = new Veiculo("MFW7020", "Clio", "vermelho", 2002);
+        when(veiculoRepository.existsById("MFW7020")).thenReturn(Mono.just(true), Mono.just(false));
+        when(veiculoRepository.inserir(any(Veiculo.class))).thenReturn(Mono.error(new DuplicateKeyException("placa")));
+
+        StepVerifier.create(service.criar(veiculo)).expectError(RegistroExistenteException.class).verify();
+        StepVerifier.create(service.criar(veiculo)).expectError(RegistroExistenteException.class).verify();
+    }
+
+    @Test
+    @DisplayName("Não exclui veículo com multas")
+    void excluir_comMultas() {
+        when(veiculoRepository.findById("MFW7020")).thenReturn(Mono.just(new Veiculo("MFW7020", "Clio", "vermelho", 2002, 1)));
+
+        StepVerifier.create(service.excluir("MFW7020")).expectError(VeiculoComMultaException.class).verify();
+        verify(veiculoRepository, never()).deleteById(any());
+    }
+
+    @Test
+    @DisplayName("Adiciona multa somente a placas existentes")
+    void adicionarMulta() {
+        Veiculo multado = new Veiculo("MFW7020", "Clio", "vermelho", 2002, 1);
+        when(veiculoRepository.incrementarMultas("MFW7020", 1)).thenReturn(Mono.just(1L));
+        when(veiculoRepository.findById("MFW7020")).thenReturn(Mono.just(multado));
+        when(veiculoRepository.incrementarMultas("MFW7021", 1)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(service.adicionarMulta("MFW7020")).expectNext(multado).verifyComplete();
+        StepVerifier.create(service.adicionarMulta("MFW7021")).expectError(RegistroInexistenteException.class).verify();
+    }
+}
@@ -0,0 +1,8 @@
+create table if not exists veiculos (
+    placa varchar(255) not null primary key,
+    tipo varchar(255),
+    cor varchar(255),
+    ano_de_fabricacao integer,
+    qtd_multas integer,
+    versao bigint default 0 not null
+);
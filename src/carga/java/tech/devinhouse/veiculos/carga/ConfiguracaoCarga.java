@@ -0,0 +1,135 @@
+package tech.devinhouse.veiculos.carga;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Argumentos no formato --chave=valor; os valores padrão estão em ajuda().
+final class ConfiguracaoCarga {
+
+    int frota = 10_000;
+
+    int taxa = 500;
+
+    Duration aquecimento = Duration.ofSeconds(10);
+
+    Duration duracao = Duration.ofSeconds(30);
+
+    final Map<Operacao, Integer> mix = new EnumMap<>(Operacao.class);
+
+    int pagina = 100;
+
+    double orcamentoP99Ms = 100;
+
+    final Map<Operacao, Double> orcamentosP99Ms = new EnumMap<>(Operacao.class);
+
+    int maxPendentes = 2_000;
+
+    String perfil = "test";
+
+    List<Threads> threads = List.of(Threads.PLATAFORMA);
+
+    Path saida = Path.of("target", "carga");
+
+    private ConfiguracaoCarga() {
+        mix.put(Operacao.LISTA, 5);
+        mix.put(Operacao.CONSULTA, 60);
+        mix.put(Operacao.CADASTRO, 10);
+        mix.put(Operacao.MULTA, 20);
+        mix.put(Operacao.EXCLUSAO, 5);
+    }
+
+    static ConfiguracaoCarga ler(String[] argumentos) {
+        Map<String, String> valores = new HashMap<>();
+        for (String argumento : argumentos) {
+            int igual = argumento.indexOf('=');
+            if (!argumento.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + argumento + "\n" + ajuda());
+            }
+            valores.put(argumento.substring(2, igual), argumento.substring(igual + 1));
+        }
+        ConfiguracaoCarga configuracao = new ConfiguracaoCarga();
+        valores.forEach((chave, valor) -> {
+            switch (chave) {
+                case "frota" -> configuracao.frota = Integer.parseInt(valor);
+                case "taxa" -> configuracao.taxa = Integer.parseInt(valor);
+                case "aquecimento" -> configuracao.aquecimento = DurationStyle.detectAndParse(valor);
+                case "duracao" -> configuracao.duracao = DurationStyle.detectAndParse(valor);
+                case "mix" -> {
+                    configuracao.mix.clear();
+                    for (String parte : valor.split(",")) {
+                        String[] peso = parte.split(":");
+                        configuracao.mix.put(Operacao.porNome(peso[0].trim()), Integer.parseInt(peso[1].trim()));
+                    }
+                }
+                case "pagina" -> configuracao.pagina = Integer.parseInt(valor);
+                case "p99-ms" -> configuracao.orcamentoP99Ms = Double.parseDouble(valor);
+                case "max-pendentes" -> configuracao.maxPendentes = Integer.parseInt(valor);
+                case "perfil" -> configuracao.perfil = valor;
+                case "threads" -> configuracao.threads = switch (valor) {
+                    case "plataforma" -> List.of(Threads.PLATAFORMA);
+                    case "virtuais" -> List.of(Threads.VIRTUAIS);
+                    case "comparar" -> List.of(Threads.PLATAFORMA, Threads.VIRTUAIS);
+                    default -> throw new IllegalArgumentException("Modo de threads inválido: " + valor + "\n" + ajuda());
+                };
+                case "saida" -> configuracao.saida = Path.of(valor);
+                default -> {
+                    if (!chave.startsWith("p99-ms.")) {
+                        throw new IllegalArgumentException("Argumento desconhecido: --" + chave + "\n" + ajuda());
+                    }
+                    configuracao.orcamentosP99Ms.put(Operacao.porNome(chave.substring("p99-ms.".length())), Double.parseDouble(valor));
+                }
+            }
+        });
+        if (configuracao.taxa <= 0 || configuracao.mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("A taxa e a soma dos pesos do mix precisam ser positivas");
+        }
+        if (configuracao.threads.contains(Threads.VIRTUAIS) && Runtime.version().feature() < 21) {
+            throw new IllegalArgumentException("--threads=" + valores.get("threads") + " exige Java 21 ou superior (em execução: "
+                    + Runtime.version() + "); use mvn -Pcarga,jdk21 verify com um JDK 21");
+        }
+        return configuracao;
+    }
+
+    double orcamentoP99Ms(Operacao operacao) {
+        return orcamentosP99Ms.getOrDefault(operacao, orcamentoP99Ms);
+    }
+
+    static String ajuda() {
+        return """
+                Argumentos (--chave=valor):
+                  frota=10000          veículos cadastrados antes da carga
+                  taxa=500             requisições por segundo, em laço aberto
+                  aquecimento=10s      carga inicial descartada do resultado
+                  duracao=30s          carga medida
+                  mix=lista:5,consulta:60,cadastro:10,multa:20,exclusao:5
+                  pagina=100           tamanho da página da lista (0 = lista completa)
+                  p99-ms=100           orçamento de p99 por operação; p99-ms.<operação> sobrepõe
+                  max-pendentes=2000   acima disso o gerador está saturado e a execução falha
+                  perfil=test          perfil da aplicação (test = H2 em memória)
+                  threads=plataforma   threads das requisições: plataforma, virtuais (Java 21) ou comparar,
+                                       que roda a carga nos dois modos e imprime a comparação
+                  saida=target/carga   histogramas .hgrm por operação""";
+    }
+
+    enum Threads {
+
+        PLATAFORMA("plataforma", false),
+        VIRTUAIS("virtuais", true);
+
+        final String nome;
+
+        final boolean virtuais;
+
+        Threads(String nome, boolean virtuais) {
+            this.nome = nome;
+            this.virtuais = virtuais;
+        }
+    }
+
+}
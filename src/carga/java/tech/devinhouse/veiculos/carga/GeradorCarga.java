@@ -0,0 +1,179 @@
+package tech.devinhouse.veiculos.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gera carga em laço aberto: a i-ésima requisição tem horário previsto {@code inicio + i / taxa} e sai
+ * nesse horário, responda o servidor ou não. A latência é medida a partir do horário previsto, então um
+ * servidor lento também atrasa as requisições seguintes no histograma (sem omissão coordenada).
+ */
+final class GeradorCarga {
+
+    private final ConfiguracaoCarga configuracao;
+
+    private final HttpClient cliente;
+
+    private final URI base;
+
+    private final Operacao[] operacoes;
+
+    private final int[] pesosAcumulados;
+
+    private final Map<Operacao, Resultado> resultados = new EnumMap<>(Operacao.class);
+
+    // Veículos criados pela própria carga, sem multas: são eles que a exclusão remove.
+    private final Queue<String> cadastradas = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger proximaPlaca = new AtomicInteger();
+
+    private final AtomicInteger pendentes = new AtomicInteger();
+
+    private final LongAdder naoEnviadas = new LongAdder();
+
+    GeradorCarga(ConfiguracaoCarga configuracao, HttpClient cliente, URI base) {
+        this.configuracao = configuracao;
+        this.cliente = cliente;
+        this.base = base;
+        this.operacoes = configuracao.mix.keySet().toArray(new Operacao[0]);
+        this.pesosAcumulados = new int[operacoes.length];
+        int soma = 0;
+        for (int i = 0; i < operacoes.length; i++) {
+            soma += configuracao.mix.get(operacoes[i]);
+            pesosAcumulados[i] = soma;
+            resultados.put(operacoes[i], new Resultado());
+        }
+    }
+
+    Map<Operacao, Resultado> getResultados() {
+        return resultados;
+    }
+
+    long getNaoEnviadas() {
+        return naoEnviadas.sum();
+    }
+
+    void executar(Duration duracao, boolean medir) {
+        long intervalo = 1_000_000_000L / configuracao.taxa;
+        long inicio = System.nanoTime();
+        long fim = inicio + duracao.toNanos();
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * intervalo;
+            if (previsto - fim >= 0) {
+                break;
+            }
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Operacao operacao = sortear();
+            if (pendentes.get() >= configuracao.maxPendentes) {
+                if (medir) {
+                    naoEnviadas.increment();
+                }
+                continue;
+            }
+            enviar(operacao, previsto, medir);
+        }
+    }
+
+    void aguardarPendentes(Duration limite) {
+        long fim = System.nanoTime() + limite.toNanos();
+        while (pendentes.get() > 0 && System.nanoTime() - fim < 0) {
+            LockSupport.parkNanos(10_000_000);
+        }
+    }
+
+    private Operacao sortear() {
+        int sorteio = ThreadLocalRandom.current().nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; ; i++) {
+            if (sorteio < pesosAcumulados[i]) {
+                return operacoes[i];
+            }
+        }
+    }
+
+    private void enviar(Operacao operacao, long previsto, boolean medir) {
+        String placaNova = operacao == Operacao.CADASTRO ? String.format("N%07d", proximaPlaca.getAndIncrement()) : null;
+        HttpRequest requisicao = requisicao(operacao, placaNova);
+        pendentes.incrementAndGet();
+        cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+            long latencia = System.nanoTime() - previsto;
+            pendentes.decrementAndGet();
+            if (resposta != null && resposta.statusCode() == 201 && placaNova != null) {
+                cadastradas.add(placaNova);
+            }
+            if (medir) {
+                resultados.get(operacao).registrar(latencia, resposta == null ? -1 : resposta.statusCode());
+            }
+        });
+    }
+
+    private HttpRequest requisicao(Operacao operacao, String placaNova) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        String placaFrota = TesteCarga.placaFrota(aleatorio.nextInt(configuracao.frota));
+        return switch (operacao) {
+            case LISTA -> HttpRequest.newBuilder(base.resolve(configuracao.pagina > 0
+                    ? "api/veiculos?tamanho=" + configuracao.pagina + "&apos=" + placaFrota
+                    : "api/veiculos")).GET().build();
+            case CONSULTA -> HttpRequest.newBuilder(base.resolve("api/veiculos/" + placaFrota)).GET().build();
+            case CADASTRO -> HttpRequest.newBuilder(base.resolve("api/veiculos"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(TesteCarga.veiculoJson(placaNova, aleatorio.nextInt(1_000))))
+                    .build();
+            case MULTA -> HttpRequest.newBuilder(base.resolve("api/veiculos/" + placaFrota + "/multas"))
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+            case EXCLUSAO -> {
+                // Sem veículo criado pela carga disponível, a exclusão vira um 404 (contado como 4xx).
+                String placa = cadastradas.poll();
+                yield HttpRequest.newBuilder(base.resolve("api/veiculos/" + (placa == null ? "X0000000" : placa)))
+                        .DELETE().build();
+            }
+        };
+    }
+
+    static final class Resultado {
+
+        private final Recorder latencias = new Recorder(3);
+
+        final LongAdder sucessos = new LongAdder();
+
+        final LongAdder errosCliente = new LongAdder();
+
+        final LongAdder errosServidor = new LongAdder();
+
+        final LongAdder falhas = new LongAdder();
+
+        private void registrar(long latenciaNanos, int status) {
+            latencias.recordValue(latenciaNanos);
+            if (status < 0) {
+                falhas.increment();
+            } else if (status >= 500) {
+                errosServidor.increment();
+            } else if (status >= 400) {
+                errosCliente.increment();
+            } else {
+                sucessos.increment();
+            }
+        }
+
+        Histogram histograma() {
+            return latencias.getIntervalHistogram();
+        }
+    }
+
+}
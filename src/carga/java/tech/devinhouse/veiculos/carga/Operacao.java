@@ -0,0 +1,27 @@
+package tech.devinhouse.veiculos.carga;
+
+// Os cinco endpoints do VeiculosController exercitados pelo teste de carga.
+enum Operacao {
+
+    LISTA("lista"),
+    CONSULTA("consulta"),
+    CADASTRO("cadastro"),
+    MULTA("multa"),
+    EXCLUSAO("exclusao");
+
+    final String nome;
+
+    Operacao(String nome) {
+        this.nome = nome;
+    }
+
+    static Operacao porNome(String nome) {
+        for (Operacao operacao : values()) {
+            if (operacao.nome.equals(nome)) {
+                return operacao;
+            }
+        }
+        throw new IllegalArgumentException("Operação desconhecida: " + nome);
+    }
+
+}
@@ -0,0 +1,178 @@
+package tech.devinhouse.veiculos.carga;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.devinhouse.veiculos.VeiculosApplication;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Teste de carga de ponta a ponta: sobe a aplicação com servidor web numa porta livre contra o banco do
+ * perfil escolhido (H2 em memória no perfil "test"), cadastra a frota, aplica o mix de requisições em laço
+ * aberto e imprime vazão e percentis de latência por operação. Termina com código 1 se o p99 de alguma
+ * operação passar do orçamento ou se o gerador saturar.
+ * <p>
+ * {@code mvn -Pcarga verify -DskipTests [-Dcarga.argumentos="--taxa=1000 --p99-ms=50 ..."]}
+ * <p>
+ * Com {@code --threads=comparar} a carga roda uma vez com threads de plataforma e outra com threads
+ * virtuais ({@code veiculos.threads-virtuais.habilitado}) e termina com a tabela comparativa; o modo
+ * virtual exige Java 21: {@code mvn -Pcarga,jdk21 verify -DskipTests -Dcarga.argumentos="--threads=comparar"}.
+ */
+public final class TesteCarga {
+
+    private static final String[] TIPOS = {"carro", "moto", "caminhao", "onibus", "van"};
+
+    private static final String[] CORES = {"branco", "preto", "prata", "vermelho", "azul", "verde"};
+
+    private TesteCarga() {
+    }
+
+    public static void main(String[] argumentos) throws Exception {
+        ConfiguracaoCarga configuracao;
+        try {
+            configuracao = ConfiguracaoCarga.ler(argumentos);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        int codigo = 0;
+        Map<ConfiguracaoCarga.Threads, Map<Operacao, Resumo>> resumos = new EnumMap<>(ConfiguracaoCarga.Threads.class);
+        for (ConfiguracaoCarga.Threads threads : configuracao.threads) {
+            Map<Operacao, Resumo> resumo = new EnumMap<>(Operacao.class);
+            codigo |= executar(configuracao, threads, resumo);
+            resumos.put(threads, resumo);
+        }
+        if (resumos.size() > 1) {
+            comparar(resumos);
+        }
+        System.exit(codigo);
+    }
+
+    // Cada modo sobe a própria aplicação, com banco e frota novos, para que um não aqueça o outro.
+    private static int executar(ConfiguracaoCarga configuracao, ConfiguracaoCarga.Threads threads,
+                                Map<Operacao, Resumo> resumo) throws Exception {
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(VeiculosApplication.class)
+                .profiles(configuracao.perfil)
+                // Como argumentos de linha de comando para prevalecer sobre os arquivos de propriedades do perfil.
+                .run("--server.port=0", "--logging.level.root=WARN", "--logging.level.tech.devinhouse.veiculos=WARN",
+                        "--spring.jpa.show-sql=false", "--logging.level.org.hibernate.SQL=WARN",
+                        "--veiculos.threads-virtuais.habilitado=" + threads.virtuais);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            popular(contexto.getBean(VeiculoService.class), configuracao.frota);
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            GeradorCarga gerador = new GeradorCarga(configuracao, cliente, URI.create("http://localhost:" + porta + "/"));
+            System.out.printf("%nTeste de carga: %d req/s por %ss (aquecimento de %ss), frota de %d veículo(s), mix %s, threads de %s%n",
+                    configuracao.taxa, configuracao.duracao.toSeconds(), configuracao.aquecimento.toSeconds(),
+                    configuracao.frota, configuracao.mix, threads.nome);
+            gerador.executar(configuracao.aquecimento, false);
+            gerador.aguardarPendentes(Duration.ofSeconds(30));
+            gerador.executar(configuracao.duracao, true);
+            gerador.aguardarPendentes(Duration.ofSeconds(60));
+            Path saida = configuracao.threads.size() > 1 ? configuracao.saida.resolve(threads.nome) : configuracao.saida;
+            return relatar(configuracao, gerador, saida, resumo);
+        } finally {
+            executor.shutdownNow();
+            contexto.close();
+        }
+    }
+
+    static String placaFrota(int indice) {
+        return String.format("S%07d", indice);
+    }
+
+    static String veiculoJson(String placa, int indice) {
+        return "{\"placa\":\"" + placa + "\",\"tipo\":\"" + TIPOS[indice % TIPOS.length] + "\",\"cor\":\""
+                + CORES[indice % CORES.length] + "\",\"anoDeFabricacao\":" + (1990 + indice % 35) + "}";
+    }
+
+    private static void popular(VeiculoService service, int frota) {
+        List<Veiculo> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < frota; i++) {
+            lote.add(new Veiculo(placaFrota(i), TIPOS[i % TIPOS.length], CORES[i % CORES.length], 1990 + i % 35));
+            if (lote.size() == 10_000) {
+                service.criarEmLote(lote);
+                lote = new ArrayList<>(10_000);
+            }
+        }
+        if (!lote.isEmpty()) {
+            service.criarEmLote(lote);
+        }
+    }
+
+    private static int relatar(ConfiguracaoCarga configuracao, GeradorCarga gerador, Path saida,
+                               Map<Operacao, Resumo> resumo) throws IOException {
+        Files.createDirectories(saida);
+        double segundos = configuracao.duracao.toNanos() / 1e9;
+        boolean estourou = false;
+        System.out.printf("%n%-10s %8s %9s %8s %6s %6s %6s %9s %9s %9s %9s %9s %10s%n", "operação", "reqs", "req/s",
+                "2xx/3xx", "4xx", "5xx", "falhas", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms", "orçamento");
+        for (Map.Entry<Operacao, GeradorCarga.Resultado> entrada : gerador.getResultados().entrySet()) {
+            Operacao operacao = entrada.getKey();
+            GeradorCarga.Resultado resultado = entrada.getValue();
+            Histogram histograma = resultado.histograma();
+            double p99 = ms(histograma.getValueAtPercentile(99));
+            double orcamento = configuracao.orcamentoP99Ms(operacao);
+            boolean acima = histograma.getTotalCount() > 0 && p99 > orcamento;
+            estourou |= acima;
+            resumo.put(operacao, new Resumo(histograma.getTotalCount() / segundos, ms(histograma.getValueAtPercentile(50)), p99));
+            System.out.printf("%-10s %8d %9.1f %8d %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f %7.0f %s%n", operacao.nome,
+                    histograma.getTotalCount(), histograma.getTotalCount() / segundos, resultado.sucessos.sum(),
+                    resultado.errosCliente.sum(), resultado.errosServidor.sum(), resultado.falhas.sum(),
+                    ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(90)), p99,
+                    ms(histograma.getValueAtPercentile(99.9)), ms(histograma.getMaxValue()), orcamento, acima ? "ESTOUROU" : "ok");
+            try (PrintStream arquivo = new PrintStream(Files.newOutputStream(saida.resolve(operacao.nome + ".hgrm")))) {
+                histograma.outputPercentileDistribution(arquivo, 1_000_000.0);
+            }
+        }
+        long naoEnviadas = gerador.getNaoEnviadas();
+        if (naoEnviadas > 0) {
+            System.out.printf("%n%d requisição(ões) não enviada(s): mais de %d pendentes, o servidor não acompanha a taxa%n",
+                    naoEnviadas, configuracao.maxPendentes);
+        }
+        System.out.printf("%nHistogramas (ms) em %s%n", saida.toAbsolutePath());
+        return estourou || naoEnviadas > 0 ? 1 : 0;
+    }
+
+    private static void comparar(Map<ConfiguracaoCarga.Threads, Map<Operacao, Resumo>> resumos) {
+        Map<Operacao, Resumo> plataforma = resumos.get(ConfiguracaoCarga.Threads.PLATAFORMA);
+        Map<Operacao, Resumo> virtuais = resumos.get(ConfiguracaoCarga.Threads.VIRTUAIS);
+        System.out.printf("%nComparação (threads de plataforma x virtuais)%n%-10s %11s %11s %11s %11s %11s %11s%n", "operação",
+                "req/s plat.", "req/s virt.", "p50 plat.", "p50 virt.", "p99 plat.", "p99 virt.");
+        plataforma.forEach((operacao, p) -> {
+            Resumo v = virtuais.get(operacao);
+            System.out.printf("%-10s %11.1f %11.1f %11.2f %11.2f %11.2f %11.2f%n", operacao.nome,
+                    p.reqPorSegundo(), v.reqPorSegundo(), p.p50Ms(), v.p50Ms(), p.p99Ms(), v.p99Ms());
+        });
+    }
+
+    private record Resumo(double reqPorSegundo, double p50Ms, double p99Ms) {
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,242 @@
+package tech.devinhouse.veiculos.inicio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Mede o tempo de início da aplicação no perfil "rapido" em três modos: JVM padrão, com o contexto
+ * gerado pelo processamento AOT e com AOT mais o arquivo CDS (class data sharing) gravado por uma
+ * execução de treino. Como referência mede também o início com {@code ddl-auto=update}, sem AOT nem CDS. Cada execução é um processo novo contra um H2 em arquivo cujo esquema é aplicado
+ * antes, com {@code db/esquema.sql}, como seria num deploy.
+ * <p>
+ * Para cada modo imprime a mediana do tempo até o Spring anunciar o início ("process running for") e do
+ * tempo, contado do lançamento do processo, até a primeira resposta de {@code GET /api/veiculos}. Os
+ * tempos de cada execução vão para {@code tempos.csv}. Termina com código 1 se algum modo não subir ou se a
+ * primeira requisição com AOT e CDS passar do orçamento ({@code --orcamento-ms}, 0 desliga).
+ */
+public final class MedicaoInicio {
+
+    private static final Pattern INICIO = Pattern.compile("process running for ([0-9.]+)\\)");
+
+    private static final Duration TEMPO_MAXIMO = Duration.ofMinutes(2);
+
+    private MedicaoInicio() {
+    }
+
+    private record Modo(String nome, List<String> opcoes, List<String> argumentos) {
+    }
+
+    private record Medicao(long inicioMs, long primeiraRequisicaoMs) {
+    }
+
+    public static void main(String[] argumentos) throws Exception {
+        Path jar = null;
+        Path saida = Path.of("target", "inicio");
+        int repeticoes = 3;
+        long orcamentoMs = 0;
+        for (String argumento : argumentos) {
+            int igual = argumento.indexOf('=');
+            if (!argumento.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + argumento + " (use --chave=valor)");
+            }
+            String valor = argumento.substring(igual + 1);
+            switch (argumento.substring(2, igual)) {
+                case "jar" -> jar = Path.of(valor);
+                case "saida" -> saida = Path.of(valor);
+                case "repeticoes" -> repeticoes = Integer.parseInt(valor);
+                case "orcamento-ms" -> orcamentoMs = Long.parseLong(valor);
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + argumento);
+            }
+        }
+        if (jar == null || !Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("Informe o jar da aplicação com --jar=... (encontrado: " + jar + ")");
+        }
+        Files.createDirectories(saida);
+        Path arquivoCds = saida.resolve("veiculos.jsa").toAbsolutePath();
+        Files.deleteIfExists(arquivoCds);
+        String banco = prepararBanco(saida.resolve("banco").toAbsolutePath());
+        String classpath = classpath(jar);
+
+        System.out.println("Execução de treino para o arquivo CDS...");
+        executar(classpath, banco, new Modo("treino", List.of("-XX:ArchiveClassesAtExit=" + arquivoCds, "-Dspring.aot.enabled=true"), List.of()));
+        if (!Files.isRegularFile(arquivoCds)) {
+            System.err.println("O arquivo CDS não foi gravado em " + arquivoCds);
+            System.exit(1);
+        }
+
+        List<Modo> modos = List.of(
+                new Modo("ddl update", List.of(), List.of("--spring.jpa.hibernate.ddl-auto=update")),
+                new Modo("padrão", List.of(), List.of()),
+                new Modo("aot", List.of("-Dspring.aot.enabled=true"), List.of()),
+                new Modo("aot+cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + arquivoCds, "-Xshare:auto"), List.of()));
+        long primeiraRequisicaoAotCds = 0;
+        System.out.printf("%n%-12s %14s %26s %11s%n", "modo", "início ms", "primeira requisição ms", "execuções");
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(saida.resolve("tempos.csv"), StandardCharsets.UTF_8))) {
+            csv.println("modo,execucao,inicio_ms,primeira_requisicao_ms");
+            for (Modo modo : modos) {
+                List<Medicao> medicoes = new ArrayList<>();
+                for (int i = 1; i <= repeticoes; i++) {
+                    Medicao medicao = executar(classpath, banco, modo);
+                    medicoes.add(medicao);
+                    csv.printf("%s,%d,%d,%d%n", modo.nome(), i, medicao.inicioMs(), medicao.primeiraRequisicaoMs());
+                }
+                long inicio = mediana(medicoes.stream().mapToLong(Medicao::inicioMs).toArray());
+                long primeiraRequisicao = mediana(medicoes.stream().mapToLong(Medicao::primeiraRequisicaoMs).toArray());
+                System.out.printf("%-12s %14d %26d %11d%n", modo.nome(), inicio, primeiraRequisicao, repeticoes);
+                primeiraRequisicaoAotCds = primeiraRequisicao;
+            }
+        }
+        System.out.printf("%nTempos por execução em %s%n", saida.resolve("tempos.csv").toAbsolutePath());
+        if (orcamentoMs > 0 && primeiraRequisicaoAotCds > orcamentoMs) {
+            System.out.printf("Primeira requisição com AOT e CDS em %d ms, acima do orçamento de %d ms%n", primeiraRequisicaoAotCds, orcamentoMs);
+            System.exit(1);
+        }
+    }
+
+    // O CDS só arquiva classes lidas de arquivos jar e recusa diretórios no classpath, por isso a
+    // aplicação entra pelo jar sem reempacotar e as dependências pelos jars do classpath desta medição.
+    private static String classpath(Path jar) {
+        List<String> entradas = new ArrayList<>();
+        entradas.add(jar.toAbsolutePath().toString());
+        Arrays.stream(System.getProperty("java.class.path").split(java.io.File.pathSeparator))
+                .filter(entrada -> entrada.endsWith(".jar"))
+                .forEach(entradas::add);
+        return String.join(java.io.File.pathSeparator, entradas);
+    }
+
+    private static String prepararBanco(Path diretorio) throws IOException, SQLException {
+        if (Files.isDirectory(diretorio)) {
+            try (var arquivos = Files.list(diretorio)) {
+                for (Path arquivo : arquivos.toList()) {
+                    Files.delete(arquivo);
+                }
+            }
+        }
+        String url = "jdbc:h2:file:" + diretorio.resolve("veiculos") + ";MODE=MariaDB";
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             Statement comando = conexao.createStatement()) {
+            comando.execute("runscript from 'classpath:/db/esquema.sql'");
+        }
+        return url;
+    }
+
+    private static Medicao executar(String classpath, String banco, Modo modo) throws Exception {
+        int porta;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(modo.opcoes());
+        comando.addAll(List.of("-cp", classpath, "tech.devinhouse.veiculos.VeiculosApplication",
+                "--spring.profiles.active=rapido", "--server.port=" + porta,
+                "--spring.datasource.url=" + banco, "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa", "--spring.datasource.password="));
+        comando.addAll(modo.argumentos());
+
+        long lancamento = System.nanoTime();
+        Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        Deque<String> ultimasLinhas = new ArrayDeque<>();
+        long[] inicioMs = {-1};
+        Thread leitor = new Thread(() -> {
+            try (BufferedReader saida = new BufferedReader(new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8))) {
+                String linha;
+                while ((linha = saida.readLine()) != null) {
+                    Matcher inicio = INICIO.matcher(linha);
+                    if (inicio.find()) {
+                        synchronized (inicioMs) {
+                            inicioMs[0] = Math.round(Double.parseDouble(inicio.group(1)) * 1000);
+                        }
+                    }
+                    synchronized (ultimasLinhas) {
+                        ultimasLinhas.addLast(linha);
+                        if (ultimasLinhas.size() > 40) {
+                            ultimasLinhas.removeFirst();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Processo encerrado.
+            }
+        });
+        leitor.setDaemon(true);
+        leitor.start();
+        try {
+            long primeiraRequisicaoMs = aguardarPrimeiraResposta(processo, porta, lancamento);
+            encerrar(processo);
+            leitor.join(TimeUnit.SECONDS.toMillis(10));
+            synchronized (inicioMs) {
+                return new Medicao(inicioMs[0], primeiraRequisicaoMs);
+            }
+        } catch (IllegalStateException e) {
+            encerrar(processo);
+            synchronized (ultimasLinhas) {
+                System.err.println(ultimasLinhas.stream().collect(Collectors.joining(System.lineSeparator())));
+            }
+            System.err.println(e.getMessage());
+            System.exit(1);
+            throw e;
+        }
+    }
+
+    private static long aguardarPrimeiraResposta(Process processo, int porta, long lancamento) throws InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/veiculos?tamanho=10")).build();
+        long limite = lancamento + TEMPO_MAXIMO.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("A aplicação terminou antes de responder (código " + processo.exitValue() + ")");
+            }
+            try {
+                HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                if (resposta.statusCode() != 200) {
+                    throw new IllegalStateException("Primeira requisição respondida com " + resposta.statusCode());
+                }
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lancamento);
+            } catch (IOException e) {
+                // Ainda não aceita conexões.
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("A aplicação não respondeu em " + TEMPO_MAXIMO.toSeconds() + "s");
+    }
+
+    // SIGTERM, para que a JVM encerre normalmente e grave o arquivo CDS na execução de treino.
+    private static void encerrar(Process processo) throws InterruptedException {
+        processo.destroy();
+        if (!processo.waitFor(60, TimeUnit.SECONDS)) {
+            processo.destroyForcibly().waitFor();
+        }
+    }
+
+    private static long mediana(long[] valores) {
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+
+}
@@ -0,0 +1,60 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.devinhouse.veiculos.VeiculosApplication;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Sobe a aplicação sem servidor web contra o H2 do perfil de testes (ou outro perfil) e popula a frota.
+final class AplicacaoEmbarcada {
+
+    static final String[] TIPOS = {"carro", "moto", "caminhao", "onibus", "van"};
+
+    static final String[] CORES = {"branco", "preto", "prata", "vermelho", "azul", "verde"};
+
+    private AplicacaoEmbarcada() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propriedades) {
+        return iniciarComPerfis(new String[]{"test"}, propriedades);
+    }
+
+    static ConfigurableApplicationContext iniciarComPerfis(String[] perfis, String... propriedades) {
+        return new SpringApplicationBuilder(VeiculosApplication.class)
+                .profiles(perfis)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "logging.level.tech.devinhouse.veiculos=WARN",
+                        "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN")
+                .properties(propriedades)
+                .run();
+    }
+
+    static String placa(int indice) {
+        return String.format("F%06d", indice);
+    }
+
+    static Veiculo veiculo(int indice) {
+        return new Veiculo(placa(indice), TIPOS[indice % TIPOS.length], CORES[indice % CORES.length],
+                1990 + indice % 35, 0);
+    }
+
+    static void popular(VeiculoService service, int tamanhoFrota) {
+        List<Veiculo> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < tamanhoFrota; i++) {
+            lote.add(veiculo(i));
+            if (lote.size() == 10_000) {
+                service.criarEmLote(lote);
+                lote = new ArrayList<>(10_000);
+            }
+        }
+        if (!lote.isEmpty()) {
+            service.criarEmLote(lote);
+        }
+    }
+
+}
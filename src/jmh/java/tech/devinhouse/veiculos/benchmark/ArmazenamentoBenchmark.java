@@ -0,0 +1,97 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Mesmas operações do serviço sobre o backend JPA (H2) e sobre o armazenamento em memória,
+// com o cache desligado para que cada leitura chegue ao repositório.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArmazenamentoBenchmark {
+
+    @Param({"100000"})
+    private int tamanhoFrota;
+
+    @Param({"jpa", "memoria"})
+    private String armazenamento;
+
+    private Path diretorio;
+
+    private ConfigurableApplicationContext contexto;
+
+    private VeiculoService service;
+
+    private final AtomicInteger proximaPlaca = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        diretorio = Files.createTempDirectory("veiculos-memoria");
+        String[] perfis = armazenamento.equals("memoria") ? new String[]{"test", "memoria"} : new String[]{"test"};
+        contexto = AplicacaoEmbarcada.iniciarComPerfis(perfis, "veiculos.cache.habilitado=false",
+                "veiculos.memoria.diretorio=" + diretorio);
+        service = contexto.getBean(VeiculoService.class);
+        AplicacaoEmbarcada.popular(service, tamanhoFrota);
+        proximaPlaca.set(tamanhoFrota);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        contexto.close();
+        FileSystemUtils.deleteRecursively(diretorio);
+    }
+
+    private String placaExistente() {
+        return AplicacaoEmbarcada.placa(ThreadLocalRandom.current().nextInt(tamanhoFrota));
+    }
+
+    @Benchmark
+    public List<Veiculo> consultarPlaca() {
+        return service.consultar(placaExistente());
+    }
+
+    @Benchmark
+    public List<Veiculo> consultarPagina() {
+        return service.consultarPagina(placaExistente(), 100);
+    }
+
+    @Benchmark
+    public List<Veiculo> pesquisarPorAno() {
+        FiltroVeiculos filtro = new FiltroVeiculos();
+        filtro.setTipo(AplicacaoEmbarcada.TIPOS[ThreadLocalRandom.current().nextInt(AplicacaoEmbarcada.TIPOS.length)]);
+        filtro.setOrdenarPor(FiltroVeiculos.Ordenacao.ANO_DE_FABRICACAO);
+        return service.pesquisar(filtro);
+    }
+
+    @Benchmark
+    public Veiculo adicionarMulta() {
+        return service.adicionarMulta(placaExistente());
+    }
+
+    @Benchmark
+    public Veiculo criar() {
+        return service.criar(AplicacaoEmbarcada.veiculo(proximaPlaca.getAndIncrement()));
+    }
+
+}
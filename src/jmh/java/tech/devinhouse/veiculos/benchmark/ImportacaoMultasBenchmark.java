@@ -0,0 +1,69 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.devinhouse.veiculos.dto.ResultadoImportacaoMultas;
+import tech.devinhouse.veiculos.service.ImportadorMultas;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Multas por segundo na importação de um arquivo CSV, com placas repetidas como nos arquivos das câmeras.
+// Para comparar com o caminho de uma multa por requisição, ver VeiculoServiceBenchmark.adicionarMulta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImportacaoMultasBenchmark {
+
+    private static final int MULTAS_POR_ARQUIVO = 100_000;
+
+    @Param({"10000"})
+    private int tamanhoFrota;
+
+    private ConfigurableApplicationContext contexto;
+
+    private ImportadorMultas importador;
+
+    private byte[] arquivo;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = AplicacaoEmbarcada.iniciar();
+        AplicacaoEmbarcada.popular(contexto.getBean(VeiculoService.class), tamanhoFrota);
+        importador = contexto.getBean(ImportadorMultas.class);
+        // 1% das linhas com placas que não estão cadastradas.
+        Random aleatorio = new Random(42);
+        StringBuilder csv = new StringBuilder("placa,quantidade\n");
+        for (int i = 0; i < MULTAS_POR_ARQUIVO; i++) {
+            int indice = aleatorio.nextInt(100) == 0 ? tamanhoFrota + aleatorio.nextInt(tamanhoFrota) : aleatorio.nextInt(tamanhoFrota);
+            csv.append(AplicacaoEmbarcada.placa(indice)).append(",1\n");
+        }
+        arquivo = csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MULTAS_POR_ARQUIVO)
+    public ResultadoImportacaoMultas importarCsv() throws IOException {
+        return importador.importarCsv(new ByteArrayInputStream(arquivo));
+    }
+
+}
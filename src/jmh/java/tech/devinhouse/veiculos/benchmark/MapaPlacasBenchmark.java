@@ -0,0 +1,98 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.devinhouse.veiculos.model.Placa;
+import tech.devinhouse.veiculos.repository.MapaPlacas;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Índice de placas com chaves String (como antes) e com placas codificadas em long: consulta pontual,
+// varredura de uma página e memória ocupada depois da carga (impressa no início de cada rodada).
+// Memória medida com 10 milhões de placas e heap de 3 GB (-p tamanhoFrota=10000000 -jvmArgs -Xmx3g):
+// 83 bytes por placa com chave String e 15 com a placa codificada. O padrão de 1 milhão dá 84 e 13.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapaPlacasBenchmark {
+
+    private static final Object VALOR = new Object();
+
+    @Param({"1000000"})
+    private int tamanhoFrota;
+
+    @Param({"texto", "codificada"})
+    private String chave;
+
+    private ConcurrentSkipListMap<String, Object> porTexto;
+
+    private MapaPlacas<Object> porCodigo;
+
+    @Setup(Level.Trial)
+    public void carregar() {
+        long antes = memoriaOcupada();
+        if ("texto".equals(chave)) {
+            porTexto = new ConcurrentSkipListMap<>();
+            for (int i = 0; i < tamanhoFrota; i++) {
+                porTexto.put(AplicacaoEmbarcada.placa(i), VALOR);
+            }
+        } else {
+            porCodigo = new MapaPlacas<>();
+            for (int i = 0; i < tamanhoFrota; i++) {
+                porCodigo.put(Placa.codificar(AplicacaoEmbarcada.placa(i)), VALOR);
+            }
+        }
+        System.out.printf("%n%s: %d bytes por placa%n", chave, (memoriaOcupada() - antes) / tamanhoFrota);
+    }
+
+    @TearDown(Level.Trial)
+    public void descartar() {
+        porTexto = null;
+        porCodigo = null;
+    }
+
+    @Benchmark
+    public Object consultar() {
+        String placa = AplicacaoEmbarcada.placa(ThreadLocalRandom.current().nextInt(tamanhoFrota));
+        return porTexto != null ? porTexto.get(placa) : porCodigo.get(Placa.codificar(placa));
+    }
+
+    @Benchmark
+    public void percorrerPagina(Blackhole blackhole) {
+        String cursor = AplicacaoEmbarcada.placa(ThreadLocalRandom.current().nextInt(tamanhoFrota));
+        int restantes = 100;
+        if (porTexto != null) {
+            for (Map.Entry<String, Object> veiculo : porTexto.tailMap(cursor, false).entrySet()) {
+                blackhole.consume(veiculo.getKey());
+                if (--restantes == 0) {
+                    return;
+                }
+            }
+        } else {
+            var faixa = porCodigo.crescente(Placa.codificar(cursor));
+            while (restantes-- > 0 && faixa.hasNext()) {
+                blackhole.consume(Placa.decodificar(faixa.next().placa()));
+            }
+        }
+    }
+
+    private static long memoriaOcupada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,76 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Latência da pesquisa filtrada sobre uma frota grande; com os índices de VEICULOS
+// o tempo deve acompanhar o tamanho da página, não o da tabela.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PesquisaBenchmark {
+
+    @Param({"1000000"})
+    private int tamanhoFrota;
+
+    private ConfigurableApplicationContext contexto;
+
+    private VeiculoService service;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = AplicacaoEmbarcada.iniciar("veiculos.filtro.habilitado=false");
+        service = contexto.getBean(VeiculoService.class);
+        AplicacaoEmbarcada.popular(service, tamanhoFrota);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Veiculo> tipoEFaixaDeAno() {
+        var filtro = new FiltroVeiculos();
+        filtro.setTipo("caminhao");
+        filtro.setAnoMaximo(2010);
+        filtro.setOrdenarPor(FiltroVeiculos.Ordenacao.ANO_DE_FABRICACAO);
+        filtro.setDirecao(Sort.Direction.DESC);
+        return service.pesquisar(filtro);
+    }
+
+    @Benchmark
+    public List<Veiculo> corComCursor() {
+        var filtro = new FiltroVeiculos();
+        filtro.setCor("prata");
+        filtro.setAnoMinimo(2000);
+        filtro.setOrdenarPor(FiltroVeiculos.Ordenacao.ANO_DE_FABRICACAO);
+        filtro.setCursor("2005:F500000");
+        return service.pesquisar(filtro);
+    }
+
+    @Benchmark
+    public List<Veiculo> maisMultados() {
+        var filtro = new FiltroVeiculos();
+        filtro.setOrdenarPor(FiltroVeiculos.Ordenacao.QTD_MULTAS);
+        filtro.setDirecao(Sort.Direction.DESC);
+        return service.pesquisar(filtro);
+    }
+
+}
@@ -0,0 +1,66 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.VeiculoRepositoryMemoria;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Tempo de inicialização do armazenamento em memória: reaplicar só o diário ou carregar um snapshot.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RecuperacaoMemoriaBenchmark {
+
+    @Param({"1000000"})
+    private int tamanhoFrota;
+
+    @Param({"true", "false"})
+    private boolean comSnapshot;
+
+    private Path diretorio;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        diretorio = Files.createTempDirectory("veiculos-recuperacao");
+        VeiculoRepositoryMemoria repositorio = new VeiculoRepositoryMemoria(diretorio, false);
+        List<Veiculo> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < tamanhoFrota; i++) {
+            lote.add(AplicacaoEmbarcada.veiculo(i));
+            if (lote.size() == 10_000) {
+                repositorio.inserirEmLote(lote);
+                lote = new ArrayList<>(10_000);
+            }
+        }
+        if (comSnapshot) {
+            repositorio.gravarSnapshot();
+        }
+        repositorio.sincronizar();
+    }
+
+    @TearDown(Level.Trial)
+    public void remover() throws IOException {
+        FileSystemUtils.deleteRecursively(diretorio);
+    }
+
+    @Benchmark
+    public long recuperar() throws IOException {
+        return new VeiculoRepositoryMemoria(diretorio, false).count();
+    }
+
+}
@@ -0,0 +1,78 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import tech.devinhouse.veiculos.config.RestExceptionHandler;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Caminho completo de um erro de domínio: criação e lançamento da exceção, tratamento no
+// RestExceptionHandler e serialização do corpo da resposta. A exceção é lançada a uma profundidade
+// de pilha parecida com a de uma requisição real (filtros, DispatcherServlet, proxies, serviço).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RespostaErroBenchmark {
+
+    private static final String PLACA = "MFW7020";
+
+    @Param({"0", "120"})
+    private int profundidade;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final RestExceptionHandler handler = new RestExceptionHandler(
+            new StaticListableBeanFactory(Map.of("registry", new SimpleMeterRegistry())).getBeanProvider(MeterRegistry.class));
+
+    private static void lancar(int restante, Function<String, RuntimeException> erro) {
+        if (restante <= 0) {
+            throw erro.apply(PLACA);
+        }
+        lancar(restante - 1, erro);
+    }
+
+    @Benchmark
+    public byte[] naoEncontrado404() throws Exception {
+        try {
+            lancar(profundidade, RegistroInexistenteException::new);
+            return null;
+        } catch (RegistroInexistenteException e) {
+            return objectMapper.writeValueAsBytes(handler.handleRegistroNaoEncontradoException(e).getBody());
+        }
+    }
+
+    @Benchmark
+    public byte[] conflito409() throws Exception {
+        try {
+            lancar(profundidade, RegistroExistenteException::new);
+            return null;
+        } catch (RegistroExistenteException e) {
+            return objectMapper.writeValueAsBytes(handler.handleRegistroExistenteException(e).getBody());
+        }
+    }
+
+    @Benchmark
+    public byte[] comMultas423() throws Exception {
+        try {
+            lancar(profundidade, VeiculoComMultaException::new);
+            return null;
+        } catch (VeiculoComMultaException e) {
+            return objectMapper.writeValueAsBytes(handler.handleVeiculoComMultaException(e).getBody());
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo para serializar a lista de veículos em JSON, CBOR e Smile (com valores compartilhados, como
+ * no FormatosBinariosConfig). O tamanho de cada formato é impresso no início de cada tamanho de lista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SerializacaoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int quantidade;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    private final ObjectMapper smileMapper = new SmileMapper(
+            SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build());
+
+    private List<Veiculo> veiculos;
+
+    @Setup
+    public void iniciar() throws Exception {
+        veiculos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            veiculos.add(AplicacaoEmbarcada.veiculo(i));
+        }
+        long json = listaJson().length;
+        long cbor = listaCbor().length;
+        long smile = listaSmile().length;
+        System.out.printf("%n%d veículo(s): JSON %d bytes, CBOR %d bytes (%.0f%%), Smile %d bytes (%.0f%%)%n",
+                quantidade, json, cbor, 100.0 * cbor / json, smile, 100.0 * smile / json);
+    }
+
+    @Benchmark
+    public byte[] listaJson() throws Exception {
+        return objectMapper.writeValueAsBytes(veiculos);
+    }
+
+    @Benchmark
+    public byte[] listaCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(veiculos);
+    }
+
+    @Benchmark
+    public byte[] listaSmile() throws Exception {
+        return smileMapper.writeValueAsBytes(veiculos);
+    }
+
+}
@@ -0,0 +1,82 @@
+package tech.devinhouse.veiculos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VeiculoServiceBenchmark {
+
+    @Param({"10000"})
+    private int tamanhoFrota;
+
+    @Param({"true", "false"})
+    private boolean cacheHabilitado;
+
+    private ConfigurableApplicationContext contexto;
+
+    private VeiculoService service;
+
+    private final AtomicInteger proximaPlaca = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = AplicacaoEmbarcada.iniciar("veiculos.cache.habilitado=" + cacheHabilitado);
+        service = contexto.getBean(VeiculoService.class);
+        AplicacaoEmbarcada.popular(service, tamanhoFrota);
+        proximaPlaca.set(tamanhoFrota);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    private String placaExistente() {
+        return AplicacaoEmbarcada.placa(ThreadLocalRandom.current().nextInt(tamanhoFrota));
+    }
+
+    @Benchmark
+    public List<Veiculo> consultarPlaca() {
+        return service.consultar(placaExistente());
+    }
+
+    @Benchmark
+    public List<Veiculo> consultarPagina() {
+        return service.consultarPagina(placaExistente(), 100);
+    }
+
+    @Benchmark
+    public Veiculo adicionarMulta() {
+        return service.adicionarMulta(placaExistente());
+    }
+
+    @Benchmark
+    public Veiculo criar() {
+        return service.criar(AplicacaoEmbarcada.veiculo(proximaPlaca.getAndIncrement()));
+    }
+
+    @Benchmark
+    public void criarEExcluir() {
+        Veiculo veiculo = service.criar(AplicacaoEmbarcada.veiculo(proximaPlaca.getAndIncrement()));
+        service.excluir(veiculo.getPlaca());
+    }
+
+}
@@ -0,0 +1,51 @@
+package tech.devinhouse.veiculos.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import tech.devinhouse.veiculos.service.LimiteAdaptativo;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "veiculos.admissao.habilitado", havingValue = "true", matchIfMissing = true)
+public class AdmissaoConfig {
+
+    @Bean
+    public LimiteAdaptativo limiteOperacoesPontuais(Environment ambiente) {
+        return limite(ambiente, "pontual", 50, 5, 200, Duration.ofMillis(100), Duration.ofSeconds(1));
+    }
+
+    @Bean
+    public LimiteAdaptativo limiteOperacoesPesadas(Environment ambiente) {
+        return limite(ambiente, "pesada", 8, 1, 32, Duration.ofSeconds(2), Duration.ofSeconds(5));
+    }
+
+    // Antes dos demais filtros da aplicação, para que uma requisição recusada não faça mais nada; depois
+    // do filtro de métricas HTTP, para que as recusas apareçam em http.server.requests.
+    @Bean
+    public FilterRegistrationBean<FiltroAdmissao> admissao(@Qualifier("limiteOperacoesPontuais") LimiteAdaptativo pontuais,
+                                                           @Qualifier("limiteOperacoesPesadas") LimiteAdaptativo pesadas) {
+        FilterRegistrationBean<FiltroAdmissao> registro = new FilterRegistrationBean<>(new FiltroAdmissao(pontuais, pesadas));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+
+    private static LimiteAdaptativo limite(Environment ambiente, String categoria, int inicial, int minimo, int maximo,
+                                           Duration latenciaAlvo, Duration retryAfter) {
+        String prefixo = "veiculos.admissao." + categoria + ".";
+        return new LimiteAdaptativo(categoria,
+                ambiente.getProperty(prefixo + "limite-inicial", Integer.class, inicial),
+                ambiente.getProperty(prefixo + "limite-minimo", Integer.class, minimo),
+                ambiente.getProperty(prefixo + "limite-maximo", Integer.class, maximo),
+                ambiente.getProperty(prefixo + "latencia-alvo", Duration.class, latenciaAlvo),
+                ambiente.getProperty("veiculos.admissao.reducao", Double.class, 0.75),
+                ambiente.getProperty(prefixo + "retry-after", Duration.class, retryAfter));
+    }
+
+}
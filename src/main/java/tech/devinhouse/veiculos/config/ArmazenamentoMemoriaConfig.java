@@ -0,0 +1,101 @@
+package tech.devinhouse.veiculos.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.devinhouse.veiculos.repository.DesfazimentoMemoria;
+
+/**
+ * Perfil "memoria": sem DataSource nem JPA (ver application-memoria.properties), os veículos
+ * ficam no {@code VeiculoRepositoryMemoria}.
+ */
+@Configuration
+@Profile("memoria")
+public class ArmazenamentoMemoriaConfig {
+
+    /**
+     * O armazenamento em memória grava cada operação no diário assim que ela termina, então não há o que
+     * confirmar. No rollback, as escritas da transação são desfeitas pelos registros que o repositório deixou
+     * no {@link DesfazimentoMemoria} da transação. O gerenciador também mantém funcionando o
+     * {@code @Transactional}, o {@code TransactionTemplate} e os callbacks de pós-commit do cache, do filtro
+     * e do agregador.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new TransacoesMemoria();
+    }
+
+    private static class TransacoesMemoria extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Transacao((DesfazimentoMemoria) TransactionSynchronizationManager.getResource(DesfazimentoMemoria.class));
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((Transacao) transaction).desfazimento != null;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            DesfazimentoMemoria desfazimento = new DesfazimentoMemoria();
+            TransactionSynchronizationManager.bindResource(DesfazimentoMemoria.class, desfazimento);
+            ((Transacao) transaction).desfazimento = desfazimento;
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            ((Transacao) transaction).desfazimento = null;
+            return TransactionSynchronizationManager.unbindResource(DesfazimentoMemoria.class);
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            TransactionSynchronizationManager.bindResource(DesfazimentoMemoria.class, suspendedResources);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            ((Transacao) status.getTransaction()).desfazimento.desfazer();
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((Transacao) status.getTransaction()).desfazimento.marcarSomenteRollback();
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DesfazimentoMemoria.class);
+        }
+    }
+
+    private static class Transacao implements SmartTransactionObject {
+
+        private DesfazimentoMemoria desfazimento;
+
+        private Transacao(DesfazimentoMemoria desfazimento) {
+            this.desfazimento = desfazimento;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return desfazimento != null && desfazimento.isSomenteRollback();
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
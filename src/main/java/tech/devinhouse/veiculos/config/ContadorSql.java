@@ -0,0 +1,43 @@
+package tech.devinhouse.veiculos.config;
+
+import jakarta.servlet.ServletRequest;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Conta os comandos SQL preparados pelo Hibernate para a requisição em andamento. O contador pertence à
+// requisição, não à thread: numa requisição assíncrona (StreamingResponseBody, Callable) ele é vinculado
+// também à thread do executor, e os comandos emitidos lá entram na conta da mesma requisição.
+public class ContadorSql implements StatementInspector {
+
+    static final String ATRIBUTO = ContadorSql.class.getName();
+
+    private static final ThreadLocal<AtomicInteger> ATUAL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger comandos = ATUAL.get();
+        if (comandos != null) {
+            comandos.incrementAndGet();
+        }
+        return sql;
+    }
+
+    static AtomicInteger daRequisicao(ServletRequest request) {
+        AtomicInteger comandos = (AtomicInteger) request.getAttribute(ATRIBUTO);
+        if (comandos == null) {
+            comandos = new AtomicInteger();
+            request.setAttribute(ATRIBUTO, comandos);
+        }
+        return comandos;
+    }
+
+    static void vincular(AtomicInteger comandos) {
+        ATUAL.set(comandos);
+    }
+
+    static void desvincular() {
+        ATUAL.remove();
+    }
+
+}
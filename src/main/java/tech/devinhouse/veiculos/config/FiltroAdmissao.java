@@ -0,0 +1,117 @@
+package tech.devinhouse.veiculos.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.devinhouse.veiculos.service.LimiteAdaptativo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controle de admissão na frente da API de veículos. Cada requisição ocupa uma vaga do limite da sua
+ * categoria enquanto é processada e, sem vaga, é recusada na hora com 503 e {@code Retry-After}, em vez
+ * de esperar por threads do Tomcat e conexões do pool atrás das demais. Listagens completas e operações
+ * em lote têm um limite próprio, para que uma lentidão do banco nelas não tome as vagas das consultas
+ * pontuais e das multas.
+ */
+public class FiltroAdmissao extends OncePerRequestFilter {
+
+    private static final String RAIZ = "/api/veiculos";
+
+    private static final byte[] CORPO_SOBRECARGA = "{\"erro\":\"Serviço sobrecarregado, tente novamente em instantes!\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final LimiteAdaptativo pontuais;
+
+    private final LimiteAdaptativo pesadas;
+
+    public FiltroAdmissao(LimiteAdaptativo pontuais, LimiteAdaptativo pesadas) {
+        this.pontuais = pontuais;
+        this.pesadas = pesadas;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimiteAdaptativo limite = limite(request);
+        if (limite == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limite.adquirir()) {
+            recusar(response, limite);
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean erro = true;
+        boolean assincrona = false;
+        try {
+            chain.doFilter(request, response);
+            erro = false;
+            assincrona = request.isAsyncStarted();
+            if (assincrona) {
+                request.getAsyncContext().addListener(new Liberacao(limite, inicio, response));
+            }
+        } finally {
+            if (!assincrona) {
+                limite.liberar(inicio, erro || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    // O feed de eventos (SSE) fica de fora: a conexão dura enquanto o cliente acompanha e ocuparia a vaga o tempo todo.
+    private LimiteAdaptativo limite(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        if (!caminho.startsWith(RAIZ) || caminho.startsWith(RAIZ + "/eventos")) {
+            return null;
+        }
+        return pesada(request, caminho.substring(RAIZ.length())) ? pesadas : pontuais;
+    }
+
+    // Lista completa (JSON ou NDJSON) e por lista de placas, pesquisa, consulta e cadastro em lote e importação de multas.
+    static boolean pesada(HttpServletRequest request, String caminho) {
+        return switch (caminho) {
+            case "", "/" -> request.getMethod().equals("GET") && request.getParameter("tamanho") == null;
+            case "/pesquisa", "/consulta", "/lote", "/multas" -> true;
+            default -> false;
+        };
+    }
+
+    private static void recusar(HttpServletResponse response, LimiteAdaptativo limite) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, limite.getRetryAfter().toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(CORPO_SOBRECARGA.length);
+        response.getOutputStream().write(CORPO_SOBRECARGA);
+    }
+
+    private record Liberacao(LimiteAdaptativo limite, long inicio, HttpServletResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            limite.liberar(inicio, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+            evento.getAsyncContext().addListener(this);
+        }
+    }
+
+}
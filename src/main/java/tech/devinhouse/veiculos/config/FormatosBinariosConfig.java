@@ -0,0 +1,33 @@
+package tech.devinhouse.veiculos.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Respostas em CBOR ({@code application/cbor}) e Smile ({@code application/x-jackson-smile}) para quem
+ * pedir no {@code Accept}. Os conversores usam o mesmo construtor do ObjectMapper de JSON, então os
+ * campos e as regras de serialização são os mesmos; sem {@code Accept} binário a resposta continua JSON.
+ */
+@Configuration
+public class FormatosBinariosConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder construtor) {
+        return new MappingJackson2CborHttpMessageConverter(construtor.factory(new CBORFactory()).build());
+    }
+
+    // Tipo e cor se repetem em toda a frota: com valores compartilhados cada um vai por extenso uma vez
+    // e as repetições viram referências de um ou dois bytes.
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder construtor) {
+        SmileFactory fabrica = SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+        return new MappingJackson2SmileHttpMessageConverter(construtor.factory(fabrica).build());
+    }
+
+}
@@ -0,0 +1,101 @@
+package tech.devinhouse.veiculos.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer contadorSqlCustomizer() {
+        return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSql());
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> comandosSqlPorRequisicao(MeterRegistry registry) {
+        OncePerRequestFilter filtro = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                AtomicInteger comandos = ContadorSql.daRequisicao(request);
+                ContadorSql.vincular(comandos);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ContadorSql.desvincular();
+                    // Numa requisição assíncrona a conta só fecha no último despacho, depois do trabalho
+                    // feito na thread do executor.
+                    if (!request.isAsyncStarted()) {
+                        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                        DistributionSummary.builder("veiculos.sql.requisicao")
+                                .description("Comandos SQL emitidos por requisição HTTP")
+                                .tag("method", request.getMethod())
+                                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                                .publishPercentiles(0.5, 0.95, 0.99)
+                                .register(registry)
+                                .record(comandos.get());
+                    }
+                }
+            }
+
+            @Override
+            protected boolean shouldNotFilterAsyncDispatch() {
+                return false;
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+
+    @Bean
+    public WebMvcConfigurer contadorSqlAssincrono() {
+        CallableProcessingInterceptor vinculo = new CallableProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                Object comandos = request.getAttribute(ContadorSql.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+                if (comandos != null) {
+                    ContadorSql.vincular((AtomicInteger) comandos);
+                }
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object resultado) {
+                ContadorSql.desvincular();
+            }
+        };
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(vinculo);
+            }
+        };
+    }
+
+}
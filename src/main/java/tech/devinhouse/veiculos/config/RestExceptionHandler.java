@@ -1,7 +1,12 @@
 package tech.devinhouse.veiculos.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Path;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +18,12 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import tech.devinhouse.veiculos.exception.CursorInvalidoException;
+import tech.devinhouse.veiculos.exception.PlacaForaDoFormatoException;
 import tech.devinhouse.veiculos.exception.RegistroExistenteException;
 import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
 import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.exception.VersaoDesatualizadaException;
 
 
 import java.util.HashMap;
@@ -25,25 +33,75 @@ import java.util.Map;
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // Os corpos dos erros de negócio não dependem da requisição: são montados uma vez e as respostas,
+    // imutáveis, são devolvidas como estão a cada ocorrência.
+    private static final ResponseEntity<Object> REGISTRO_EXISTENTE = resposta(HttpStatus.CONFLICT, "Registro já cadastrado!");
+
+    private static final ResponseEntity<Object> REGISTRO_INEXISTENTE = resposta(HttpStatus.NOT_FOUND, "Registro não encontrado!");
+
+    private static final ResponseEntity<Object> VEICULO_COM_MULTA = resposta(HttpStatus.LOCKED, "Veículo possui multas e não pode ser excluído!");
+
+    private static final ResponseEntity<Object> VERSAO_DESATUALIZADA = resposta(HttpStatus.PRECONDITION_FAILED, "Veículo alterado desde a versão informada!");
+
+    private static final ResponseEntity<Object> PLACA_FORA_DO_FORMATO = resposta(HttpStatus.BAD_REQUEST, "Placa fora do formato aceito!");
+
+    private static final ResponseEntity<Object> CURSOR_INVALIDO = resposta(HttpStatus.BAD_REQUEST, "Cursor de pesquisa inválido!");
+
+    private final ClassValue<Counter> contadores;
+
+    public RestExceptionHandler(ObjectProvider<MeterRegistry> registry) {
+        MeterRegistry registro = registry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.contadores = new ClassValue<>() {
+            @Override
+            protected Counter computeValue(Class<?> tipo) {
+                return registro.counter("veiculos.erros", "tipo", tipo.getSimpleName());
+            }
+        };
+    }
+
+    private static ResponseEntity<Object> resposta(HttpStatus status, String mensagem) {
+        return ResponseEntity.status(status).body(Map.of("erro", mensagem));
+    }
+
+    private void contar(RuntimeException e) {
+        contadores.get(e.getClass()).increment();
+    }
+
     @ExceptionHandler(RegistroExistenteException.class)
     public ResponseEntity<Object> handleRegistroExistenteException(RegistroExistenteException e) {
-        Map<String, String> erro = new HashMap<>();
-        erro.put("erro", "Registro já cadastrado!");
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(erro);
+        contar(e);
+        return REGISTRO_EXISTENTE;
     }
 
     @ExceptionHandler(RegistroInexistenteException.class)
     public ResponseEntity<Object> handleRegistroNaoEncontradoException(RegistroInexistenteException e) {
-        Map<String, String> erro = new HashMap<>();
-        erro.put("erro", "Registro não encontrado!");
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erro);
+        contar(e);
+        return REGISTRO_INEXISTENTE;
     }
 
     @ExceptionHandler(VeiculoComMultaException.class)
     public ResponseEntity<Object> handleVeiculoComMultaException (VeiculoComMultaException e) {
-        Map<String, String> erro = new HashMap<>();
-        erro.put("erro", "Veículo possui multas e não pode ser excluído!");
-        return ResponseEntity.status(HttpStatus.LOCKED).body(erro);
+        contar(e);
+        return VEICULO_COM_MULTA;
+    }
+
+    @ExceptionHandler(PlacaForaDoFormatoException.class)
+    public ResponseEntity<Object> handlePlacaForaDoFormatoException (PlacaForaDoFormatoException e) {
+        contar(e);
+        return PLACA_FORA_DO_FORMATO;
+    }
+
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<Object> handleCursorInvalidoException (CursorInvalidoException e) {
+        contar(e);
+        return CURSOR_INVALIDO;
+    }
+
+    // A versão do If-Match não é mais a atual, ou o @Version percebeu uma escrita concorrente.
+    @ExceptionHandler({VersaoDesatualizadaException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Object> handleVersaoDesatualizadaException (RuntimeException e) {
+        contar(e);
+        return VERSAO_DESATUALIZADA;
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
@@ -58,6 +116,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
             String errorMessage = e.getMessage();
             fieldErrors.put(fieldName, errorMessage);
         });
+        contar(ex);
         Map<String, String> erro = new HashMap<>();
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erro);
     }
@@ -0,0 +1,136 @@
+package tech.devinhouse.veiculos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.devinhouse.veiculos.service.LeituraPrimario;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Com {@code veiculos.replica.jdbc-url} configurada, transações somente leitura vão para a réplica e as
+ * demais (e tudo fora de transação, como a criação do esquema) para o primário. A réplica herda usuário,
+ * senha e driver de {@code spring.datasource.*}, e o pool dela é configurado em {@code veiculos.replica.*}
+ * com os nomes do Hikari.
+ * <p>
+ * A escolha acontece no primeiro comando SQL, não no início da transação: o JpaTransactionManager pega a
+ * conexão antes de marcar a transação como somente leitura, por isso o roteador fica atrás de um
+ * {@link LazyConnectionDataSourceProxy}.
+ */
+@Configuration
+@ConditionalOnProperty("veiculos.replica.jdbc-url")
+public class RoteamentoLeituraConfig {
+
+    static final String COOKIE_PRIMARIO = "veiculos-primario";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties propriedades) {
+        HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("veiculos.replica")
+    public HikariDataSource dataSourceReplica(DataSourceProperties propriedades) {
+        HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, HikariDataSource dataSourceReplica) {
+        Roteador roteador = new Roteador();
+        roteador.setTargetDataSources(Map.of(Destino.PRIMARIO, dataSourcePrimario, Destino.REPLICA, dataSourceReplica));
+        roteador.setDefaultTargetDataSource(dataSourcePrimario);
+        roteador.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteador);
+    }
+
+    /**
+     * Leitura das próprias escritas: toda requisição de escrita devolve um cookie que, durante a janela
+     * configurada (maior que o atraso esperado da réplica), faz as leituras do mesmo cliente irem ao primário.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> leituraPrimarioAposEscrita(
+            @Value("${veiculos.replica.janela-leitura-primario:5s}") Duration janela) {
+        OncePerRequestFilter filtro = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                long agora = System.currentTimeMillis();
+                if (escrita(request)) {
+                    Cookie cookie = new Cookie(COOKIE_PRIMARIO, Long.toString(agora + janela.toMillis()));
+                    cookie.setPath("/api");
+                    cookie.setMaxAge((int) janela.toSeconds());
+                    cookie.setHttpOnly(true);
+                    response.addCookie(cookie);
+                    LeituraPrimario.ativar();
+                } else if (agora < lerPrimarioAte(request)) {
+                    LeituraPrimario.ativar();
+                }
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    LeituraPrimario.encerrar();
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+
+    private static boolean escrita(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return !metodo.equals("GET") && !metodo.equals("HEAD") && !metodo.equals("OPTIONS");
+    }
+
+    private static long lerPrimarioAte(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (cookie.getName().equals(COOKIE_PRIMARIO)) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    private enum Destino { PRIMARIO, REPLICA }
+
+    private static class Roteador extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !LeituraPrimario.ativa()
+                    ? Destino.REPLICA : Destino.PRIMARIO;
+        }
+    }
+
+}
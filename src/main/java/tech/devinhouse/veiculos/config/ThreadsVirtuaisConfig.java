@@ -0,0 +1,47 @@
+package tech.devinhouse.veiculos.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Executa as requisições do Tomcat e o processamento assíncrono do MVC (respostas em stream)
+// em threads virtuais. O build continua em Java 17, então o executor é obtido por reflexão
+// e o modo exige rodar em Java 21 ou superior (perfil Maven jdk21).
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "veiculos.threads-virtuais.habilitado", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService executorThreadsVirtuais() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("Requisições serão executadas em threads virtuais");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("veiculos.threads-virtuais.habilitado=true exige Java 21 ou superior (em execução: "
+                    + Runtime.version() + ")", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> tomcatThreadsVirtuais(ExecutorService executorThreadsVirtuais) {
+        return protocolHandler -> protocolHandler.setExecutor(executorThreadsVirtuais);
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService executorThreadsVirtuais) {
+        return new TaskExecutorAdapter(executorThreadsVirtuais);
+    }
+
+}
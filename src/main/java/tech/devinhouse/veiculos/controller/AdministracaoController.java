@@ -0,0 +1,43 @@
+package tech.devinhouse.veiculos.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.devinhouse.veiculos.dto.EstatisticasCache;
+import tech.devinhouse.veiculos.dto.EstatisticasFiltro;
+import tech.devinhouse.veiculos.service.FiltroPlacas;
+import tech.devinhouse.veiculos.service.VeiculoCache;
+
+@Slf4j
+@RestController
+@RequestMapping("api/admin")
+@AllArgsConstructor
+public class AdministracaoController {
+
+    private VeiculoCache veiculoCache;
+
+    private FiltroPlacas filtroPlacas;
+
+    @GetMapping("cache")
+    public ResponseEntity<EstatisticasCache> consultarCache () {
+        EstatisticasCache estatisticas = veiculoCache.estatisticas();
+        log.debug("Estatísticas do cache de veículos: {}", estatisticas);
+        return ResponseEntity.ok(estatisticas);
+    }
+
+    @GetMapping("filtro")
+    public ResponseEntity<EstatisticasFiltro> consultarFiltro () {
+        return ResponseEntity.ok(filtroPlacas.estatisticas());
+    }
+
+    @PostMapping("filtro/reconstrucao")
+    public ResponseEntity<EstatisticasFiltro> reconstruirFiltro () {
+        log.info("Reconstrução do filtro de placas solicitada");
+        return ResponseEntity.ok(filtroPlacas.reconstruir());
+    }
+
+}
@@ -0,0 +1,41 @@
+package tech.devinhouse.veiculos.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.devinhouse.veiculos.service.PublicadorEventos;
+
+/**
+ * Feed de alterações da frota em Server-Sent Events. Cada evento tem como id a sua posição; numa
+ * reconexão o cliente SSE reenvia a última recebida em {@code Last-Event-ID} e o feed continua dali.
+ * Para a primeira conexão, {@code apos} indica a posição inicial (0 = todos os eventos retidos).
+ */
+@Slf4j
+@RestController
+@RequestMapping("api/veiculos/eventos")
+@AllArgsConstructor
+public class EventosController {
+
+    public static final String HEADER_ULTIMO_EVENTO = "Last-Event-ID";
+
+    private PublicadorEventos publicador;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> acompanhar (@RequestHeader(value = HEADER_ULTIMO_EVENTO, required = false) Long ultimoEvento,
+                                                  @RequestParam(value = "apos", defaultValue = "0") long apos) {
+        if (!publicador.isHabilitado()) {
+            return ResponseEntity.notFound().build();
+        }
+        long inicio = ultimoEvento != null ? ultimoEvento : apos;
+        log.debug("Assinatura do feed de eventos a partir da posição {}", inicio);
+        return ResponseEntity.ok(publicador.assinar(inicio));
+    }
+
+}
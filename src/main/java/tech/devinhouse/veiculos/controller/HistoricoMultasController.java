@@ -0,0 +1,58 @@
+package tech.devinhouse.veiculos.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.devinhouse.veiculos.dto.HistoricoMultasVeiculo;
+import tech.devinhouse.veiculos.dto.MultasPorDia;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.service.HistoricoMultas;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Histórico de multas por dia, de um veículo e da frota. Responde 404 quando o histórico não é gravado
+ * (perfil "memoria" ou {@code veiculos.multas.historico.habilitado=false}).
+ */
+@Slf4j
+@RestController
+@RequestMapping("api/veiculos")
+@AllArgsConstructor
+public class HistoricoMultasController {
+
+    private HistoricoMultas historicoMultas;
+
+    private VeiculoService service;
+
+    @GetMapping("{placa}/multas")
+    public ResponseEntity<HistoricoMultasVeiculo> consultarVeiculo (@PathVariable String placa,
+                                                                   @RequestParam(value = "dias", defaultValue = "30") int dias) {
+        if (!historicoMultas.isHabilitado()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (service.versao(placa).isEmpty()) {
+            throw new RegistroInexistenteException(placa);
+        }
+        log.debug("Histórico de multas do veículo {} ({} dia(s))", placa, dias);
+        return ResponseEntity.ok(historicoMultas.consultarVeiculo(placa, dias));
+    }
+
+    @GetMapping("multas/diarias")
+    public ResponseEntity<List<MultasPorDia>> consultarFrota (@RequestParam(value = "de", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                             @RequestParam(value = "ate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        if (!historicoMultas.isHabilitado()) {
+            return ResponseEntity.notFound().build();
+        }
+        log.debug("Multas da frota por dia de {} até {}", de, ate);
+        return ResponseEntity.ok(historicoMultas.consultarFrota(de, ate));
+    }
+
+}
@@ -0,0 +1,93 @@
+package tech.devinhouse.veiculos.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.devinhouse.veiculos.dto.ProgressoSnapshot;
+import tech.devinhouse.veiculos.exception.SnapshotInvalidoException;
+import tech.devinhouse.veiculos.service.SnapshotFrota;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cópia da frota entre ambientes: exporta um snapshot aqui, baixa o arquivo, envia-o ao outro ambiente
+ * com PUT e o importa lá. Exportação e importação respondem ao terminar; o andamento pode ser
+ * acompanhado em {@code GET api/admin/snapshots/progresso}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("api/admin/snapshots")
+@AllArgsConstructor
+public class SnapshotController {
+
+    private static final ResponseEntity<Object> EM_ANDAMENTO =
+            ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("erro", "Outra exportação ou importação de snapshot em andamento!"));
+
+    private SnapshotFrota snapshotFrota;
+
+    @PostMapping("{nome}/exportacao")
+    public ResponseEntity<Object> exportar (@PathVariable String nome) throws IOException {
+        log.info("Exportação da frota para o snapshot {} solicitada", nome);
+        return resultado(snapshotFrota.exportar(nome));
+    }
+
+    @PostMapping("{nome}/importacao")
+    public ResponseEntity<Object> importar (@PathVariable String nome) throws IOException, InterruptedException {
+        log.info("Importação do snapshot {} solicitada", nome);
+        return resultado(snapshotFrota.importar(nome));
+    }
+
+    @GetMapping("progresso")
+    public ResponseEntity<ProgressoSnapshot> progresso () {
+        return ResponseEntity.of(snapshotFrota.progresso());
+    }
+
+    @GetMapping(value = "{nome}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Resource> baixar (@PathVariable String nome) throws IOException {
+        return ResponseEntity.ok(new FileSystemResource(snapshotFrota.existente(nome)));
+    }
+
+    @PutMapping(value = "{nome}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, Long>> receber (@PathVariable String nome, InputStream conteudo) throws IOException {
+        return ResponseEntity.ok(Map.of("bytes", snapshotFrota.receber(nome, conteudo)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Object> handleNomeInvalido (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+    }
+
+    @ExceptionHandler(NoSuchFileException.class)
+    public ResponseEntity<Object> handleSnapshotInexistente (NoSuchFileException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("erro", "Snapshot não encontrado!"));
+    }
+
+    @ExceptionHandler(SnapshotInvalidoException.class)
+    public ResponseEntity<Object> handleSnapshotInvalido (SnapshotInvalidoException e) {
+        return ResponseEntity.unprocessableEntity().body(Map.of("erro", e.getMessage()));
+    }
+
+    private static ResponseEntity<Object> resultado(Optional<ProgressoSnapshot> progresso) {
+        if (progresso.isEmpty()) {
+            return EM_ANDAMENTO;
+        }
+        return ResponseEntity.status(progresso.get().getErro() == null ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(progresso.get());
+    }
+
+}
@@ -1,38 +1,146 @@
 package tech.devinhouse.veiculos.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.devinhouse.veiculos.dto.EstatisticasFrota;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.dto.ResultadoConsulta;
+import tech.devinhouse.veiculos.dto.ResultadoImportacaoMultas;
+import tech.devinhouse.veiculos.dto.ResultadoLote;
+import tech.devinhouse.veiculos.exception.CursorInvalidoException;
+import tech.devinhouse.veiculos.exception.VersaoDesatualizadaException;
 import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.ImportadorMultas;
 import tech.devinhouse.veiculos.service.VeiculoService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RestController
+@Validated
 @RequestMapping("api/veiculos")
 @AllArgsConstructor
 public class VeiculosController {
 
+    public static final String HEADER_PROXIMA_PLACA = "X-Proxima-Placa";
+
+    public static final String HEADER_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
     private VeiculoService service;
 
+    private ObjectMapper objectMapper;
+
+    private ImportadorMultas importadorMultas;
+
+    // O ETag da frota é lido antes da consulta: se algo mudar no meio, a resposta sai com uma versão
+    // anterior à dos dados e o cliente só recebe a lista de novo no próximo ciclo, nunca um 304 indevido.
+    // A lista também sai em CBOR ou Smile conforme o Accept (FormatosBinariosConfig), daí o Vary.
     @GetMapping
-    public ResponseEntity<List<Veiculo>> consultar () {
+    public ResponseEntity<List<Veiculo>> consultar (WebRequest requisicao) {
+        String etag = service.versaoFrota();
+        if (requisicao.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
         log.debug("Consulta da lista completa de veículos cadastrados");
         List<Veiculo> veiculos = service.consultar();
         log.info("Existem {} veiculo(s) cadastrado(s)", veiculos.toArray().length);
-        return ResponseEntity.ok(veiculos);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(veiculos);
+    }
+
+    @GetMapping(params = "tamanho")
+    public ResponseEntity<List<Veiculo>> consultarPagina (@RequestParam(value = "apos", required = false) String apos,
+                                                          @RequestParam("tamanho") int tamanho) {
+        log.debug("Consulta paginada de veículos após a placa {} ({} registro(s))", apos, tamanho);
+        List<Veiculo> veiculos = service.consultarPagina(apos, tamanho);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (!veiculos.isEmpty() && veiculos.size() >= VeiculoService.limitarPagina(tamanho)) {
+            resposta.header(HEADER_PROXIMA_PLACA, veiculos.get(veiculos.size() - 1).getPlaca());
+        }
+        return resposta.body(veiculos);
+    }
+
+    // Mantidas em memória: refletem as escritas das outras instâncias com até um intervalo de verificação
+    // (veiculos.estatisticas.intervalo-verificacao-ms) de atraso.
+    @GetMapping("estatisticas")
+    public ResponseEntity<EstatisticasFrota> estatisticas () {
+        EstatisticasFrota estatisticas = service.estatisticas();
+        log.debug("Estatísticas da frota: {}", estatisticas);
+        return ResponseEntity.ok(estatisticas);
+    }
+
+    @GetMapping("pesquisa")
+    public ResponseEntity<List<Veiculo>> pesquisar (FiltroVeiculos filtro) {
+        log.debug("Pesquisa de veículos com filtro {}", filtro);
+        // Conferido aqui para que um cursor adulterado dê 400 nos dois armazenamentos, não um erro de conversão no repositório.
+        if (!filtro.cursorValido()) {
+            throw new CursorInvalidoException(filtro.getCursor());
+        }
+        List<Veiculo> veiculos = service.pesquisar(filtro);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (!veiculos.isEmpty() && veiculos.size() >= VeiculoService.limitarPagina(filtro.getTamanho())) {
+            resposta.header(HEADER_PROXIMO_CURSOR, filtro.cursorApos(veiculos.get(veiculos.size() - 1)));
+        }
+        return resposta.body(veiculos);
+    }
+
+    @GetMapping(params = "placas")
+    public ResponseEntity<ResultadoConsulta> consultarPlacas (@RequestParam("placas") List<String> placas) {
+        return consultarLote(placas);
+    }
+
+    @PostMapping("consulta")
+    public ResponseEntity<ResultadoConsulta> consultarLote (@RequestBody List<String> placas) {
+        log.debug("Consulta de {} placa(s)", placas.size());
+        ResultadoConsulta resultado = service.consultarPlacas(placas);
+        log.info("{} veículo(s) encontrado(s) e {} placa(s) inexistente(s)", resultado.getVeiculos().size(), resultado.getInexistentes().size());
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> consultarStream (WebRequest requisicao) {
+        String etag = service.versaoFrota();
+        if (requisicao.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        log.debug("Consulta da lista completa de veículos em modo stream");
+        StreamingResponseBody corpo = saida -> service.percorrer(veiculo -> {
+            try {
+                saida.write(objectMapper.writeValueAsBytes(veiculo));
+                saida.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_NDJSON).body(corpo);
     }
 
 
     @GetMapping("{placa}")
-    public ResponseEntity<List<Veiculo>> consultar (@PathVariable(value = "placa", required = false) String placa) {
+    public ResponseEntity<List<Veiculo>> consultar (@PathVariable(value = "placa", required = false) String placa, WebRequest requisicao) {
+        if (requisicao.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> versao = service.versao(placa);
+            if (versao.isPresent() && requisicao.checkNotModified(etag(versao.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(versao.get())).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
         List<Veiculo> veiculo = service.consultar(placa);
         log.debug("Veículo consultado {}", veiculo);
-        return ResponseEntity.ok(veiculo);
+        return comVersao(ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT), veiculo.get(0)).body(veiculo);
     }
 
     @PostMapping
@@ -43,20 +151,63 @@ public class VeiculosController {
         return ResponseEntity.created(URI.create(veiculo.getPlaca())).body(veiculo);
     }
 
+    // O @Valid no tipo do elemento, com o @Validated da classe, valida cada veículo do lote: no parâmetro
+    // ele só alcançaria a lista. Um elemento inválido vira ConstraintViolationException, respondida com 400.
+    @PostMapping("lote")
+    public ResponseEntity<ResultadoLote> inserirLote (@RequestBody List<@Valid Veiculo> veiculos) {
+        log.debug("Cadastro de lote com {} veículo(s)", veiculos.size());
+        ResultadoLote resultado = service.criarEmLote(veiculos);
+        log.info("Lote cadastrado: {} criado(s), {} conflitante(s)", resultado.getCriadas().size(), resultado.getConflitantes().size());
+        return ResponseEntity.ok(resultado);
+    }
+
     @DeleteMapping("{placa}")
-    public  ResponseEntity excluir(@PathVariable(value= "placa") String placa) {
-        service.excluir(placa);
+    public  ResponseEntity excluir(@PathVariable(value= "placa") String placa,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.excluir(placa, versaoEsperada(placa, ifMatch));
         log.debug("veiculo excluido: {}", placa);
         return ResponseEntity.noContent().build();
     }
 
     @PutMapping("{placa}/multas")
-    public ResponseEntity adicionarMulta(@PathVariable String placa){
-        Veiculo veiculo = service.adicionarMulta(placa);
+    public ResponseEntity adicionarMulta(@PathVariable String placa,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Veiculo veiculo = service.adicionarMulta(placa, versaoEsperada(placa, ifMatch));
         log.debug("Multa adiconada ao veículo: {}", veiculo);
-        return ResponseEntity.ok(veiculo);
+        return comVersao(ResponseEntity.ok(), veiculo).body(veiculo);
     }
 
+    @PostMapping(value = "multas", consumes = "text/csv")
+    public ResponseEntity<ResultadoImportacaoMultas> importarMultasCsv(InputStream arquivo) throws IOException {
+        log.debug("Importação de multas em CSV");
+        return ResponseEntity.ok(importadorMultas.importarCsv(arquivo));
+    }
 
+    @PostMapping(value = "multas", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResultadoImportacaoMultas> importarMultasNdjson(InputStream arquivo) throws IOException {
+        log.debug("Importação de multas em NDJSON");
+        return ResponseEntity.ok(importadorMultas.importarNdjson(arquivo));
+    }
+
+    private static String etag(long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    private static ResponseEntity.BodyBuilder comVersao(ResponseEntity.BodyBuilder resposta, Veiculo veiculo) {
+        return veiculo.getVersao() == null ? resposta : resposta.eTag(etag(veiculo.getVersao()));
+    }
+
+    // If-Match com o ETag do veículo; "*" ou ausente aceita qualquer versão. Um valor que não é
+    // um ETag forte de veículo nunca corresponde à versão atual, então também falha a pré-condição.
+    private static Long versaoEsperada(String placa, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        try {
+            return Long.valueOf(ifMatch.trim().replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new VersaoDesatualizadaException(placa);
+        }
+    }
 
 }
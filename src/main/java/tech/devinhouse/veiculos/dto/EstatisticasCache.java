@@ -0,0 +1,24 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstatisticasCache {
+
+    private boolean habilitado;
+
+    private long tamanho;
+
+    private long acertos;
+
+    private long falhas;
+
+    private long remocoes;
+
+    private double taxaAcerto;
+
+}
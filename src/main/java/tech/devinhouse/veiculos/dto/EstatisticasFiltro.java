@@ -0,0 +1,30 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstatisticasFiltro {
+
+    private boolean habilitado;
+
+    private boolean construido;
+
+    private long capacidade;
+
+    private long placasInseridas;
+
+    private long bits;
+
+    private int funcoesHash;
+
+    private long bytes;
+
+    private double taxaFalsoPositivoConfigurada;
+
+    private double taxaFalsoPositivoEstimada;
+
+}
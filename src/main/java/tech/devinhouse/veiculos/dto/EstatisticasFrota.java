@@ -0,0 +1,26 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstatisticasFrota {
+
+    private long total;
+
+    private long totalMultas;
+
+    private double mediaMultas;
+
+    private Map<String, Long> porTipo;
+
+    private Map<String, Long> porCor;
+
+    private Map<String, Long> porAno;
+
+}
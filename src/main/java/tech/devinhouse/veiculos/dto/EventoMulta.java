@@ -0,0 +1,16 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventoMulta {
+
+    private String placa;
+
+    private Integer quantidade;
+
+}
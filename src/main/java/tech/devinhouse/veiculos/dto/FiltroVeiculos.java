@@ -0,0 +1,91 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroVeiculos {
+
+    private String tipo;
+
+    private String cor;
+
+    private Integer anoMinimo;
+
+    private Integer anoMaximo;
+
+    private Integer multasMinimo;
+
+    private Integer multasMaximo;
+
+    private Ordenacao ordenarPor = Ordenacao.PLACA;
+
+    private Sort.Direction direcao = Sort.Direction.ASC;
+
+    // Cursor opaco devolvido pela página anterior: "<valor do campo de ordenação>:<placa>"
+    private String cursor;
+
+    private int tamanho = 50;
+
+    public String cursorApos(Veiculo ultimo) {
+        return ordenarPor == Ordenacao.PLACA
+                ? ultimo.getPlaca()
+                : ordenarPor.valor.apply(ultimo) + ":" + ultimo.getPlaca();
+    }
+
+    /**
+     * Indica se o cursor pode ser lido na ordenação pedida: na ordenação por placa qualquer texto serve,
+     * nas demais ele precisa de um valor inteiro antes do {@code ':'}.
+     */
+    public boolean cursorValido() {
+        if (cursor == null || ordenarPor == Ordenacao.PLACA) {
+            return true;
+        }
+        int separador = cursor.indexOf(':');
+        if (separador <= 0) {
+            return false;
+        }
+        try {
+            Integer.parseInt(cursor, 0, separador, 10);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Só fora da ordenação por placa, com o cursor já conferido por cursorValido().
+    public int cursorValor() {
+        return Integer.parseInt(cursor, 0, cursor.indexOf(':'), 10);
+    }
+
+    public String cursorPlaca() {
+        return ordenarPor == Ordenacao.PLACA ? cursor : cursor.substring(cursor.indexOf(':') + 1);
+    }
+
+    public enum Ordenacao {
+        PLACA("placa", Veiculo::getPlaca),
+        ANO_DE_FABRICACAO("anoDeFabricacao", Veiculo::getAnoDeFabricacao),
+        QTD_MULTAS("qtdMultas", Veiculo::getQtdMultas);
+
+        private final String atributo;
+
+        private final Function<Veiculo, Object> valor;
+
+        Ordenacao(String atributo, Function<Veiculo, Object> valor) {
+            this.atributo = atributo;
+            this.valor = valor;
+        }
+
+        public String getAtributo() {
+            return atributo;
+        }
+    }
+
+}
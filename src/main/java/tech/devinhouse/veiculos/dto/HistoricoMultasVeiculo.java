@@ -0,0 +1,26 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistoricoMultasVeiculo {
+
+    private String placa;
+
+    private LocalDate de;
+
+    private LocalDate ate;
+
+    private long total;
+
+    // Só os dias com multas, em ordem
+    private List<MultasPorDia> dias;
+
+}
@@ -0,0 +1,38 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgressoSnapshot {
+
+    // "exportacao" ou "importacao"
+    private String operacao;
+
+    private String arquivo;
+
+    // Veículos no arquivo (importação) ou na frota no início (exportação)
+    private long total;
+
+    private long processados;
+
+    private long criados;
+
+    private long existentes;
+
+    // Veículos do arquivo recusados pelas regras de cadastro (importação)
+    private long invalidos;
+
+    private Instant inicio;
+
+    // Nulo enquanto a operação está em andamento
+    private Instant fim;
+
+    private String erro;
+
+}
@@ -0,0 +1,20 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoConsulta {
+
+    private List<Veiculo> veiculos = new ArrayList<>();
+
+    private List<String> inexistentes = new ArrayList<>();
+
+}
@@ -0,0 +1,29 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoImportacaoMultas {
+
+    private long linhas;
+
+    private long linhasInvalidas;
+
+    private long multasAplicadas;
+
+    private long multasDescartadas;
+
+    private List<String> inexistentes = new ArrayList<>();
+
+    private long duracaoMs;
+
+    private long multasPorSegundo;
+
+}
@@ -0,0 +1,19 @@
+package tech.devinhouse.veiculos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoLote {
+
+    private List<String> criadas = new ArrayList<>();
+
+    private List<String> conflitantes = new ArrayList<>();
+
+}
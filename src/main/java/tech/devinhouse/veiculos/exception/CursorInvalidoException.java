@@ -0,0 +1,19 @@
+package tech.devinhouse.veiculos.exception;
+
+/**
+ * Cursor de pesquisa que não veio de uma página anterior: fora do formato {@code <valor>:<placa>}
+ * esperado pela ordenação pedida. O cursor recebido fica só na mensagem, para o log; a resposta não o
+ * devolve.
+ */
+public class CursorInvalidoException extends ErroNegocioException {
+
+    public CursorInvalidoException(String cursor) {
+        super(cursor);
+    }
+
+    @Override
+    protected String mensagem(String cursor) {
+        return "Cursor de pesquisa inválido: " + cursor;
+    }
+
+}
@@ -0,0 +1,28 @@
+package tech.devinhouse.veiculos.exception;
+
+/**
+ * Erro de negócio esperado (placa inexistente, já cadastrada, com multas...), que vira uma resposta 4xx
+ * comum e não um defeito. Por isso não preenche a pilha de chamadas, que ninguém lê e custa mais que o
+ * resto da requisição, e só monta a mensagem se alguém pedir por ela.
+ */
+public abstract class ErroNegocioException extends RuntimeException {
+
+    private final String placa;
+
+    protected ErroNegocioException(String placa) {
+        super(null, null, false, false);
+        this.placa = placa;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    @Override
+    public String getMessage() {
+        return mensagem(placa);
+    }
+
+    protected abstract String mensagem(String placa);
+
+}
@@ -0,0 +1,18 @@
+package tech.devinhouse.veiculos.exception;
+
+/**
+ * Placa que o armazenamento ativo não consegue guardar: o perfil "memoria" só aceita placas em
+ * {@code Placa.FORMATO}, porque as guarda codificadas; o banco aceita qualquer placa.
+ */
+public class PlacaForaDoFormatoException extends ErroNegocioException {
+
+    public PlacaForaDoFormatoException (String placa) {
+        super (placa);
+    }
+
+    @Override
+    protected String mensagem(String placa) {
+        return "A placa " + placa + " não está no formato aceito pelo armazenamento";
+    }
+
+}
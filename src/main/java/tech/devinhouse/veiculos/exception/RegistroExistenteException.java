@@ -1,9 +1,14 @@
 package tech.devinhouse.veiculos.exception;
 
-public class RegistroExistenteException extends RuntimeException {
+public class RegistroExistenteException extends ErroNegocioException {
 
     public RegistroExistenteException(String placa) {
-        super(" O veículo de placa " + placa + " já está cadastrado!");
+        super(placa);
+    }
+
+    @Override
+    protected String mensagem(String placa) {
+        return " O veículo de placa " + placa + " já está cadastrado!";
     }
 
 }
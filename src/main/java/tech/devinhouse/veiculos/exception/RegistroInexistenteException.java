@@ -1,9 +1,14 @@
 package tech.devinhouse.veiculos.exception;
 
-public class RegistroInexistenteException extends RuntimeException{
+public class RegistroInexistenteException extends ErroNegocioException {
 
     public RegistroInexistenteException(String placa) {
-        super("O veículo com identificador " + placa + " não está cadastrado!");
+        super(placa);
+    }
+
+    @Override
+    protected String mensagem(String placa) {
+        return "O veículo com identificador " + placa + " não está cadastrado!";
     }
 
 }
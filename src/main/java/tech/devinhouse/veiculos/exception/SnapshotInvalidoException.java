@@ -0,0 +1,14 @@
+package tech.devinhouse.veiculos.exception;
+
+import java.nio.file.Path;
+
+/**
+ * Arquivo de snapshot da frota incompleto, corrompido ou de outro formato.
+ */
+public class SnapshotInvalidoException extends RuntimeException {
+
+    public SnapshotInvalidoException(Path arquivo, String motivo) {
+        super("Snapshot " + arquivo.getFileName() + " inválido: " + motivo);
+    }
+
+}
@@ -1,9 +1,14 @@
 package tech.devinhouse.veiculos.exception;
 
-public class VeiculoComMultaException extends RuntimeException{
+public class VeiculoComMultaException extends ErroNegocioException {
 
     public VeiculoComMultaException (String placa) {
-        super ("O veículo com identificador " + placa + " tem multa(s) cadastrada(s) e por isso não pode ser excluído");
+        super (placa);
+    }
+
+    @Override
+    protected String mensagem(String placa) {
+        return "O veículo com identificador " + placa + " tem multa(s) cadastrada(s) e por isso não pode ser excluído";
     }
 
 
@@ -0,0 +1,15 @@
+package tech.devinhouse.veiculos.exception;
+
+public class VersaoDesatualizadaException extends ErroNegocioException {
+
+    public VersaoDesatualizadaException (String placa) {
+        super (placa);
+    }
+
+    @Override
+    protected String mensagem(String placa) {
+        return "O veículo com identificador " + placa + " foi alterado depois da versão informada";
+    }
+
+
+}
@@ -0,0 +1,31 @@
+package tech.devinhouse.veiculos.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador de alterações da frota, compartilhado por todas as instâncias e somado na transação de cada
+ * escrita. Fica dividido em {@link #FATIAS} linhas, como {@link MultasDia}, para que escritas concorrentes
+ * não esperem todas pelo bloqueio da mesma linha; o total é a soma das fatias.
+ */
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "ALTERACOES_FROTA")
+public class AlteracoesFrota {
+
+    public static final int FATIAS = 16;
+
+    @Id
+    private int fatia;
+
+    @Column(nullable = false)
+    private long alteracoes;
+
+}
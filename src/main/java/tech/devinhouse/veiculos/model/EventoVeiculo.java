@@ -0,0 +1,68 @@
+package tech.devinhouse.veiculos.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Evento da saída transacional (outbox): gravado na mesma transação da alteração do veículo e
+ * numerado depois, pelo publicador, com a {@link #posicao} que os consumidores usam para retomar o feed.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "EVENTOS_VEICULOS", indexes = {
+        @Index(name = "IDX_EVENTOS_POSICAO", columnList = "posicao", unique = true)
+})
+public class EventoVeiculo {
+
+    public enum Tipo { CRIADO, EXCLUIDO, MULTADO }
+
+    // Sequência com alocação em blocos, para que o cadastro em lote continue usando o batch do JDBC.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eventos")
+    @SequenceGenerator(name = "eventos", sequenceName = "SEQ_EVENTOS_VEICULOS", allocationSize = 500)
+    @JsonIgnore
+    private Long id;
+
+    private Long posicao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private Tipo tipo;
+
+    @Column(nullable = false)
+    private String placa;
+
+    // Multas acrescentadas (MULTADO)
+    private Integer quantidade;
+
+    // Veículo em JSON (CRIADO)
+    @JsonRawValue
+    @Column(length = 2000)
+    private String veiculo;
+
+    @Column(nullable = false)
+    private Instant momento;
+
+    public EventoVeiculo(Tipo tipo, String placa, Integer quantidade, String veiculo) {
+        this.tipo = tipo;
+        this.placa = placa;
+        this.quantidade = quantidade;
+        this.veiculo = veiculo;
+        this.momento = Instant.now();
+    }
+
+}
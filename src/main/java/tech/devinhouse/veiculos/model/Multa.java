@@ -0,0 +1,54 @@
+package tech.devinhouse.veiculos.model;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Registro de multas aplicadas a um veículo. A tabela só recebe inserções e, no MariaDB, é particionada
+ * por mês de {@link #dia}; as consultas do histórico leem os totais de {@link MultasVeiculoDia} e
+ * {@link MultasDia}, mantidos na mesma transação, e não esta tabela.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "MULTAS", indexes = {
+        @Index(name = "IDX_MULTAS_PLACA_DIA", columnList = "placa, dia")
+})
+public class Multa {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "multas")
+    @SequenceGenerator(name = "multas", sequenceName = "SEQ_MULTAS", allocationSize = 500)
+    private Long id;
+
+    @Column(nullable = false)
+    private String placa;
+
+    @Column(nullable = false)
+    private Instant momento;
+
+    // Data local (veiculos.multas.fuso) de momento: chave das partições e dos totais diários.
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private int quantidade;
+
+    public Multa(String placa, Instant momento, LocalDate dia, int quantidade) {
+        this.placa = placa;
+        this.momento = momento;
+        this.dia = dia;
+        this.quantidade = quantidade;
+    }
+
+}
@@ -0,0 +1,52 @@
+package tech.devinhouse.veiculos.model;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Total de multas da frota num dia, dividido em {@link #FATIAS} linhas pela placa: com uma linha só por
+ * dia, toda transação que registra multas esperaria pelo bloqueio da mesma linha. A consulta soma as fatias.
+ */
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(MultasDia.Chave.class)
+@Table(name = "MULTAS_DIAS")
+public class MultasDia {
+
+    public static final int FATIAS = 16;
+
+    @Id
+    private LocalDate dia;
+
+    @Id
+    private int fatia;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    public static int fatia(String placa) {
+        return Math.floorMod(placa.hashCode(), FATIAS);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Chave implements Serializable {
+
+        private LocalDate dia;
+
+        private int fatia;
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package tech.devinhouse.veiculos.model;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Total de multas de um veículo num dia, somado a cada {@link Multa} registrada.
+ * <p>
+ * O Hibernate cria a chave primária com as colunas em ordem alfabética, (dia, placa), que não serve à
+ * consulta por veículo; daí o índice. Em {@code db/esquema.sql} a própria chave já é (placa, dia).
+ */
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(MultasVeiculoDia.Chave.class)
+@Table(name = "MULTAS_VEICULOS_DIAS", indexes = {
+        @Index(name = "IDX_MULTAS_VEICULOS_DIAS_PLACA", columnList = "placa, dia")
+})
+public class MultasVeiculoDia {
+
+    @Id
+    private String placa;
+
+    @Id
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Chave implements Serializable {
+
+        private String placa;
+
+        private LocalDate dia;
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package tech.devinhouse.veiculos.model;
+
+/**
+ * Codificação de placas em um único {@code long}, para índices, caches e armazenamento sem objetos String.
+ * <p>
+ * Cada caractere vira um dígito na base 37 ({@code 0-9} = 1..10, {@code A-Z} = 11..36 e 0 para as
+ * posições vazias à direita), o que cobre qualquer placa de até 12 caracteres alfanuméricos
+ * maiúsculos, inclusive os formatos brasileiros antigo ({@code ABC1234}) e Mercosul ({@code ABC1D23}).
+ * A ordem numérica dos códigos é a mesma ordem alfabética das placas.
+ */
+public final class Placa {
+
+    public static final String FORMATO = "[0-9A-Z]{1,12}";
+
+    public static final long INVALIDA = -1L;
+
+    static final int TAMANHO_MAXIMO = 12;
+
+    private static final int BASE = 37;
+
+    private Placa() {
+    }
+
+    /**
+     * Devolve o código da placa, ou {@link #INVALIDA} se ela não está em {@link #FORMATO}.
+     */
+    public static long codificar(String placa) {
+        if (placa == null || placa.isEmpty() || placa.length() > TAMANHO_MAXIMO) {
+            return INVALIDA;
+        }
+        long codigo = 0;
+        for (int i = 0; i < TAMANHO_MAXIMO; i++) {
+            int digito = 0;
+            if (i < placa.length()) {
+                digito = digito(placa.charAt(i));
+                if (digito == 0) {
+                    return INVALIDA;
+                }
+            }
+            codigo = codigo * BASE + digito;
+        }
+        return codigo;
+    }
+
+    public static String decodificar(long codigo) {
+        int[] digitos = new int[TAMANHO_MAXIMO];
+        long restante = codigo;
+        for (int i = TAMANHO_MAXIMO - 1; i >= 0 && restante > 0; i--) {
+            digitos[i] = (int) (restante % BASE);
+            restante /= BASE;
+        }
+        int tamanho = 0;
+        while (tamanho < TAMANHO_MAXIMO && digitos[tamanho] != 0) {
+            tamanho++;
+        }
+        boolean valido = codigo > 0 && restante == 0;
+        for (int i = tamanho; i < TAMANHO_MAXIMO; i++) {
+            valido &= digitos[i] == 0;
+        }
+        if (!valido) {
+            throw new IllegalArgumentException("Código de placa inválido: " + codigo);
+        }
+        char[] caracteres = new char[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            caracteres[i] = digitos[i] <= 10 ? (char) ('0' + digitos[i] - 1) : (char) ('A' + digitos[i] - 11);
+        }
+        return new String(caracteres);
+    }
+
+    public static boolean codificavel(String placa) {
+        return codificar(placa) != INVALIDA;
+    }
+
+    /**
+     * Indica se a placa está num formato brasileiro: antigo ({@code ABC1234}) ou Mercosul ({@code ABC1D23}).
+     */
+    public static boolean brasileira(String placa) {
+        return placa != null && placa.length() == 7
+                && letra(placa.charAt(0)) && letra(placa.charAt(1)) && letra(placa.charAt(2))
+                && numero(placa.charAt(3)) && (numero(placa.charAt(4)) || letra(placa.charAt(4)))
+                && numero(placa.charAt(5)) && numero(placa.charAt(6));
+    }
+
+    private static int digito(char caractere) {
+        if (numero(caractere)) {
+            return caractere - '0' + 1;
+        }
+        if (letra(caractere)) {
+            return caractere - 'A' + 11;
+        }
+        return 0;
+    }
+
+    private static boolean letra(char caractere) {
+        return caractere >= 'A' && caractere <= 'Z';
+    }
+
+    private static boolean numero(char caractere) {
+        return caractere >= '0' && caractere <= '9';
+    }
+}
@@ -1,8 +1,12 @@
 package tech.devinhouse.veiculos.model;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import  lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,7 +15,12 @@ import lombok.NoArgsConstructor;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "VEICULOS")
+@Table(name = "VEICULOS", indexes = {
+        @Index(name = "IDX_VEICULOS_TIPO_ANO", columnList = "tipo, anoDeFabricacao"),
+        @Index(name = "IDX_VEICULOS_COR_ANO", columnList = "cor, anoDeFabricacao"),
+        @Index(name = "IDX_VEICULOS_ANO_PLACA", columnList = "anoDeFabricacao, placa"),
+        @Index(name = "IDX_VEICULOS_MULTAS_PLACA", columnList = "qtdMultas, placa")
+})
 public class Veiculo {
 
     @Id
@@ -25,6 +34,17 @@ public class Veiculo {
 
     private Integer qtdMultas;
 
+    // Muda a cada escrita e vira o ETag do veículo. Quem define é o banco, nunca o cliente;
+    // o default preenche as linhas que já existiam quando a coluna foi criada.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    public Veiculo(String placa, String tipo, String cor, Integer anoDeFabricacao, Integer qtdMultas) {
+        this(placa, tipo, cor, anoDeFabricacao, qtdMultas, null);
+    }
+
     public Veiculo(String placa, String tipo, String cor, Integer anoDeFabricacao) {
         this.placa = placa;
         this.tipo = tipo;
@@ -0,0 +1,25 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.model.AlteracoesFrota;
+
+@Repository
+public interface AlteracoesFrotaRepository extends JpaRepository<AlteracoesFrota, Integer> {
+
+    // Upsert no próprio banco: a fatia é criada na primeira alteração e depois só incrementada.
+    @Transactional
+    @Modifying
+    @Query(value = "insert into alteracoes_frota (fatia, alteracoes) values (:fatia, 1) "
+            + "on duplicate key update alteracoes = alteracoes + 1", nativeQuery = true)
+    void incrementar(@Param("fatia") int fatia);
+
+    @Transactional(readOnly = true)
+    @Query("select coalesce(sum(a.alteracoes), 0) from AlteracoesFrota a")
+    long somar();
+
+}
@@ -0,0 +1,64 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.springframework.data.domain.Pageable;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * O que os serviços usam do armazenamento de veículos: {@link VeiculoRepository} sobre o banco ou
+ * {@link VeiculoRepositoryMemoria} no perfil "memoria". Os serviços dependem só desta interface, para
+ * que o armazenamento em memória não precise reproduzir todo o {@code JpaRepository}.
+ */
+public interface ArmazenamentoVeiculos extends VeiculoRepositoryCustom {
+
+    boolean existsVeiculosByPlaca(String placa);
+
+    /**
+     * Indica se a placa pode ser gravada neste armazenamento; o banco aceita qualquer placa.
+     */
+    default boolean aceitaPlaca(String placa) {
+        return true;
+    }
+
+    Optional<Veiculo> findById(String placa);
+
+    List<Veiculo> findAllById(Iterable<String> placas);
+
+    List<Veiculo> findAll();
+
+    /**
+     * Lê o veículo impedindo que outra transação o altere até o fim da atual.
+     */
+    Optional<Veiculo> findParaExclusao(String placa);
+
+    List<String> findPlacasCadastradas(Collection<String> placas);
+
+    List<Veiculo> findByPlacaGreaterThanOrderByPlacaAsc(String placa, Pageable pageable);
+
+    Stream<Veiculo> streamTodosOrdenadosPorPlaca();
+
+    Stream<String> streamPlacas();
+
+    Optional<Long> findVersaoByPlaca(String placa);
+
+    long count();
+
+    long somarMultas();
+
+    List<Object[]> contarPorTipo();
+
+    List<Object[]> contarPorCor();
+
+    List<Object[]> contarPorAno();
+
+    int incrementarMultas(String placa, int quantidade);
+
+    int incrementarMultasNaVersao(String placa, int quantidade, long versao);
+
+    void deleteById(String placa);
+
+}
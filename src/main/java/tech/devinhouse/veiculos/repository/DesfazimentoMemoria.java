@@ -0,0 +1,42 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Desfazimentos das escritas da transação corrente no armazenamento em memória. Cada escrita vai para o
+ * diário e para o mapa assim que termina; dentro de uma transação ela também registra aqui como voltar ao
+ * estado anterior, e o gerenciador de transações do perfil "memoria" executa os registros em ordem inversa
+ * no rollback. Não há isolamento: outras transações veem as escritas antes do commit.
+ */
+public final class DesfazimentoMemoria {
+
+    private final List<Runnable> acoes = new ArrayList<>();
+
+    private boolean somenteRollback;
+
+    static void registrar(Runnable desfazer) {
+        DesfazimentoMemoria atual = (DesfazimentoMemoria) TransactionSynchronizationManager.getResource(DesfazimentoMemoria.class);
+        if (atual != null) {
+            atual.acoes.add(desfazer);
+        }
+    }
+
+    public void desfazer() {
+        for (int i = acoes.size() - 1; i >= 0; i--) {
+            acoes.get(i).run();
+        }
+        acoes.clear();
+    }
+
+    public boolean isSomenteRollback() {
+        return somenteRollback;
+    }
+
+    public void marcarSomenteRollback() {
+        somenteRollback = true;
+    }
+
+}
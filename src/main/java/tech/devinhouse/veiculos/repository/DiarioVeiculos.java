@@ -0,0 +1,404 @@
+package tech.devinhouse.veiculos.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.devinhouse.veiculos.model.Placa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistência do armazenamento em memória: um log de escrita antecipada dividido em segmentos
+ * ({@code wal-<n>.log}) e um snapshot ({@code snapshot.dat}) que substitui todos os segmentos até
+ * o número gravado no seu cabeçalho.
+ * <p>
+ * Cada registro é {@code [tamanho][crc32c][operação, placa codificada, campos]} e guarda o estado final do
+ * veículo, não a diferença. Assim reaplicar um segmento sobre um snapshot que já contém parte dele
+ * chega ao mesmo resultado, e o snapshot pode ser tirado sem parar as escritas.
+ * <p>
+ * Os métodos de escrita não são sincronizados: o repositório os chama sob a sua trava de escrita.
+ */
+@Slf4j
+final class DiarioVeiculos implements Closeable {
+
+    static final byte GRAVAR = 5;
+
+    static final byte REMOVER = 4;
+
+    // Versão 1: placa gravada como texto
+    private static final byte GRAVAR_TEXTO = 1;
+
+    private static final byte REMOVER_TEXTO = 2;
+
+    // Versão 2: sem a versão do veículo, lida como 0
+    private static final byte GRAVAR_SEM_VERSAO = 3;
+
+    private static final int MAGICO = 0x56454943;
+
+    private static final int VERSAO = 3;
+
+    private static final int CABECALHO_REGISTRO = 8;
+
+    private static final int CABECALHO_SNAPSHOT = 24;
+
+    private static final int TEXTO_NULO = 0xFFFF;
+
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    private static final long JANELA_MAPEAMENTO = 256L << 20;
+
+    private static final String SNAPSHOT = "snapshot.dat";
+
+    private static final Pattern SEGMENTO = Pattern.compile("wal-(\\d{20})\\.log");
+
+    interface Aplicador {
+
+        void gravar(long placa, RegistroVeiculo registro);
+
+        void remover(long placa);
+    }
+
+    private final Path diretorio;
+
+    private final boolean sincronizarEscrita;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+
+    private final CRC32C crc = new CRC32C();
+
+    private volatile FileChannel segmento;
+
+    private long numeroSegmento;
+
+    DiarioVeiculos(Path diretorio, boolean sincronizarEscrita) {
+        this.diretorio = diretorio;
+        this.sincronizarEscrita = sincronizarEscrita;
+    }
+
+    /**
+     * Carrega o snapshot e reaplica os segmentos posteriores a ele. Um registro incompleto ou com
+     * CRC inválido no fim do último segmento (escrita interrompida) é descartado; no meio do
+     * histórico ele indica perda de dados e impede a inicialização.
+     */
+    void recuperar(Aplicador aplicador) throws IOException {
+        Files.createDirectories(diretorio);
+        Files.deleteIfExists(diretorio.resolve(SNAPSHOT + ".tmp"));
+        long ateSegmento = Files.exists(diretorio.resolve(SNAPSHOT)) ? lerSnapshot(aplicador) : 0;
+        List<Long> segmentos = listarSegmentos();
+        long ultimo = ateSegmento;
+        for (int i = 0; i < segmentos.size(); i++) {
+            long numero = segmentos.get(i);
+            Path arquivo = arquivoSegmento(numero);
+            if (numero <= ateSegmento) {
+                Files.delete(arquivo);
+                continue;
+            }
+            long tamanho = Files.size(arquivo);
+            long validos = reproduzir(arquivo, 0, aplicador);
+            if (validos < tamanho) {
+                if (i < segmentos.size() - 1) {
+                    throw new IllegalStateException("Segmento " + arquivo + " corrompido na posição " + validos);
+                }
+                log.warn("Descartando {} byte(s) incompletos no fim de {}", tamanho - validos, arquivo);
+                try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+                    canal.truncate(validos);
+                }
+            }
+            if (validos == 0) {
+                Files.delete(arquivo);
+            }
+            ultimo = numero;
+        }
+        numeroSegmento = ultimo + 1;
+        segmento = abrirSegmento(numeroSegmento);
+    }
+
+    void gravar(long placa, RegistroVeiculo registro) throws IOException {
+        reservar(tamanhoMaximo(registro));
+        codificar(buffer, GRAVAR, placa, registro, crc);
+    }
+
+    void remover(long placa) throws IOException {
+        reservar(tamanhoMaximo(null));
+        codificar(buffer, REMOVER, placa, null, crc);
+    }
+
+    /**
+     * Escreve no segmento os registros acumulados desde a última confirmação.
+     */
+    void confirmar() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segmento.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+        if (sincronizarEscrita) {
+            segmento.force(false);
+        }
+    }
+
+    /**
+     * Descarta registros codificados mas ainda não confirmados, de uma operação que falhou no meio.
+     */
+    void descartar() {
+        buffer.clear();
+    }
+
+    void sincronizar() throws IOException {
+        FileChannel canal = segmento;
+        try {
+            canal.force(false);
+        } catch (ClosedChannelException e) {
+            // o segmento acabou de ser rotacionado, e a rotação já o sincronizou
+        }
+    }
+
+    /**
+     * Fecha o segmento atual e abre o próximo; devolve o número do segmento fechado.
+     */
+    long rotacionar() throws IOException {
+        confirmar();
+        FileChannel anterior = segmento;
+        segmento = abrirSegmento(numeroSegmento + 1);
+        anterior.force(false);
+        anterior.close();
+        return numeroSegmento++;
+    }
+
+    /**
+     * Grava um snapshot que substitui os segmentos até {@code ateSegmento} e os remove em seguida.
+     * O arquivo só toma o lugar do anterior depois de sincronizado em disco.
+     */
+    void escreverSnapshot(long ateSegmento, Iterator<MapaPlacas.Entrada<RegistroVeiculo>> registros) throws IOException {
+        Path temporario = diretorio.resolve(SNAPSHOT + ".tmp");
+        ByteBuffer saida = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        CRC32C crcSnapshot = new CRC32C();
+        long quantidade = 0;
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            saida.position(CABECALHO_SNAPSHOT);
+            while (registros.hasNext()) {
+                MapaPlacas.Entrada<RegistroVeiculo> registro = registros.next();
+                if (saida.remaining() < tamanhoMaximo(registro.valor())) {
+                    escreverTudo(canal, saida);
+                }
+                codificar(saida, GRAVAR, registro.placa(), registro.valor(), crcSnapshot);
+                quantidade++;
+            }
+            escreverTudo(canal, saida);
+            saida.putInt(MAGICO).putInt(VERSAO).putLong(ateSegmento).putLong(quantidade).flip();
+            canal.write(saida, 0);
+            canal.force(true);
+        }
+        Files.move(temporario, diretorio.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long numero : listarSegmentos()) {
+            if (numero <= ateSegmento) {
+                Files.delete(arquivoSegmento(numero));
+            }
+        }
+        log.info("Snapshot gravado com {} veículo(s), substituindo os segmentos até {}", quantidade, ateSegmento);
+    }
+
+    @Override
+    public void close() throws IOException {
+        confirmar();
+        segmento.force(false);
+        segmento.close();
+    }
+
+    private long lerSnapshot(Aplicador aplicador) throws IOException {
+        Path arquivo = diretorio.resolve(SNAPSHOT);
+        long ateSegmento;
+        long quantidade;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < CABECALHO_SNAPSHOT) {
+                throw new IllegalStateException("Snapshot " + arquivo + " inválido");
+            }
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO_SNAPSHOT);
+            int magico = cabecalho.getInt();
+            int versao = cabecalho.getInt();
+            if (magico != MAGICO || versao < 1 || versao > VERSAO) {
+                throw new IllegalStateException("Snapshot " + arquivo + " inválido");
+            }
+            ateSegmento = cabecalho.getLong();
+            quantidade = cabecalho.getLong();
+        }
+        long[] lidos = new long[1];
+        Aplicador contador = new Aplicador() {
+            @Override
+            public void gravar(long placa, RegistroVeiculo registro) {
+                lidos[0]++;
+                aplicador.gravar(placa, registro);
+            }
+
+            @Override
+            public void remover(long placa) {
+                aplicador.remover(placa);
+            }
+        };
+        if (reproduzir(arquivo, CABECALHO_SNAPSHOT, contador) != Files.size(arquivo) || lidos[0] != quantidade) {
+            throw new IllegalStateException("Snapshot " + arquivo + " corrompido: " + lidos[0] + " de " + quantidade + " registro(s) válidos");
+        }
+        return ateSegmento;
+    }
+
+    // Mapeia o arquivo em janelas e aplica os registros válidos; devolve a posição após o último deles.
+    private long reproduzir(Path arquivo, long inicio, Aplicador aplicador) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            long posicao = inicio;
+            while (posicao < tamanho) {
+                MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(JANELA_MAPEAMENTO, tamanho - posicao));
+                int lidos = lerRegistros(janela, aplicador);
+                if (lidos == 0) {
+                    break;
+                }
+                posicao += lidos;
+            }
+            return posicao;
+        }
+    }
+
+    private int lerRegistros(ByteBuffer janela, Aplicador aplicador) {
+        CRC32C verificador = new CRC32C();
+        while (janela.remaining() >= CABECALHO_REGISTRO) {
+            int inicio = janela.position();
+            int tamanho = janela.getInt();
+            int esperado = janela.getInt();
+            if (tamanho <= 0 || tamanho > janela.remaining()) {
+                janela.position(inicio);
+                break;
+            }
+            ByteBuffer conteudo = janela.slice(janela.position(), tamanho);
+            verificador.reset();
+            verificador.update(conteudo.duplicate());
+            if ((int) verificador.getValue() != esperado) {
+                janela.position(inicio);
+                break;
+            }
+            byte operacao = conteudo.get();
+            long placa = operacao == GRAVAR_TEXTO || operacao == REMOVER_TEXTO ? placaTexto(conteudo) : conteudo.getLong();
+            if (operacao == GRAVAR || operacao == GRAVAR_SEM_VERSAO || operacao == GRAVAR_TEXTO) {
+                aplicador.gravar(placa, new RegistroVeiculo(lerTexto(conteudo), lerTexto(conteudo), conteudo.getInt(), conteudo.getInt(),
+                        operacao == GRAVAR ? conteudo.getLong() : 0));
+            } else if (operacao == REMOVER || operacao == REMOVER_TEXTO) {
+                aplicador.remover(placa);
+            } else {
+                janela.position(inicio);
+                break;
+            }
+            janela.position(janela.position() + tamanho);
+        }
+        return janela.position();
+    }
+
+    private void reservar(int tamanho) throws IOException {
+        if (buffer.remaining() < tamanho) {
+            confirmar();
+        }
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer saida) throws IOException {
+        saida.flip();
+        while (saida.hasRemaining()) {
+            canal.write(saida);
+        }
+        saida.clear();
+    }
+
+    private static void codificar(ByteBuffer destino, byte operacao, long placa, RegistroVeiculo registro, CRC32C crc) {
+        int inicio = destino.position();
+        destino.position(inicio + CABECALHO_REGISTRO);
+        destino.put(operacao).putLong(placa);
+        if (operacao == GRAVAR) {
+            escreverTexto(destino, registro.tipo());
+            escreverTexto(destino, registro.cor());
+            destino.putInt(registro.ano()).putInt(registro.multas()).putLong(registro.versao());
+        }
+        int fim = destino.position();
+        crc.reset();
+        crc.update(destino.slice(inicio + CABECALHO_REGISTRO, fim - inicio - CABECALHO_REGISTRO));
+        destino.putInt(inicio, fim - inicio - CABECALHO_REGISTRO);
+        destino.putInt(inicio + 4, (int) crc.getValue());
+    }
+
+    // Limite superior do registro codificado: até 3 bytes UTF-8 por char.
+    private static int tamanhoMaximo(RegistroVeiculo registro) {
+        int tamanho = CABECALHO_REGISTRO + 1 + 8;
+        if (registro != null) {
+            tamanho += 4 + comprimento(registro.tipo()) * 3 + comprimento(registro.cor()) * 3 + 16;
+        }
+        return tamanho;
+    }
+
+    private static int comprimento(String texto) {
+        return texto == null ? 0 : texto.length();
+    }
+
+    private static void escreverTexto(ByteBuffer destino, String texto) {
+        if (texto == null) {
+            destino.putShort((short) TEXTO_NULO);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= TEXTO_NULO) {
+            throw new IllegalArgumentException("Texto com " + bytes.length + " bytes excede o limite do diário");
+        }
+        destino.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static long placaTexto(ByteBuffer origem) {
+        String placa = lerTexto(origem);
+        long codigo = Placa.codificar(placa);
+        if (codigo == Placa.INVALIDA) {
+            throw new IllegalStateException("Placa " + placa + " do diário não é codificável");
+        }
+        return codigo;
+    }
+
+    private static String lerTexto(ByteBuffer origem) {
+        int tamanho = Short.toUnsignedInt(origem.getShort());
+        if (tamanho == TEXTO_NULO) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        origem.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private FileChannel abrirSegmento(long numero) throws IOException {
+        return FileChannel.open(arquivoSegmento(numero), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path arquivoSegmento(long numero) {
+        return diretorio.resolve(String.format("wal-%020d.log", numero));
+    }
+
+    private List<Long> listarSegmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .map(arquivo -> SEGMENTO.matcher(arquivo.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(nome -> Long.parseLong(nome.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package tech.devinhouse.veiculos.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.model.EventoVeiculo;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EventoVeiculoRepository extends JpaRepository<EventoVeiculo, Long> {
+
+    // O bloqueio faz um segundo publicador (outra instância) esperar em vez de numerar os mesmos eventos.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from EventoVeiculo e where e.posicao is null order by e.id")
+    List<EventoVeiculo> findPendentes(Pageable pageable);
+
+    List<EventoVeiculo> findByPosicaoGreaterThanOrderByPosicaoAsc(long posicao, Pageable pageable);
+
+    @Query("select coalesce(max(e.posicao), 0) from EventoVeiculo e")
+    long ultimaPosicao();
+
+    @Query("select min(e.posicao) from EventoVeiculo e")
+    Long primeiraPosicao();
+
+    // O último evento publicado nunca é removido: é ele que permite saber se um cursor antigo expirou.
+    @Transactional
+    @Modifying
+    @Query("delete from EventoVeiculo e where e.posicao < :ultima and e.momento < :limite")
+    int removerPublicadosAntes(@Param("limite") Instant limite, @Param("ultima") long ultima);
+
+}
@@ -0,0 +1,225 @@
+package tech.devinhouse.veiculos.repository;
+
+import tech.devinhouse.veiculos.model.Placa;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mapa ordenado de placas codificadas ({@link Placa#codificar}) para valores, com as chaves em
+ * arrays de {@code long} em vez de um objeto String (e um array de bytes) por placa.
+ * <p>
+ * As entradas ficam em blocos ordenados de até {@link #TAMANHO_BLOCO} chaves, indexados pelo limite
+ * inferior de cada bloco. Um bloco nunca muda depois de publicado: cada escrita publica uma cópia,
+ * então as leituras não travam. As escritas, por outro lado, precisam de um único escritor por vez;
+ * quem usa o mapa é responsável por essa trava.
+ */
+public final class MapaPlacas<V> implements Iterable<MapaPlacas.Entrada<V>> {
+
+    static final int TAMANHO_BLOCO = 64;
+
+    public record Entrada<V>(long placa, V valor) {
+    }
+
+    private static final class Bloco {
+
+        private static final Bloco VAZIO = new Bloco(new long[0], new Object[0]);
+
+        private final long[] chaves;
+
+        private final Object[] valores;
+
+        private Bloco(long[] chaves, Object[] valores) {
+            this.chaves = chaves;
+            this.valores = valores;
+        }
+
+        private Bloco substituir(int indice, Object valor) {
+            Object[] novos = valores.clone();
+            novos[indice] = valor;
+            return new Bloco(chaves, novos);
+        }
+
+        private Bloco inserir(int indice, long chave, Object valor) {
+            long[] novasChaves = new long[chaves.length + 1];
+            Object[] novosValores = new Object[valores.length + 1];
+            System.arraycopy(chaves, 0, novasChaves, 0, indice);
+            System.arraycopy(valores, 0, novosValores, 0, indice);
+            novasChaves[indice] = chave;
+            novosValores[indice] = valor;
+            System.arraycopy(chaves, indice, novasChaves, indice + 1, chaves.length - indice);
+            System.arraycopy(valores, indice, novosValores, indice + 1, valores.length - indice);
+            return new Bloco(novasChaves, novosValores);
+        }
+
+        private Bloco remover(int indice) {
+            long[] novasChaves = new long[chaves.length - 1];
+            Object[] novosValores = new Object[valores.length - 1];
+            System.arraycopy(chaves, 0, novasChaves, 0, indice);
+            System.arraycopy(valores, 0, novosValores, 0, indice);
+            System.arraycopy(chaves, indice + 1, novasChaves, indice, chaves.length - indice - 1);
+            System.arraycopy(valores, indice + 1, novosValores, indice, valores.length - indice - 1);
+            return new Bloco(novasChaves, novosValores);
+        }
+
+        private Bloco fatia(int inicio, int fim) {
+            return new Bloco(Arrays.copyOfRange(chaves, inicio, fim), Arrays.copyOfRange(valores, inicio, fim));
+        }
+    }
+
+    private final ConcurrentSkipListMap<Long, Bloco> blocos = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong tamanho = new AtomicLong();
+
+    public MapaPlacas() {
+        blocos.put(Long.MIN_VALUE, Bloco.VAZIO);
+    }
+
+    public long size() {
+        return tamanho.get();
+    }
+
+    public boolean containsKey(long placa) {
+        return indice(blocos.floorEntry(placa).getValue(), placa) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long placa) {
+        Bloco bloco = blocos.floorEntry(placa).getValue();
+        int indice = indice(bloco, placa);
+        return indice >= 0 ? (V) bloco.valores[indice] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long placa, V valor) {
+        Map.Entry<Long, Bloco> entrada = blocos.floorEntry(placa);
+        Bloco bloco = entrada.getValue();
+        int indice = indice(bloco, placa);
+        if (indice >= 0) {
+            blocos.put(entrada.getKey(), bloco.substituir(indice, valor));
+            return (V) bloco.valores[indice];
+        }
+        int posicao = -indice - 1;
+        Bloco novo = bloco.inserir(posicao, placa, valor);
+        if (novo.chaves.length <= TAMANHO_BLOCO) {
+            blocos.put(entrada.getKey(), novo);
+        } else {
+            // Inserções no fim do bloco (cargas em ordem crescente, como a de um snapshot) deixam o bloco
+            // da esquerda cheio; no meio, a divisão é ao meio. A metade direita é publicada antes, para
+            // que uma leitura que ainda use o bloco antigo encontre todas as chaves em algum deles.
+            int corte = posicao == bloco.chaves.length ? TAMANHO_BLOCO : novo.chaves.length / 2;
+            Bloco direita = novo.fatia(corte, novo.chaves.length);
+            blocos.put(direita.chaves[0], direita);
+            blocos.put(entrada.getKey(), novo.fatia(0, corte));
+        }
+        tamanho.incrementAndGet();
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long placa) {
+        Map.Entry<Long, Bloco> entrada = blocos.floorEntry(placa);
+        Bloco bloco = entrada.getValue();
+        int indice = indice(bloco, placa);
+        if (indice < 0) {
+            return null;
+        }
+        Bloco novo = bloco.remover(indice);
+        if (novo.chaves.length == 0 && entrada.getKey() != Long.MIN_VALUE) {
+            blocos.remove(entrada.getKey());
+        } else {
+            blocos.put(entrada.getKey(), novo);
+        }
+        tamanho.decrementAndGet();
+        return (V) bloco.valores[indice];
+    }
+
+    /**
+     * Entradas em ordem crescente de placa.
+     */
+    @Override
+    public Iterator<Entrada<V>> iterator() {
+        return crescente(Placa.INVALIDA);
+    }
+
+    /**
+     * Entradas com placa maior que {@code apos}, em ordem crescente.
+     */
+    public Iterator<Entrada<V>> crescente(long apos) {
+        return new Iterador(blocos.tailMap(blocos.floorKey(apos), true).values().iterator(), true, apos);
+    }
+
+    /**
+     * Entradas com placa menor que {@code antes}, em ordem decrescente.
+     */
+    public Iterator<Entrada<V>> decrescente(long antes) {
+        return new Iterador(blocos.headMap(antes, false).descendingMap().values().iterator(), false, antes);
+    }
+
+    private static int indice(Bloco bloco, long placa) {
+        return Arrays.binarySearch(bloco.chaves, placa);
+    }
+
+    // Durante a divisão de um bloco, o bloco antigo e a sua metade direita ficam visíveis ao mesmo
+    // tempo; guardar a última placa devolvida e exigir ordem estrita descarta as repetições.
+    private final class Iterador implements Iterator<Entrada<V>> {
+
+        private final Iterator<Bloco> proximos;
+
+        private final boolean crescente;
+
+        private Bloco atual = Bloco.VAZIO;
+
+        private int indice;
+
+        private long ultima;
+
+        private Entrada<V> proxima;
+
+        private Iterador(Iterator<Bloco> proximos, boolean crescente, long inicio) {
+            this.proximos = proximos;
+            this.crescente = crescente;
+            this.ultima = inicio;
+            this.proxima = avancar();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proxima != null;
+        }
+
+        @Override
+        public Entrada<V> next() {
+            if (proxima == null) {
+                throw new NoSuchElementException();
+            }
+            Entrada<V> entrada = proxima;
+            proxima = avancar();
+            return entrada;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Entrada<V> avancar() {
+            while (true) {
+                while (indice >= 0 && indice < atual.chaves.length) {
+                    long chave = atual.chaves[indice];
+                    Object valor = atual.valores[indice];
+                    indice += crescente ? 1 : -1;
+                    if (crescente ? chave > ultima : chave < ultima) {
+                        ultima = chave;
+                        return new Entrada<>(chave, (V) valor);
+                    }
+                }
+                if (!proximos.hasNext()) {
+                    return null;
+                }
+                atual = proximos.next();
+                indice = crescente ? 0 : atual.chaves.length - 1;
+            }
+        }
+    }
+}
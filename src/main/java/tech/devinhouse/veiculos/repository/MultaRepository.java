@@ -0,0 +1,25 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.devinhouse.veiculos.dto.MultasPorDia;
+import tech.devinhouse.veiculos.model.Multa;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MultaRepository extends JpaRepository<Multa, Long>, MultaRepositoryCustom {
+
+    // Uma linha por dia com multas: no máximo o tamanho do período, lida pela chave primária.
+    @Query("select new tech.devinhouse.veiculos.dto.MultasPorDia(m.dia, m.quantidade) from MultasVeiculoDia m "
+            + "where m.placa = :placa and m.dia between :de and :ate order by m.dia")
+    List<MultasPorDia> totaisPorDiaDoVeiculo(@Param("placa") String placa, @Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    @Query("select new tech.devinhouse.veiculos.dto.MultasPorDia(m.dia, sum(m.quantidade)) from MultasDia m "
+            + "where m.dia between :de and :ate group by m.dia order by m.dia")
+    List<MultasPorDia> totaisPorDiaDaFrota(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+}
@@ -0,0 +1,33 @@
+package tech.devinhouse.veiculos.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface MultaRepositoryCustom {
+
+    /**
+     * Partição da tabela de multas; {@code limite} é o primeiro dia que ela não contém, {@code null} para MAXVALUE.
+     */
+    record Particao(String nome, LocalDate limite) {
+    }
+
+    /**
+     * Soma as multas de cada placa aos totais do dia por veículo e da frota, com lotes de
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE}.
+     */
+    void acumular(Map<String, Integer> multas, LocalDate dia);
+
+    /**
+     * Partições da tabela de multas em ordem; vazia se o banco não é MariaDB ou se a tabela não é particionada.
+     */
+    List<Particao> particoes();
+
+    /**
+     * Separa da última partição (MAXVALUE) uma nova, com as multas anteriores a {@code limite}.
+     */
+    void dividirParticao(String ultima, String nome, LocalDate limite);
+
+    void removerParticao(String nome);
+
+}
@@ -0,0 +1,114 @@
+package tech.devinhouse.veiculos.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.model.MultasDia;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Os totais são somados no próprio banco com upsert: ler, somar e gravar pela JPA seria um SELECT a mais
+// por linha e perderia somas de transações concorrentes sem um bloqueio explícito.
+class MultaRepositoryImpl implements MultaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int tamanhoLote;
+
+    @Override
+    @Transactional
+    public void acumular(Map<String, Integer> multas, LocalDate dia) {
+        // Placas e fatias sempre na mesma ordem, para que dois lotes concorrentes não se bloqueiem em ordem inversa.
+        Map<String, Integer> porPlaca = new TreeMap<>(multas);
+        Map<Integer, Long> porFatia = new TreeMap<>();
+        porPlaca.forEach((placa, quantidade) -> porFatia.merge(MultasDia.fatia(placa), quantidade.longValue(), Long::sum));
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            try (PreparedStatement comando = conexao.prepareStatement(
+                    "insert into multas_veiculos_dias (placa, dia, quantidade) values (?, ?, ?) "
+                            + "on duplicate key update quantidade = quantidade + values(quantidade)")) {
+                int pendentes = 0;
+                for (Map.Entry<String, Integer> multa : porPlaca.entrySet()) {
+                    comando.setString(1, multa.getKey());
+                    comando.setObject(2, dia);
+                    comando.setLong(3, multa.getValue());
+                    comando.addBatch();
+                    if (++pendentes == tamanhoLote) {
+                        comando.executeBatch();
+                        pendentes = 0;
+                    }
+                }
+                comando.executeBatch();
+            }
+            try (PreparedStatement comando = conexao.prepareStatement(
+                    "insert into multas_dias (dia, fatia, quantidade) values (?, ?, ?) "
+                            + "on duplicate key update quantidade = quantidade + values(quantidade)")) {
+                for (Map.Entry<Integer, Long> total : porFatia.entrySet()) {
+                    comando.setObject(1, dia);
+                    comando.setInt(2, total.getKey());
+                    comando.setLong(3, total.getValue());
+                    comando.addBatch();
+                }
+                comando.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Particao> particoes() {
+        return entityManager.unwrap(Session.class).doReturningWork(conexao -> {
+            List<Particao> particoes = new ArrayList<>();
+            String banco = conexao.getMetaData().getDatabaseProductName();
+            if (!banco.contains("MariaDB") && !banco.contains("MySQL")) {
+                return particoes;
+            }
+            try (PreparedStatement consulta = conexao.prepareStatement(
+                    "select partition_name, partition_description from information_schema.partitions "
+                            + "where table_schema = database() and lower(table_name) = 'multas' and partition_name is not null "
+                            + "order by partition_ordinal_position");
+                 ResultSet linhas = consulta.executeQuery()) {
+                while (linhas.next()) {
+                    String limite = linhas.getString(2).replace("'", "");
+                    particoes.add(new Particao(linhas.getString(1),
+                            limite.equalsIgnoreCase("MAXVALUE") ? null : LocalDate.parse(limite)));
+                }
+            }
+            return particoes;
+        });
+    }
+
+    // A última partição fica sempre vazia (as do mês corrente e seguintes já existem), então a
+    // reorganização não copia linhas e só bloqueia a tabela por um instante.
+    @Override
+    @Transactional
+    public void dividirParticao(String ultima, String nome, LocalDate limite) {
+        executar("alter table multas reorganize partition " + ultima + " into (partition " + nome
+                + " values less than ('" + limite + "'), partition " + ultima + " values less than (maxvalue))");
+    }
+
+    @Override
+    @Transactional
+    public void removerParticao(String nome) {
+        executar("alter table multas drop partition " + nome);
+    }
+
+    private void executar(String ddl) {
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            try (Statement comando = conexao.createStatement()) {
+                comando.execute(ddl);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,42 @@
+package tech.devinhouse.veiculos.repository;
+
+import tech.devinhouse.veiculos.model.Veiculo;
+
+/**
+ * Valor compacto guardado pelo armazenamento em memória: sem a placa (que é a chave do mapa)
+ * e com os inteiros sem boxing. {@link #NULO} representa uma coluna nula.
+ */
+record RegistroVeiculo(String tipo, String cor, int ano, int multas, long versao) {
+
+    static final int NULO = Integer.MIN_VALUE;
+
+    static RegistroVeiculo de(Veiculo veiculo) {
+        return new RegistroVeiculo(veiculo.getTipo(), veiculo.getCor(),
+                inteiro(veiculo.getAnoDeFabricacao()), inteiro(veiculo.getQtdMultas()),
+                veiculo.getVersao() == null ? 0 : veiculo.getVersao());
+    }
+
+    RegistroVeiculo comMultas(int quantidade) {
+        return new RegistroVeiculo(tipo, cor, ano, quantidade, versao + 1);
+    }
+
+    RegistroVeiculo naVersao(long versao) {
+        return new RegistroVeiculo(tipo, cor, ano, multas, versao);
+    }
+
+    Integer anoDeFabricacao() {
+        return ano == NULO ? null : ano;
+    }
+
+    Integer qtdMultas() {
+        return multas == NULO ? null : multas;
+    }
+
+    Veiculo paraVeiculo(String placa) {
+        return new Veiculo(placa, tipo, cor, anoDeFabricacao(), qtdMultas(), versao);
+    }
+
+    private static int inteiro(Integer valor) {
+        return valor == null ? NULO : valor;
+    }
+}
@@ -1,13 +1,102 @@
 package tech.devinhouse.veiculos.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import tech.devinhouse.veiculos.model.Veiculo;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 
 @Repository
-public interface VeiculoRepository extends JpaRepository<Veiculo, String> {
+public interface VeiculoRepository extends JpaRepository<Veiculo, String>, VeiculoRepositoryCustom, ArmazenamentoVeiculos {
+
+    // Redeclarados com a placa no lugar do ID genérico: o JpaRepository e o ArmazenamentoVeiculos trazem
+    // os mesmos métodos, e sem isso as chamadas pelo VeiculoRepository ficariam ambíguas.
+    @Override
+    Optional<Veiculo> findById(String placa);
+
+    @Override
+    List<Veiculo> findAllById(Iterable<String> placas);
+
+    @Override
+    List<Veiculo> findAll();
+
+    @Override
+    long count();
+
+    @Override
+    void deleteById(String placa);
 
     boolean existsVeiculosByPlaca(String placa);
 
+    // Bloqueia a linha até o fim da transação, para a exclusão decidir com as multas que outra transação
+    // esteja gravando: o UPDATE dela termina antes da leitura ou espera a exclusão.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from Veiculo v where v.placa = :placa")
+    Optional<Veiculo> findParaExclusao(@Param("placa") String placa);
+
+    @Query("select v.placa from Veiculo v where v.placa in :placas")
+    List<String> findPlacasCadastradas(@Param("placas") Collection<String> placas);
+
+    List<Veiculo> findByPlacaGreaterThanOrderByPlacaAsc(String placa, Pageable pageable);
+
+    // A expressão construtora devolve instâncias fora do contexto de persistência,
+    // então o consumo do stream não acumula entidades gerenciadas em memória.
+    @Query("select new tech.devinhouse.veiculos.model.Veiculo(v.placa, v.tipo, v.cor, v.anoDeFabricacao, v.qtdMultas, v.versao) " +
+           "from Veiculo v order by v.placa")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Veiculo> streamTodosOrdenadosPorPlaca();
+
+    @Query("select v.placa from Veiculo v")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamPlacas();
+
+    // Só a versão, para responder If-None-Match sem carregar o veículo. Somente leitura, como os métodos
+    // herdados do JpaRepository, para que também vá para a réplica quando houver uma.
+    @Transactional(readOnly = true)
+    @Query("select v.versao from Veiculo v where v.placa = :placa")
+    Optional<Long> findVersaoByPlaca(@Param("placa") String placa);
+
+    @Query("select coalesce(sum(v.qtdMultas), 0) from Veiculo v")
+    long somarMultas();
+
+    @Query("select v.tipo, count(v) from Veiculo v group by v.tipo")
+    List<Object[]> contarPorTipo();
+
+    @Query("select v.cor, count(v) from Veiculo v group by v.cor")
+    List<Object[]> contarPorCor();
+
+    @Query("select v.anoDeFabricacao, count(v) from Veiculo v group by v.anoDeFabricacao")
+    List<Object[]> contarPorAno();
+
+    // Incremento atômico feito pelo próprio banco: não há leitura prévia, então
+    // requisições concorrentes para a mesma placa não perdem multas.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Veiculo v set v.qtdMultas = v.qtdMultas + :quantidade, v.versao = v.versao + 1 where v.placa = :placa")
+    int incrementarMultas(@Param("placa") String placa, @Param("quantidade") int quantidade);
+
+    // Mesmo incremento, condicionado à versão que o cliente leu (If-Match): 0 linhas se ela mudou.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Veiculo v set v.qtdMultas = v.qtdMultas + :quantidade, v.versao = v.versao + 1 " +
+           "where v.placa = :placa and v.versao = :versao")
+    int incrementarMultasNaVersao(@Param("placa") String placa, @Param("quantidade") int quantidade, @Param("versao") long versao);
+
 }
@@ -0,0 +1,22 @@
+package tech.devinhouse.veiculos.repository;
+
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.util.List;
+import java.util.Map;
+
+public interface VeiculoRepositoryCustom {
+
+    void inserir(Veiculo veiculo);
+
+    void inserirEmLote(List<Veiculo> veiculos);
+
+    List<Veiculo> pesquisar(FiltroVeiculos filtro, int tamanho);
+
+    /**
+     * Soma as multas de cada placa com um lote de UPDATEs e devolve as placas que não foram encontradas.
+     */
+    List<String> incrementarMultasEmLote(Map<String, Integer> multas);
+
+}
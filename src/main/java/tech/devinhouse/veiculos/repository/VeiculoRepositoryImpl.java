@@ -0,0 +1,166 @@
+package tech.devinhouse.veiculos.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A placa é um @Id atribuído pela aplicação, então save() cairia em merge() e faria um
+// SELECT antes de cada INSERT. Aqui o serviço já sabe que o veículo é novo e usa persist().
+class VeiculoRepositoryImpl implements VeiculoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int tamanhoLote;
+
+    @Override
+    @Transactional
+    public void inserir(Veiculo veiculo) {
+        entityManager.persist(veiculo);
+    }
+
+    @Override
+    @Transactional
+    public void inserirEmLote(List<Veiculo> veiculos) {
+        int pendentes = 0;
+        for (Veiculo veiculo : veiculos) {
+            entityManager.persist(veiculo);
+            if (++pendentes == tamanhoLote) {
+                entityManager.flush();
+                entityManager.clear();
+                pendentes = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Um único PreparedStatement com addBatch: o JPQL de incrementarMultas seria um comando por placa,
+    // já que atualizações em massa do Hibernate não entram no batching do JDBC.
+    @Override
+    @Transactional
+    public List<String> incrementarMultasEmLote(Map<String, Integer> multas) {
+        List<String> placas = new ArrayList<>(multas.keySet());
+        List<String> inexistentes = new ArrayList<>();
+        List<String> semInformacao = new ArrayList<>();
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            try (PreparedStatement comando = conexao.prepareStatement(
+                    "update veiculos set qtd_multas = qtd_multas + ?, versao = versao + 1 where placa = ?")) {
+                for (int inicio = 0; inicio < placas.size(); inicio += tamanhoLote) {
+                    List<String> trecho = placas.subList(inicio, Math.min(inicio + tamanhoLote, placas.size()));
+                    for (String placa : trecho) {
+                        comando.setInt(1, multas.get(placa));
+                        comando.setString(2, placa);
+                        comando.addBatch();
+                    }
+                    int[] atualizados = comando.executeBatch();
+                    // O driver do MariaDB devolve SUCCESS_NO_INFO (-2) no protocolo de lote, sem dizer
+                    // quais linhas existiam; essas placas são conferidas depois dos UPDATEs.
+                    for (int i = 0; i < atualizados.length; i++) {
+                        if (atualizados[i] == 0) {
+                            inexistentes.add(trecho.get(i));
+                        } else if (atualizados[i] == Statement.SUCCESS_NO_INFO) {
+                            semInformacao.add(trecho.get(i));
+                        }
+                    }
+                }
+            }
+            // Na mesma transação: as linhas atualizadas continuam travadas, então a ausência aqui
+            // significa que o UPDATE não encontrou a placa.
+            for (int inicio = 0; inicio < semInformacao.size(); inicio += tamanhoLote) {
+                List<String> trecho = semInformacao.subList(inicio, Math.min(inicio + tamanhoLote, semInformacao.size()));
+                Set<String> cadastradas = new HashSet<>();
+                try (PreparedStatement consulta = conexao.prepareStatement(
+                        "select placa from veiculos where placa in (" + String.join(",", Collections.nCopies(trecho.size(), "?")) + ")")) {
+                    for (int i = 0; i < trecho.size(); i++) {
+                        consulta.setString(i + 1, trecho.get(i));
+                    }
+                    try (ResultSet linhas = consulta.executeQuery()) {
+                        while (linhas.next()) {
+                            cadastradas.add(linhas.getString(1));
+                        }
+                    }
+                }
+                trecho.stream().filter(placa -> !cadastradas.contains(placa)).forEach(inexistentes::add);
+            }
+        });
+        entityManager.clear();
+        return inexistentes;
+    }
+
+    @Override
+    public List<Veiculo> pesquisar(FiltroVeiculos filtro, int tamanho) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Veiculo> consulta = cb.createQuery(Veiculo.class);
+        Root<Veiculo> veiculo = consulta.from(Veiculo.class);
+        List<Predicate> condicoes = new ArrayList<>();
+        if (filtro.getTipo() != null) {
+            condicoes.add(cb.equal(veiculo.get("tipo"), filtro.getTipo()));
+        }
+        if (filtro.getCor() != null) {
+            condicoes.add(cb.equal(veiculo.get("cor"), filtro.getCor()));
+        }
+        if (filtro.getAnoMinimo() != null) {
+            condicoes.add(cb.greaterThanOrEqualTo(veiculo.get("anoDeFabricacao"), filtro.getAnoMinimo()));
+        }
+        if (filtro.getAnoMaximo() != null) {
+            condicoes.add(cb.lessThanOrEqualTo(veiculo.get("anoDeFabricacao"), filtro.getAnoMaximo()));
+        }
+        if (filtro.getMultasMinimo() != null) {
+            condicoes.add(cb.greaterThanOrEqualTo(veiculo.get("qtdMultas"), filtro.getMultasMinimo()));
+        }
+        if (filtro.getMultasMaximo() != null) {
+            condicoes.add(cb.lessThanOrEqualTo(veiculo.get("qtdMultas"), filtro.getMultasMaximo()));
+        }
+
+        boolean crescente = filtro.getDirecao() == Sort.Direction.ASC;
+        Path<String> placa = veiculo.get("placa");
+        List<Order> ordem = new ArrayList<>();
+        if (filtro.getOrdenarPor() == FiltroVeiculos.Ordenacao.PLACA) {
+            if (filtro.getCursor() != null) {
+                condicoes.add(crescente ? cb.greaterThan(placa, filtro.getCursor()) : cb.lessThan(placa, filtro.getCursor()));
+            }
+        } else {
+            // Ordenação por (campo, placa): a placa desempata e torna o cursor único.
+            // Veículos sem valor no campo de ordenação ficam fora da paginação por ele.
+            Path<Integer> campo = veiculo.get(filtro.getOrdenarPor().getAtributo());
+            condicoes.add(cb.isNotNull(campo));
+            if (filtro.getCursor() != null) {
+                Integer valor = filtro.cursorValor();
+                String aposPlaca = filtro.cursorPlaca();
+                condicoes.add(crescente
+                        ? cb.or(cb.greaterThan(campo, valor), cb.and(cb.equal(campo, valor), cb.greaterThan(placa, aposPlaca)))
+                        : cb.or(cb.lessThan(campo, valor), cb.and(cb.equal(campo, valor), cb.lessThan(placa, aposPlaca))));
+            }
+            ordem.add(crescente ? cb.asc(campo) : cb.desc(campo));
+        }
+        ordem.add(crescente ? cb.asc(placa) : cb.desc(placa));
+
+        consulta.select(veiculo).where(condicoes.toArray(Predicate[]::new)).orderBy(ordem);
+        return entityManager.createQuery(consulta).setMaxResults(tamanho).getResultList();
+    }
+
+}
@@ -0,0 +1,552 @@
+package tech.devinhouse.veiculos.repository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.exception.PlacaForaDoFormatoException;
+import tech.devinhouse.veiculos.model.Placa;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementação de {@link ArmazenamentoVeiculos} que dispensa o banco, ativada pelo perfil "memoria".
+ * <p>
+ * Os veículos ficam num {@link MapaPlacas} ordenado pela placa codificada, com valores compactos e
+ * textos de tipo e cor compartilhados. Leituras não travam. Placas fora de {@link Placa#FORMATO}
+ * não podem ser gravadas ({@link PlacaForaDoFormatoException}, respondida com 400) e, nas consultas, simplesmente não existem. Escritas passam por uma única trava, que grava
+ * a operação no {@link DiarioVeiculos} antes de aplicá-la ao mapa, de modo que a ordem do diário
+ * é a ordem das alterações. Dentro de uma transação, cada escrita deixa no {@link DesfazimentoMemoria}
+ * como voltar ao estado anterior, e o rollback grava esse estado de volta.
+ */
+@Slf4j
+@Repository
+@Profile("memoria")
+public class VeiculoRepositoryMemoria implements ArmazenamentoVeiculos {
+
+    private static final long QUALQUER_VERSAO = -1;
+
+    private final MapaPlacas<RegistroVeiculo> veiculos = new MapaPlacas<>();
+
+    private final Map<String, String> textos = new ConcurrentHashMap<>();
+
+    private final ReentrantLock escrita = new ReentrantLock();
+
+    private final ReentrantLock snapshot = new ReentrantLock();
+
+    private final DiarioVeiculos diario;
+
+    public VeiculoRepositoryMemoria(@Value("${veiculos.memoria.diretorio:dados}") Path diretorio,
+                                    @Value("${veiculos.memoria.sincronizar-escrita:false}") boolean sincronizarEscrita) throws IOException {
+        long inicio = System.nanoTime();
+        this.diario = new DiarioVeiculos(diretorio, sincronizarEscrita);
+        diario.recuperar(new DiarioVeiculos.Aplicador() {
+            @Override
+            public void gravar(long placa, RegistroVeiculo registro) {
+                aplicarGravacao(placa, registro);
+            }
+
+            @Override
+            public void remover(long placa) {
+                veiculos.remove(placa);
+            }
+        });
+        log.info("Armazenamento em memória recuperado de {}: {} veículo(s) em {} ms",
+                diretorio.toAbsolutePath(), veiculos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // ===== consultas =====
+
+    @Override
+    public boolean existsVeiculosByPlaca(String placa) {
+        long codigo = Placa.codificar(placa);
+        return codigo != Placa.INVALIDA && veiculos.containsKey(codigo);
+    }
+
+    @Override
+    public boolean aceitaPlaca(String placa) {
+        return Placa.codificavel(placa);
+    }
+
+    @Override
+    public Optional<Long> findVersaoByPlaca(String placa) {
+        long codigo = Placa.codificar(placa);
+        RegistroVeiculo registro = codigo == Placa.INVALIDA ? null : veiculos.get(codigo);
+        return registro == null ? Optional.empty() : Optional.of(registro.versao());
+    }
+
+    @Override
+    public Optional<Veiculo> findById(String placa) {
+        long codigo = Placa.codificar(placa);
+        RegistroVeiculo registro = codigo == Placa.INVALIDA ? null : veiculos.get(codigo);
+        return registro == null ? Optional.empty() : Optional.of(registro.paraVeiculo(placa));
+    }
+
+    // Sem transações isoladas: cada escrita já aparece para as leituras seguintes, então não há o que bloquear.
+    @Override
+    public Optional<Veiculo> findParaExclusao(String placa) {
+        return findById(placa);
+    }
+
+    @Override
+    public List<Veiculo> findAll() {
+        return streamTodosOrdenadosPorPlaca().toList();
+    }
+
+    @Override
+    public List<Veiculo> findAllById(Iterable<String> placas) {
+        List<Veiculo> encontrados = new ArrayList<>();
+        for (String placa : placas) {
+            findById(placa).ifPresent(encontrados::add);
+        }
+        return encontrados;
+    }
+
+    @Override
+    public List<String> findPlacasCadastradas(Collection<String> placas) {
+        return placas.stream().filter(this::existsVeiculosByPlaca).distinct().toList();
+    }
+
+    @Override
+    public List<Veiculo> findByPlacaGreaterThanOrderByPlacaAsc(String placa, Pageable pageable) {
+        return stream(apos(placa))
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .map(VeiculoRepositoryMemoria::paraVeiculo)
+                .toList();
+    }
+
+    @Override
+    public Stream<Veiculo> streamTodosOrdenadosPorPlaca() {
+        return stream(veiculos.iterator()).map(VeiculoRepositoryMemoria::paraVeiculo);
+    }
+
+    @Override
+    public Stream<String> streamPlacas() {
+        return stream(veiculos.iterator()).map(veiculo -> Placa.decodificar(veiculo.placa()));
+    }
+
+    @Override
+    public long count() {
+        return veiculos.size();
+    }
+
+    @Override
+    public long somarMultas() {
+        return stream(veiculos.iterator())
+                .mapToLong(veiculo -> veiculo.valor().multas() == RegistroVeiculo.NULO ? 0 : veiculo.valor().multas())
+                .sum();
+    }
+
+    @Override
+    public List<Object[]> contarPorTipo() {
+        return contarPor(RegistroVeiculo::tipo);
+    }
+
+    @Override
+    public List<Object[]> contarPorCor() {
+        return contarPor(RegistroVeiculo::cor);
+    }
+
+    @Override
+    public List<Object[]> contarPorAno() {
+        return contarPor(RegistroVeiculo::anoDeFabricacao);
+    }
+
+    @Override
+    public List<Veiculo> pesquisar(FiltroVeiculos filtro, int tamanho) {
+        Predicate<RegistroVeiculo> condicao = condicoes(filtro);
+        boolean crescente = filtro.getDirecao() == Sort.Direction.ASC;
+        if (filtro.getOrdenarPor() == FiltroVeiculos.Ordenacao.PLACA) {
+            // O mapa já está na ordem da placa: basta percorrê-lo a partir do cursor até completar a página.
+            Iterator<MapaPlacas.Entrada<RegistroVeiculo>> faixa = crescente ? apos(filtro.getCursor()) : antes(filtro.getCursor());
+            List<Veiculo> pagina = new ArrayList<>();
+            while (pagina.size() < tamanho && faixa.hasNext()) {
+                MapaPlacas.Entrada<RegistroVeiculo> veiculo = faixa.next();
+                if (condicao.test(veiculo.valor())) {
+                    pagina.add(paraVeiculo(veiculo));
+                }
+            }
+            return pagina;
+        }
+
+        // Ordenação por (campo, placa) com as mesmas regras da consulta JPA: veículos sem valor no
+        // campo ficam de fora. Só as melhores posições são mantidas, num heap do tamanho da página.
+        ToIntFunction<RegistroVeiculo> campo = filtro.getOrdenarPor() == FiltroVeiculos.Ordenacao.ANO_DE_FABRICACAO
+                ? RegistroVeiculo::ano
+                : RegistroVeiculo::multas;
+        Comparator<MapaPlacas.Entrada<RegistroVeiculo>> ordem = Comparator
+                .<MapaPlacas.Entrada<RegistroVeiculo>>comparingInt(veiculo -> campo.applyAsInt(veiculo.valor()))
+                .thenComparingLong(MapaPlacas.Entrada::placa);
+        Comparator<MapaPlacas.Entrada<RegistroVeiculo>> ordemPagina = crescente ? ordem : ordem.reversed();
+        Predicate<MapaPlacas.Entrada<RegistroVeiculo>> aceita = veiculo ->
+                campo.applyAsInt(veiculo.valor()) != RegistroVeiculo.NULO && condicao.test(veiculo.valor());
+        if (filtro.getCursor() != null) {
+            int valor = filtro.cursorValor();
+            String aposPlaca = filtro.cursorPlaca();
+            long codigoAposPlaca = Placa.codificar(aposPlaca);
+            aceita = aceita.and(veiculo -> {
+                int comparacao = Integer.compare(campo.applyAsInt(veiculo.valor()), valor);
+                if (comparacao == 0) {
+                    comparacao = compararPlaca(veiculo.placa(), aposPlaca, codigoAposPlaca);
+                }
+                return crescente ? comparacao > 0 : comparacao < 0;
+            });
+        }
+        PriorityQueue<MapaPlacas.Entrada<RegistroVeiculo>> melhores = new PriorityQueue<>(tamanho + 1, ordemPagina.reversed());
+        for (MapaPlacas.Entrada<RegistroVeiculo> veiculo : veiculos) {
+            if (!aceita.test(veiculo)) {
+                continue;
+            }
+            if (melhores.size() < tamanho) {
+                melhores.add(veiculo);
+            } else if (ordemPagina.compare(veiculo, melhores.peek()) < 0) {
+                melhores.poll();
+                melhores.add(veiculo);
+            }
+        }
+        return melhores.stream().sorted(ordemPagina).map(VeiculoRepositoryMemoria::paraVeiculo).toList();
+    }
+
+    // ===== escritas =====
+
+    @Override
+    public void inserir(Veiculo veiculo) {
+        long placa = codigoGravavel(veiculo.getPlaca());
+        escrever(() -> {
+            if (veiculos.containsKey(placa)) {
+                throw new DuplicateKeyException("A placa " + veiculo.getPlaca() + " já está cadastrada");
+            }
+            RegistroVeiculo registro = RegistroVeiculo.de(veiculo).naVersao(0);
+            diario.gravar(placa, registro);
+            diario.confirmar();
+            aplicarGravacao(placa, registro);
+            desfazerNoRollback(List.of(new Alteracao(placa, null, registro)));
+            veiculo.setVersao(0L);
+            return null;
+        });
+    }
+
+    @Override
+    public void inserirEmLote(List<Veiculo> lote) {
+        long[] placas = lote.stream().map(Veiculo::getPlaca).mapToLong(VeiculoRepositoryMemoria::codigoGravavel).toArray();
+        escrever(() -> {
+            for (int i = 0; i < placas.length; i++) {
+                if (veiculos.containsKey(placas[i])) {
+                    throw new DuplicateKeyException("A placa " + lote.get(i).getPlaca() + " já está cadastrada");
+                }
+            }
+            List<RegistroVeiculo> registros = new ArrayList<>(lote.size());
+            for (int i = 0; i < placas.length; i++) {
+                RegistroVeiculo registro = RegistroVeiculo.de(lote.get(i)).naVersao(0);
+                diario.gravar(placas[i], registro);
+                registros.add(registro);
+            }
+            diario.confirmar();
+            List<Alteracao> alteracoes = new ArrayList<>(placas.length);
+            for (int i = 0; i < placas.length; i++) {
+                aplicarGravacao(placas[i], registros.get(i));
+                alteracoes.add(new Alteracao(placas[i], null, registros.get(i)));
+                lote.get(i).setVersao(0L);
+            }
+            desfazerNoRollback(alteracoes);
+            return null;
+        });
+    }
+
+    @Override
+    public int incrementarMultas(String placa, int quantidade) {
+        return incrementar(placa, quantidade, QUALQUER_VERSAO);
+    }
+
+    @Override
+    public int incrementarMultasNaVersao(String placa, int quantidade, long versao) {
+        return incrementar(placa, quantidade, versao);
+    }
+
+    private int incrementar(String placaTexto, int quantidade, long versao) {
+        long placa = Placa.codificar(placaTexto);
+        if (placa == Placa.INVALIDA) {
+            return 0;
+        }
+        return escrever(() -> {
+            RegistroVeiculo registro = veiculos.get(placa);
+            if (registro == null || (versao != QUALQUER_VERSAO && registro.versao() != versao)) {
+                return 0;
+            }
+            RegistroVeiculo atualizado = somarMultas(registro, quantidade);
+            diario.gravar(placa, atualizado);
+            diario.confirmar();
+            aplicarGravacao(placa, atualizado);
+            desfazerNoRollback(List.of(new Alteracao(placa, registro, atualizado)));
+            return 1;
+        });
+    }
+
+    @Override
+    public List<String> incrementarMultasEmLote(Map<String, Integer> multas) {
+        return escrever(() -> {
+            List<String> inexistentes = new ArrayList<>();
+            List<Alteracao> alteracoes = new ArrayList<>(multas.size());
+            multas.forEach((placaTexto, quantidade) -> {
+                long placa = Placa.codificar(placaTexto);
+                RegistroVeiculo registro = placa == Placa.INVALIDA ? null : veiculos.get(placa);
+                if (registro == null) {
+                    inexistentes.add(placaTexto);
+                } else {
+                    alteracoes.add(new Alteracao(placa, registro, somarMultas(registro, quantidade)));
+                }
+            });
+            for (Alteracao alteracao : alteracoes) {
+                diario.gravar(alteracao.placa(), alteracao.gravado());
+            }
+            diario.confirmar();
+            alteracoes.forEach(alteracao -> aplicarGravacao(alteracao.placa(), alteracao.gravado()));
+            desfazerNoRollback(alteracoes);
+            return inexistentes;
+        });
+    }
+
+    @Override
+    public void deleteById(String placaTexto) {
+        long placa = Placa.codificar(placaTexto);
+        escrever(() -> {
+            if (placa == Placa.INVALIDA || !veiculos.containsKey(placa)) {
+                throw new EmptyResultDataAccessException("Nenhum veículo com a placa " + placaTexto, 1);
+            }
+            diario.remover(placa);
+            diario.confirmar();
+            desfazerNoRollback(List.of(new Alteracao(placa, veiculos.remove(placa), null)));
+            return null;
+        });
+    }
+
+    // ===== snapshot e durabilidade =====
+
+    /**
+     * Grava um snapshot do mapa e descarta os segmentos do diário que ele substitui. As escritas
+     * só ficam paradas durante a troca de segmento; o mapa é percorrido com elas em andamento.
+     */
+    @Scheduled(fixedDelayString = "${veiculos.memoria.intervalo-snapshot-ms:300000}",
+               initialDelayString = "${veiculos.memoria.intervalo-snapshot-ms:300000}")
+    public void gravarSnapshot() {
+        snapshot.lock();
+        try {
+            long ateSegmento = escrever(diario::rotacionar);
+            diario.escreverSnapshot(ateSegmento, veiculos.iterator());
+        } catch (IOException | DataAccessResourceFailureException e) {
+            log.error("Falha ao gravar o snapshot do armazenamento em memória; o diário continua sendo usado", e);
+        } finally {
+            snapshot.unlock();
+        }
+    }
+
+    /**
+     * Sem {@code veiculos.memoria.sincronizar-escrita}, o diário só chega ao disco a cada intervalo:
+     * uma queda do sistema operacional perde no máximo esse intervalo de escritas.
+     */
+    @Scheduled(fixedDelayString = "${veiculos.memoria.intervalo-sincronizacao-ms:1000}")
+    public void sincronizar() {
+        try {
+            diario.sincronizar();
+        } catch (IOException e) {
+            log.error("Falha ao sincronizar o diário do armazenamento em memória", e);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        gravarSnapshot();
+        escrever(() -> {
+            diario.close();
+            return null;
+        });
+    }
+
+    // ===== auxiliares =====
+
+    private <T> T escrever(OperacaoDiario<T> operacao) {
+        escrita.lock();
+        try {
+            return operacao.executar();
+        } catch (IOException e) {
+            diario.descartar();
+            throw new DataAccessResourceFailureException("Falha ao gravar o diário do armazenamento em memória", e);
+        } catch (RuntimeException e) {
+            diario.descartar();
+            throw e;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private void desfazerNoRollback(List<Alteracao> alteracoes) {
+        if (!alteracoes.isEmpty()) {
+            DesfazimentoMemoria.registrar(() -> desfazer(alteracoes));
+        }
+    }
+
+    // Cada placa volta ao estado anterior, também pelo diário, para que a recuperação chegue ao mesmo
+    // resultado. Uma placa que outra transação alterou depois desta fica como está: restaurá-la apagaria
+    // a escrita da outra.
+    private void desfazer(List<Alteracao> alteracoes) {
+        escrever(() -> {
+            List<Alteracao> restauradas = new ArrayList<>(alteracoes.size());
+            for (int i = alteracoes.size() - 1; i >= 0; i--) {
+                Alteracao alteracao = alteracoes.get(i);
+                if (!Objects.equals(veiculos.get(alteracao.placa()), alteracao.gravado())) {
+                    log.warn("A placa {} foi alterada por outra transação e não foi restaurada no rollback",
+                            Placa.decodificar(alteracao.placa()));
+                    continue;
+                }
+                if (alteracao.anterior() == null) {
+                    diario.remover(alteracao.placa());
+                } else {
+                    diario.gravar(alteracao.placa(), alteracao.anterior());
+                }
+                restauradas.add(alteracao);
+            }
+            diario.confirmar();
+            for (Alteracao alteracao : restauradas) {
+                if (alteracao.anterior() == null) {
+                    veiculos.remove(alteracao.placa());
+                } else {
+                    aplicarGravacao(alteracao.placa(), alteracao.anterior());
+                }
+            }
+            return null;
+        });
+    }
+
+    private void aplicarGravacao(long placa, RegistroVeiculo registro) {
+        veiculos.put(placa, new RegistroVeiculo(texto(registro.tipo()), texto(registro.cor()), registro.ano(), registro.multas(), registro.versao()));
+    }
+
+    // Como no UPDATE do banco, uma contagem nula continua nula, mas a versão muda do mesmo jeito.
+    private static RegistroVeiculo somarMultas(RegistroVeiculo registro, int quantidade) {
+        return registro.multas() == RegistroVeiculo.NULO
+                ? registro.naVersao(registro.versao() + 1)
+                : registro.comMultas(registro.multas() + quantidade);
+    }
+
+    private static long codigoGravavel(String placa) {
+        long codigo = Placa.codificar(placa);
+        if (codigo == Placa.INVALIDA) {
+            throw new PlacaForaDoFormatoException(placa);
+        }
+        return codigo;
+    }
+
+    // Placas depois do cursor, em ordem crescente. Um cursor fora do formato não corresponde a nenhuma
+    // placa gravada, mas ainda tem uma posição na ordem alfabética: nesse caso o texto é comparado.
+    private Iterator<MapaPlacas.Entrada<RegistroVeiculo>> apos(String cursor) {
+        long codigo = cursor == null || cursor.isEmpty() ? Placa.INVALIDA : Placa.codificar(cursor);
+        if (codigo != Placa.INVALIDA || cursor == null || cursor.isEmpty()) {
+            return veiculos.crescente(codigo);
+        }
+        return stream(veiculos.iterator()).filter(veiculo -> compararPlaca(veiculo.placa(), cursor, codigo) > 0).iterator();
+    }
+
+    // Placas antes do cursor, em ordem decrescente.
+    private Iterator<MapaPlacas.Entrada<RegistroVeiculo>> antes(String cursor) {
+        if (cursor == null) {
+            return veiculos.decrescente(Long.MAX_VALUE);
+        }
+        long codigo = Placa.codificar(cursor);
+        if (codigo != Placa.INVALIDA) {
+            return veiculos.decrescente(codigo);
+        }
+        return stream(veiculos.decrescente(Long.MAX_VALUE)).filter(veiculo -> compararPlaca(veiculo.placa(), cursor, codigo) < 0).iterator();
+    }
+
+    private static int compararPlaca(long placa, String outra, long codigoOutra) {
+        return codigoOutra != Placa.INVALIDA ? Long.compare(placa, codigoOutra) : Placa.decodificar(placa).compareTo(outra);
+    }
+
+    private static <T> Stream<T> stream(Iterator<T> itens) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(itens, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Tipo e cor têm poucos valores distintos: cada um é guardado uma só vez.
+    private String texto(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String existente = textos.putIfAbsent(valor, valor);
+        return existente == null ? valor : existente;
+    }
+
+    private List<Object[]> contarPor(Function<RegistroVeiculo, Object> chave) {
+        Map<Object, Long> contagem = new HashMap<>();
+        veiculos.forEach(veiculo -> contagem.merge(chave.apply(veiculo.valor()), 1L, Long::sum));
+        List<Object[]> linhas = new ArrayList<>(contagem.size());
+        contagem.forEach((valor, total) -> linhas.add(new Object[]{valor, total}));
+        return linhas;
+    }
+
+    private static Predicate<RegistroVeiculo> condicoes(FiltroVeiculos filtro) {
+        Predicate<RegistroVeiculo> condicao = registro -> true;
+        if (filtro.getTipo() != null) {
+            condicao = condicao.and(registro -> filtro.getTipo().equals(registro.tipo()));
+        }
+        if (filtro.getCor() != null) {
+            condicao = condicao.and(registro -> filtro.getCor().equals(registro.cor()));
+        }
+        if (filtro.getAnoMinimo() != null) {
+            condicao = condicao.and(registro -> registro.ano() != RegistroVeiculo.NULO && registro.ano() >= filtro.getAnoMinimo());
+        }
+        if (filtro.getAnoMaximo() != null) {
+            condicao = condicao.and(registro -> registro.ano() != RegistroVeiculo.NULO && registro.ano() <= filtro.getAnoMaximo());
+        }
+        if (filtro.getMultasMinimo() != null) {
+            condicao = condicao.and(registro -> registro.multas() != RegistroVeiculo.NULO && registro.multas() >= filtro.getMultasMinimo());
+        }
+        if (filtro.getMultasMaximo() != null) {
+            condicao = condicao.and(registro -> registro.multas() != RegistroVeiculo.NULO && registro.multas() <= filtro.getMultasMaximo());
+        }
+        return condicao;
+    }
+
+    private static Veiculo paraVeiculo(MapaPlacas.Entrada<RegistroVeiculo> veiculo) {
+        return veiculo.valor().paraVeiculo(Placa.decodificar(veiculo.placa()));
+    }
+
+    // Estado de uma placa antes e depois de uma escrita: sem anterior é um cadastro, sem gravado uma exclusão.
+    private record Alteracao(long placa, RegistroVeiculo anterior, RegistroVeiculo gravado) {
+    }
+
+    @FunctionalInterface
+    private interface OperacaoDiario<T> {
+
+        T executar() throws IOException;
+    }
+}
@@ -0,0 +1,166 @@
+package tech.devinhouse.veiculos.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.devinhouse.veiculos.model.Placa;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Acumula multas de placas muito requisitadas em memória e as aplica no banco em lotes,
+ * com um único UPDATE por placa a cada descarga, independente de quantas multas chegaram.
+ * As placas são guardadas pelo código de {@link Placa#codificar}; só placas codificáveis são acumuladas.
+ * <p>
+ * A descarga retira cada placa do mapa de pendentes e a mantém em {@code emGravacao} até o commit, de
+ * modo que {@link #pendentes(String)} nunca deixa de contar uma multa aceita e ainda não gravada; com a
+ * leitura bloqueante de {@code VeiculoService.excluir}, isso impede excluir um veículo com multas a caminho.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AcumuladorMultas {
+
+    static final int TAMANHO_LOTE = 500;
+
+    private final ArmazenamentoVeiculos veiculoRepository;
+
+    private final TransactionOperations transacao;
+
+    private final VeiculoCache veiculoCache;
+
+    private final VersaoFrota versaoFrota;
+
+    private final SaidaEventos saidaEventos;
+
+    private final HistoricoMultas historicoMultas;
+
+    private final AgregadorFrota agregadorFrota;
+
+    private final Map<Long, Long> pendentes = new ConcurrentHashMap<>();
+
+    // Quantidades já retiradas de pendentes cuja transação ainda não terminou.
+    private final Map<Long, Long> emGravacao = new ConcurrentHashMap<>();
+
+    // ReentrantLock em vez de synchronized: a descarga faz I/O no banco e, com threads
+    // virtuais, um bloco synchronized prenderia a thread portadora durante a espera.
+    private final ReentrantLock trava = new ReentrantLock();
+
+    /**
+     * Registra uma multa para a placa e devolve quantas multas dela ainda aguardam descarga.
+     */
+    public long registrar(String placa) {
+        long codigo = Placa.codificar(placa);
+        if (codigo == Placa.INVALIDA) {
+            throw new IllegalArgumentException("Placa fora do formato não pode ser acumulada: " + placa);
+        }
+        // O merge soma sob a trava da entrada no mapa, a mesma que a descarga usa para retirá-la:
+        // nenhum incremento cai num contador que a descarga já levou.
+        return pendentes.merge(codigo, 1L, Long::sum);
+    }
+
+    /**
+     * Multas da placa aceitas e ainda não gravadas, inclusive as de uma descarga em andamento.
+     */
+    public long pendentes(String placa) {
+        long codigo = Placa.codificar(placa);
+        return pendentes.getOrDefault(codigo, 0L) + emGravacao.getOrDefault(codigo, 0L);
+    }
+
+    /**
+     * Aplica as multas acumuladas em lotes transacionais e devolve quantas foram gravadas.
+     * Se um lote falhar, as quantidades voltam para o acumulador e são reaplicadas na próxima descarga.
+     */
+    @Scheduled(fixedDelayString = "${veiculos.multas.intervalo-descarga-ms:200}")
+    public long descarregar() {
+        trava.lock();
+        try {
+            return descarregarComTrava();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private long descarregarComTrava() {
+        long gravadas = 0;
+        List<Map.Entry<Long, Long>> lote = new ArrayList<>(TAMANHO_LOTE);
+        for (Long codigo : pendentes.keySet()) {
+            // A quantidade entra em emGravacao antes de sair de pendentes, então quem consulta as
+            // pendentes no meio do caminho conta a multa em dobro, nunca deixa de contá-la. Registros
+            // concorrentes criam uma nova entrada, que fica para a próxima descarga.
+            pendentes.computeIfPresent(codigo, (c, quantidade) -> {
+                emGravacao.merge(c, quantidade, Long::sum);
+                lote.add(Map.entry(c, quantidade));
+                return null;
+            });
+            if (lote.size() == TAMANHO_LOTE) {
+                gravadas += aplicar(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravadas += aplicar(lote);
+        }
+        return gravadas;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        descarregar();
+    }
+
+    private long aplicar(List<Map.Entry<Long, Long>> lote) {
+        List<String> placas = lote.stream().map(multa -> Placa.decodificar(multa.getKey())).toList();
+        try {
+            Long gravadas = transacao.execute(status -> {
+                long total = 0;
+                long descartadas = 0;
+                Map<String, Integer> aplicadas = new LinkedHashMap<>();
+                for (int i = 0; i < lote.size(); i++) {
+                    String placa = placas.get(i);
+                    int quantidade = Math.toIntExact(lote.get(i).getValue());
+                    if (veiculoRepository.incrementarMultas(placa, quantidade) == 0) {
+                        log.warn("{} multa(s) descartada(s): o veículo de placa {} não está mais cadastrado", quantidade, placa);
+                        descartadas += quantidade;
+                    } else {
+                        saidaEventos.registrarMultas(placa, quantidade);
+                        aplicadas.put(placa, quantidade);
+                        total += quantidade;
+                    }
+                }
+                // No histórico, as multas acumuladas ficam com o momento da descarga.
+                historicoMultas.registrar(aplicadas);
+                // Dentro da transação, a versão da frota sobe junto com as multas e a invalidação do cache
+                // espera o commit: antes dele, um leitor recolocaria no cache a linha ainda sem as multas.
+                if (!aplicadas.isEmpty()) {
+                    veiculoCache.invalidar(aplicadas.keySet());
+                    versaoFrota.registrarAlteracao();
+                }
+                // O agregador contou as multas ao aceitá-las; as descartadas saem dele só se o descarte valer.
+                if (descartadas > 0) {
+                    long corrigir = descartadas;
+                    Transacoes.aposCommit(() -> agregadorFrota.registrarMultas(-corrigir));
+                }
+                return total;
+            });
+            return gravadas == null ? 0 : gravadas;
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar lote de {} placa(s) com multas acumuladas; será reaplicado na próxima descarga", lote.size(), e);
+            lote.forEach(multa -> pendentes.merge(multa.getKey(), multa.getValue(), Long::sum));
+            return 0;
+        } finally {
+            lote.forEach(multa -> emGravacao.computeIfPresent(multa.getKey(),
+                    (c, quantidade) -> quantidade.equals(multa.getValue()) ? null : quantidade - multa.getValue()));
+        }
+    }
+
+}
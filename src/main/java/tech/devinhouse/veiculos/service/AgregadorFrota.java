@@ -0,0 +1,151 @@
+package tech.devinhouse.veiculos.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.dto.EstatisticasFrota;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém as contagens da frota por tipo, cor e ano de fabricação e o total de multas,
+ * atualizadas a cada escrita confirmada desta instância. As escritas das outras instâncias aparecem em
+ * {@link VersaoFrota#alteracoesExternas()}: a verificação periódica recalcula tudo no banco quando ele
+ * muda, então as estatísticas ficam no máximo um intervalo de verificação atrás das outras instâncias.
+ * A reconciliação periódica corrige o que nenhuma das duas vê, como escritas feitas direto no banco.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgregadorFrota {
+
+    static final String SEM_VALOR = "(sem valor)";
+
+    private final ArmazenamentoVeiculos veiculoRepository;
+
+    private final VersaoFrota versaoFrota;
+
+    private final ReentrantLock trava = new ReentrantLock();
+
+    private volatile Agregados agregados = new Agregados();
+
+    private volatile long externasReconciliadas = -1;
+
+    public void registrarCriacao(Veiculo veiculo) {
+        Transacoes.aposCommit(() -> agregados.somar(veiculo, 1));
+    }
+
+    public void registrarExclusao(Veiculo veiculo) {
+        Transacoes.aposCommit(() -> agregados.somar(veiculo, -1));
+    }
+
+    public void registrarMultas(long quantidade) {
+        Transacoes.aposCommit(() -> agregados.totalMultas.add(quantidade));
+    }
+
+    public EstatisticasFrota consultar() {
+        Agregados atual = agregados;
+        long total = atual.total.sum();
+        long totalMultas = atual.totalMultas.sum();
+        return new EstatisticasFrota(total, totalMultas, total == 0 ? 0 : (double) totalMultas / total,
+                copiar(atual.porTipo), copiar(atual.porCor), copiar(atual.porAno));
+    }
+
+    // Transação de escrita de propósito: com réplica configurada, as contagens precisam vir do primário,
+    // senão o atraso da réplica viraria desvio nas estatísticas.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${veiculos.estatisticas.intervalo-reconciliacao-ms:600000}",
+               fixedDelayString = "${veiculos.estatisticas.intervalo-reconciliacao-ms:600000}")
+    @Transactional
+    public void reconciliar() {
+        trava.lock();
+        try {
+            reconciliarComTrava();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${veiculos.estatisticas.intervalo-verificacao-ms:5000}",
+               fixedDelayString = "${veiculos.estatisticas.intervalo-verificacao-ms:5000}")
+    @Transactional
+    public void acompanharOutrasInstancias() {
+        if (versaoFrota.alteracoesExternas() != externasReconciliadas) {
+            reconciliar();
+        }
+    }
+
+    private void reconciliarComTrava() {
+        long inicio = System.nanoTime();
+        // Lido antes das contagens: uma escrita externa durante a reconciliação dispara a próxima.
+        externasReconciliadas = versaoFrota.alteracoesExternas();
+        Agregados novos = new Agregados();
+        novos.total.add(veiculoRepository.count());
+        novos.totalMultas.add(veiculoRepository.somarMultas());
+        carregar(novos.porTipo, veiculoRepository.contarPorTipo());
+        carregar(novos.porCor, veiculoRepository.contarPorCor());
+        carregar(novos.porAno, veiculoRepository.contarPorAno());
+        Agregados anteriores = agregados;
+        agregados = novos;
+        long desvio = novos.total.sum() - anteriores.total.sum();
+        log.info("Estatísticas da frota reconciliadas em {} ms ({} veículo(s), desvio de {})",
+                (System.nanoTime() - inicio) / 1_000_000, novos.total.sum(), desvio);
+    }
+
+    private static void carregar(Map<String, LongAdder> destino, List<Object[]> contagens) {
+        for (Object[] contagem : contagens) {
+            destino.computeIfAbsent(chave(contagem[0]), c -> new LongAdder()).add(((Number) contagem[1]).longValue());
+        }
+    }
+
+    private static Map<String, Long> copiar(Map<String, LongAdder> origem) {
+        Map<String, Long> copia = new TreeMap<>();
+        origem.forEach((chave, contador) -> {
+            long quantidade = contador.sum();
+            if (quantidade != 0) {
+                copia.put(chave, quantidade);
+            }
+        });
+        return copia;
+    }
+
+    private static String chave(Object valor) {
+        return valor == null ? SEM_VALOR : valor.toString();
+    }
+
+    private static final class Agregados {
+
+        private final LongAdder total = new LongAdder();
+
+        private final LongAdder totalMultas = new LongAdder();
+
+        private final Map<String, LongAdder> porTipo = new ConcurrentHashMap<>();
+
+        private final Map<String, LongAdder> porCor = new ConcurrentHashMap<>();
+
+        private final Map<String, LongAdder> porAno = new ConcurrentHashMap<>();
+
+        private void somar(Veiculo veiculo, int sinal) {
+            total.add(sinal);
+            if (veiculo.getQtdMultas() != null) {
+                totalMultas.add((long) sinal * veiculo.getQtdMultas());
+            }
+            porTipo.computeIfAbsent(chave(veiculo.getTipo()), c -> new LongAdder()).add(sinal);
+            porCor.computeIfAbsent(chave(veiculo.getCor()), c -> new LongAdder()).add(sinal);
+            porAno.computeIfAbsent(chave(veiculo.getAnoDeFabricacao()), c -> new LongAdder()).add(sinal);
+        }
+
+    }
+
+}
@@ -0,0 +1,299 @@
+package tech.devinhouse.veiculos.service;
+
+import tech.devinhouse.veiculos.exception.SnapshotInvalidoException;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato dos snapshots da frota: um cabeçalho {@code [mágico][versão][veículos][blocos]} seguido de
+ * blocos de até {@value #VEICULOS_POR_BLOCO} veículos, cada um {@code [tamanho][crc32c][conteúdo]}. O
+ * conteúdo traz um dicionário com os textos de tipo e cor do bloco, que se repetem muito na frota, e
+ * os registros guardam só o índice deles.
+ * <p>
+ * O cabeçalho é escrito por último, e o arquivo só recebe o nome definitivo depois de sincronizado em
+ * disco: uma exportação interrompida não deixa um snapshot que pareça completo. A leitura mapeia o
+ * arquivo em janelas e confere o CRC de cada bloco antes de decodificá-lo.
+ */
+final class ArquivoSnapshot {
+
+    static final int VEICULOS_POR_BLOCO = 4096;
+
+    private static final int MAGICO = 0x56534E50;
+
+    private static final int VERSAO = 1;
+
+    private static final int CABECALHO = 24;
+
+    private static final int CABECALHO_BLOCO = 8;
+
+    // Quantidade de veículos e de textos do dicionário, no início do conteúdo do bloco
+    private static final int INICIO_BLOCO = 8;
+
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    private static final int TAMANHO_MAXIMO_BLOCO = INICIO_BLOCO + 2 * TAMANHO_BUFFER;
+
+    private static final long JANELA_MAPEAMENTO = 256L << 20;
+
+    private static final int NULO = 0xFFFF;
+
+    private static final int INTEIRO_NULO = Integer.MIN_VALUE;
+
+    record Cabecalho(long veiculos, long blocos) {
+    }
+
+    interface Consumidor {
+
+        void bloco(List<Veiculo> veiculos) throws InterruptedException;
+    }
+
+    private ArquivoSnapshot() {
+    }
+
+    /**
+     * Escreve os veículos num arquivo temporário ao lado do destino; {@link #concluir()} o move para o
+     * destino e {@link #close()} sem conclusão o descarta.
+     */
+    static final class Escritor implements Closeable {
+
+        private final Path destino;
+
+        private final Path temporario;
+
+        private final FileChannel canal;
+
+        private final ByteBuffer inicio = ByteBuffer.allocate(CABECALHO_BLOCO + INICIO_BLOCO);
+
+        private final ByteBuffer dicionario = ByteBuffer.allocate(TAMANHO_BUFFER);
+
+        private final ByteBuffer registros = ByteBuffer.allocate(TAMANHO_BUFFER);
+
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        private final CRC32C crc = new CRC32C();
+
+        private int noBloco;
+
+        private long veiculos;
+
+        private long blocos;
+
+        private boolean concluido;
+
+        Escritor(Path destino) throws IOException {
+            this.destino = destino;
+            this.temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+            this.canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            canal.position(CABECALHO);
+        }
+
+        void escrever(Veiculo veiculo) throws IOException {
+            byte[] placa = bytes(veiculo.getPlaca());
+            if (noBloco == VEICULOS_POR_BLOCO || registros.remaining() < 2 + placa.length + 12
+                    || dicionario.remaining() < tamanhoMaximo(veiculo.getTipo()) + tamanhoMaximo(veiculo.getCor())) {
+                escreverBloco();
+            }
+            registros.putShort((short) placa.length).put(placa)
+                    .putShort(indice(veiculo.getTipo()))
+                    .putShort(indice(veiculo.getCor()))
+                    .putInt(inteiro(veiculo.getAnoDeFabricacao()))
+                    .putInt(inteiro(veiculo.getQtdMultas()));
+            noBloco++;
+            veiculos++;
+        }
+
+        Cabecalho concluir() throws IOException {
+            escreverBloco();
+            ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO).putInt(MAGICO).putInt(VERSAO).putLong(veiculos).putLong(blocos).flip();
+            canal.write(cabecalho, 0);
+            canal.force(true);
+            canal.close();
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            concluido = true;
+            return new Cabecalho(veiculos, blocos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!concluido) {
+                canal.close();
+                Files.deleteIfExists(temporario);
+            }
+        }
+
+        private short indice(String texto) {
+            if (texto == null) {
+                return (short) NULO;
+            }
+            Integer indice = indices.get(texto);
+            if (indice == null) {
+                byte[] conteudo = bytes(texto);
+                dicionario.putShort((short) conteudo.length).put(conteudo);
+                indice = indices.size();
+                indices.put(texto, indice);
+            }
+            return (short) indice.intValue();
+        }
+
+        private void escreverBloco() throws IOException {
+            if (noBloco == 0) {
+                return;
+            }
+            dicionario.flip();
+            registros.flip();
+            inicio.clear().position(CABECALHO_BLOCO);
+            inicio.putInt(noBloco).putInt(indices.size());
+            crc.reset();
+            crc.update(inicio.slice(CABECALHO_BLOCO, INICIO_BLOCO));
+            crc.update(dicionario.duplicate());
+            crc.update(registros.duplicate());
+            inicio.putInt(0, INICIO_BLOCO + dicionario.remaining() + registros.remaining());
+            inicio.putInt(4, (int) crc.getValue());
+            inicio.flip();
+            ByteBuffer[] partes = {inicio, dicionario, registros};
+            while (registros.hasRemaining()) {
+                canal.write(partes);
+            }
+            dicionario.clear();
+            registros.clear();
+            indices.clear();
+            noBloco = 0;
+            blocos++;
+        }
+    }
+
+    /**
+     * Confere o cabeçalho e o CRC de todos os blocos sem decodificar os veículos.
+     */
+    static Cabecalho verificar(Path origem) throws IOException {
+        try {
+            return percorrer(origem, null);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Entrega os veículos de cada bloco, na ordem do arquivo, depois de conferir o CRC do bloco.
+     */
+    static Cabecalho ler(Path origem, Consumidor consumidor) throws IOException, InterruptedException {
+        return percorrer(origem, consumidor);
+    }
+
+    private static Cabecalho percorrer(Path origem, Consumidor consumidor) throws IOException, InterruptedException {
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < CABECALHO) {
+                throw new SnapshotInvalidoException(origem, "arquivo menor que o cabeçalho");
+            }
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO);
+            int magico = cabecalho.getInt();
+            int versao = cabecalho.getInt();
+            if (magico != MAGICO || versao != VERSAO) {
+                throw new SnapshotInvalidoException(origem, "não é um snapshot da frota na versão " + VERSAO);
+            }
+            long veiculos = cabecalho.getLong();
+            long blocos = cabecalho.getLong();
+            long veiculosLidos = 0;
+            long blocosLidos = 0;
+            CRC32C verificador = new CRC32C();
+            long posicao = CABECALHO;
+            while (posicao < tamanho) {
+                MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(JANELA_MAPEAMENTO, tamanho - posicao));
+                while (janela.remaining() >= CABECALHO_BLOCO) {
+                    int inicio = janela.position();
+                    int tamanhoBloco = janela.getInt(inicio);
+                    if (tamanhoBloco < INICIO_BLOCO || tamanhoBloco > TAMANHO_MAXIMO_BLOCO) {
+                        throw new SnapshotInvalidoException(origem, "bloco corrompido na posição " + (posicao + inicio));
+                    }
+                    if (CABECALHO_BLOCO + tamanhoBloco > janela.remaining()) {
+                        // o bloco continua depois do fim da janela: é relido no início da próxima
+                        break;
+                    }
+                    ByteBuffer conteudo = janela.slice(inicio + CABECALHO_BLOCO, tamanhoBloco);
+                    verificador.reset();
+                    verificador.update(conteudo.duplicate());
+                    if ((int) verificador.getValue() != janela.getInt(inicio + 4)) {
+                        throw new SnapshotInvalidoException(origem, "CRC inválido no bloco da posição " + (posicao + inicio));
+                    }
+                    veiculosLidos += conteudo.getInt(0);
+                    blocosLidos++;
+                    if (consumidor != null) {
+                        consumidor.bloco(decodificar(conteudo));
+                    }
+                    janela.position(inicio + CABECALHO_BLOCO + tamanhoBloco);
+                }
+                if (janela.position() == 0) {
+                    throw new SnapshotInvalidoException(origem, "bloco incompleto na posição " + posicao);
+                }
+                posicao += janela.position();
+            }
+            if (veiculosLidos != veiculos || blocosLidos != blocos) {
+                throw new SnapshotInvalidoException(origem, veiculosLidos + " de " + veiculos + " veículo(s) e "
+                        + blocosLidos + " de " + blocos + " bloco(s) encontrados");
+            }
+            return new Cabecalho(veiculos, blocos);
+        }
+    }
+
+    private static List<Veiculo> decodificar(ByteBuffer conteudo) {
+        int quantidade = conteudo.getInt();
+        String[] dicionario = new String[conteudo.getInt()];
+        for (int i = 0; i < dicionario.length; i++) {
+            dicionario[i] = lerTexto(conteudo);
+        }
+        List<Veiculo> veiculos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            String placa = lerTexto(conteudo);
+            int tipo = Short.toUnsignedInt(conteudo.getShort());
+            int cor = Short.toUnsignedInt(conteudo.getShort());
+            veiculos.add(new Veiculo(placa, tipo == NULO ? null : dicionario[tipo], cor == NULO ? null : dicionario[cor],
+                    inteiro(conteudo.getInt()), inteiro(conteudo.getInt())));
+        }
+        return veiculos;
+    }
+
+    private static byte[] bytes(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULO) {
+            throw new IllegalArgumentException("Texto com " + bytes.length + " bytes excede o limite do snapshot");
+        }
+        return bytes;
+    }
+
+    // Limite superior de uma entrada nova no dicionário: até 3 bytes UTF-8 por char.
+    private static int tamanhoMaximo(String texto) {
+        return texto == null ? 0 : 2 + texto.length() * 3;
+    }
+
+    private static String lerTexto(ByteBuffer origem) {
+        byte[] bytes = new byte[Short.toUnsignedInt(origem.getShort())];
+        origem.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int inteiro(Integer valor) {
+        return valor == null ? INTEIRO_NULO : valor;
+    }
+
+    private static Integer inteiro(int valor) {
+        return valor == INTEIRO_NULO ? null : valor;
+    }
+
+}
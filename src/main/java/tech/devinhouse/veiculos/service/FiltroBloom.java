@@ -0,0 +1,98 @@
+package tech.devinhouse.veiculos.service;
+
+import tech.devinhouse.veiculos.model.Placa;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+
+    private final long quantidadeBits;
+
+    private final int funcoesHash;
+
+    private final long capacidade;
+
+    private final AtomicLong insercoes = new AtomicLong();
+
+    FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        long n = Math.max(1, capacidade);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2))));
+        this.bits = new AtomicLongArray(Math.toIntExact((m + 63) / 64));
+        this.quantidadeBits = bits.length() * 64L;
+        this.funcoesHash = Math.max(1, (int) Math.round((double) quantidadeBits / n * Math.log(2)));
+        this.capacidade = n;
+    }
+
+    void adicionar(String placa) {
+        long hash = hash(placa);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funcoesHash; i++) {
+            long indice = Math.floorMod(h1 + (long) i * h2, quantidadeBits);
+            int palavra = (int) (indice >>> 6);
+            long mascara = 1L << indice;
+            long atual = bits.get(palavra);
+            while ((atual & mascara) == 0 && !bits.weakCompareAndSetVolatile(palavra, atual, atual | mascara)) {
+                atual = bits.get(palavra);
+            }
+        }
+        insercoes.incrementAndGet();
+    }
+
+    boolean podeConter(String placa) {
+        long hash = hash(placa);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funcoesHash; i++) {
+            long indice = Math.floorMod(h1 + (long) i * h2, quantidadeBits);
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getQuantidadeBits() {
+        return quantidadeBits;
+    }
+
+    int getFuncoesHash() {
+        return funcoesHash;
+    }
+
+    long getCapacidade() {
+        return capacidade;
+    }
+
+    long getInsercoes() {
+        return insercoes.get();
+    }
+
+    long getBytes() {
+        return bits.length() * 8L;
+    }
+
+    double taxaFalsoPositivoEstimada() {
+        return Math.pow(1 - Math.exp(-(double) funcoesHash * insercoes.get() / quantidadeBits), funcoesHash);
+    }
+
+    // Placas no formato usual já cabem num long (ver Placa.codificar) e só passam pela finalização do
+    // SplitMix64; as demais usam FNV-1a de 64 bits antes dela, para espalhar bem placas quase iguais.
+    private static long hash(String placa) {
+        long hash = Placa.codificar(placa);
+        if (hash == Placa.INVALIDA) {
+            hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < placa.length(); i++) {
+                hash ^= placa.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+}
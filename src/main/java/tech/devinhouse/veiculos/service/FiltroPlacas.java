@@ -0,0 +1,135 @@
+package tech.devinhouse.veiculos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.devinhouse.veiculos.dto.EstatisticasFiltro;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom sobre as placas cadastradas, desligado por padrão. Habilitado, uma resposta negativa é
+ * tratada como definitiva: consultas, versões e exclusões dessas placas respondem 404 sem ir ao banco.
+ * <p>
+ * O filtro é de cada instância e só recebe as placas cadastradas por ela depois da construção, então só
+ * deve ser habilitado quando ela é a única que escreve na tabela (sem outras instâncias, módulo reativo
+ * ou cargas diretas no banco). Placas excluídas continuam no filtro, como falsos positivos, até a próxima
+ * reconstrução.
+ */
+@Slf4j
+@Component
+public class FiltroPlacas {
+
+    private final ArmazenamentoVeiculos veiculoRepository;
+
+    private final TransactionOperations transacao;
+
+    private final boolean habilitado;
+
+    private final double taxaFalsoPositivo;
+
+    private final long capacidadeMinima;
+
+    private final ReentrantLock trava = new ReentrantLock();
+
+    private volatile FiltroBloom atual;
+
+    private volatile FiltroBloom emConstrucao;
+
+    public FiltroPlacas(ArmazenamentoVeiculos veiculoRepository,
+                        TransactionOperations transacao,
+                        @Value("${veiculos.filtro.habilitado:false}") boolean habilitado,
+                        @Value("${veiculos.filtro.taxa-falso-positivo:0.01}") double taxaFalsoPositivo,
+                        @Value("${veiculos.filtro.capacidade-minima:100000}") long capacidadeMinima) {
+        this.veiculoRepository = veiculoRepository;
+        this.transacao = transacao;
+        this.habilitado = habilitado;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.capacidadeMinima = capacidadeMinima;
+    }
+
+    public boolean ausenteComCerteza(String placa) {
+        FiltroBloom filtro = atual;
+        return filtro != null && !filtro.podeConter(placa);
+    }
+
+    // A placa entra no filtro depois do commit: a reconstrução publica o filtro novo antes de
+    // abrir a leitura das placas, então todo cadastro ou está nessa leitura ou vê o filtro novo aqui.
+    public void adicionar(String placa) {
+        if (!habilitado) {
+            return;
+        }
+        Transacoes.aposCommit(() -> {
+            FiltroBloom novo = emConstrucao;
+            if (novo != null) {
+                novo.adicionar(placa);
+            }
+            FiltroBloom filtro = atual;
+            if (filtro != null) {
+                filtro.adicionar(placa);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAoIniciar() {
+        if (habilitado) {
+            reconstruir();
+        }
+    }
+
+    public EstatisticasFiltro reconstruir() {
+        if (!habilitado) {
+            return estatisticas();
+        }
+        trava.lock();
+        try {
+            reconstruirComTrava();
+        } finally {
+            trava.unlock();
+        }
+        return estatisticas();
+    }
+
+    private void reconstruirComTrava() {
+        long inicio = System.nanoTime();
+        // Tudo numa transação de escrita, que vai sempre ao primário: um filtro montado a partir de uma
+        // réplica atrasada daria como ausentes, com certeza, placas já cadastradas.
+        // A contagem, só para dimensionar, fica numa transação à parte: o filtro novo precisa estar publicado
+        // antes da primeira leitura da transação que percorre as placas, que é quando o MariaDB tira o snapshot.
+        Long cadastradas = transacao.execute(status -> veiculoRepository.count());
+        long capacidade = Math.max(capacidadeMinima, (cadastradas == null ? 0 : cadastradas) * 2);
+        FiltroBloom novo;
+        try {
+            novo = transacao.execute(status -> {
+                FiltroBloom construido = new FiltroBloom(capacidade, taxaFalsoPositivo);
+                emConstrucao = construido;
+                try (Stream<String> placas = veiculoRepository.streamPlacas()) {
+                    placas.forEach(construido::adicionar);
+                }
+                return construido;
+            });
+            atual = novo;
+        } finally {
+            emConstrucao = null;
+        }
+        log.info("Filtro de placas construído com {} placa(s) em {} ms ({} bytes)", novo.getInsercoes(),
+                (System.nanoTime() - inicio) / 1_000_000, novo.getBytes());
+    }
+
+    public EstatisticasFiltro estatisticas() {
+        FiltroBloom filtro = atual;
+        if (filtro == null) {
+            return new EstatisticasFiltro(habilitado, false, 0, 0, 0, 0, 0, taxaFalsoPositivo, 0);
+        }
+        return new EstatisticasFiltro(habilitado, true, filtro.getCapacidade(), filtro.getInsercoes(),
+                filtro.getQuantidadeBits(), filtro.getFuncoesHash(), filtro.getBytes(), taxaFalsoPositivo,
+                filtro.taxaFalsoPositivoEstimada());
+    }
+
+}
@@ -0,0 +1,102 @@
+package tech.devinhouse.veiculos.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.dto.HistoricoMultasVeiculo;
+import tech.devinhouse.veiculos.dto.MultasPorDia;
+import tech.devinhouse.veiculos.model.Multa;
+import tech.devinhouse.veiculos.repository.MultaRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Histórico de multas, gravado na transação de quem aplica a multa. Cada aplicação vira um registro em
+ * {@code multas} e soma-se aos totais do dia por veículo e da frota; as consultas leem só esses totais,
+ * então custam o número de dias do período e não o de multas registradas. No perfil "memoria" não há
+ * JPA: o histórico fica desligado, e ligá-lo impede a aplicação de subir.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class HistoricoMultas {
+
+    static final int DIAS_MAXIMOS = 366;
+
+    private final MultaRepository multaRepository;
+
+    private final Clock relogio;
+
+    @Autowired
+    public HistoricoMultas(ObjectProvider<MultaRepository> multaRepository,
+                           @Value("${veiculos.multas.historico.habilitado:true}") boolean habilitado,
+                           @Value("${veiculos.multas.fuso:America/Sao_Paulo}") ZoneId fuso) {
+        this(repositorio(multaRepository, habilitado), Clock.system(fuso));
+    }
+
+    private static MultaRepository repositorio(ObjectProvider<MultaRepository> multaRepository, boolean habilitado) {
+        MultaRepository repositorio = habilitado ? multaRepository.getIfAvailable() : null;
+        if (habilitado && repositorio == null) {
+            throw new IllegalStateException("O histórico de multas (veiculos.multas.historico.habilitado) precisa de JPA e não funciona no perfil \"memoria\"");
+        }
+        return repositorio;
+    }
+
+    HistoricoMultas(MultaRepository multaRepository, Clock relogio) {
+        this.multaRepository = multaRepository;
+        this.relogio = relogio;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isHabilitado() {
+        return multaRepository != null;
+    }
+
+    public void registrar(String placa, int quantidade) {
+        registrar(Map.of(placa, quantidade));
+    }
+
+    public void registrar(Map<String, Integer> multas) {
+        if (multaRepository == null || multas.isEmpty()) {
+            return;
+        }
+        Instant momento = relogio.instant();
+        LocalDate dia = LocalDate.ofInstant(momento, relogio.getZone());
+        List<Multa> registros = new ArrayList<>(multas.size());
+        multas.forEach((placa, quantidade) -> registros.add(new Multa(placa, momento, dia, quantidade)));
+        multaRepository.saveAll(registros);
+        multaRepository.acumular(multas, dia);
+    }
+
+    /**
+     * Multas do veículo por dia nos últimos {@code dias} dias, contando hoje (de 1 a {@value #DIAS_MAXIMOS}).
+     */
+    @Transactional(readOnly = true)
+    public HistoricoMultasVeiculo consultarVeiculo(String placa, int dias) {
+        LocalDate ate = LocalDate.now(relogio);
+        LocalDate de = ate.minusDays(Math.max(1, Math.min(dias, DIAS_MAXIMOS)) - 1);
+        List<MultasPorDia> porDia = multaRepository.totaisPorDiaDoVeiculo(placa, de, ate);
+        return new HistoricoMultasVeiculo(placa, de, ate, porDia.stream().mapToLong(MultasPorDia::getQuantidade).sum(), porDia);
+    }
+
+    /**
+     * Multas da frota por dia entre {@code de} e {@code ate}; sem {@code ate}, até hoje, e sem {@code de},
+     * nos 30 dias até {@code ate}. Períodos maiores que {@value #DIAS_MAXIMOS} dias são encurtados no início.
+     */
+    @Transactional(readOnly = true)
+    public List<MultasPorDia> consultarFrota(LocalDate de, LocalDate ate) {
+        LocalDate fim = ate != null ? ate : LocalDate.now(relogio);
+        LocalDate primeiroPermitido = fim.minusDays(DIAS_MAXIMOS - 1);
+        LocalDate inicio = de == null ? fim.minusDays(29) : de.isBefore(primeiroPermitido) ? primeiroPermitido : de;
+        return inicio.isAfter(fim) ? List.of() : multaRepository.totaisPorDiaDaFrota(inicio, fim);
+    }
+
+}
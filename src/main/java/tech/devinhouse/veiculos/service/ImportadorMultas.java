@@ -0,0 +1,195 @@
+package tech.devinhouse.veiculos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.devinhouse.veiculos.dto.EventoMulta;
+import tech.devinhouse.veiculos.dto.ResultadoImportacaoMultas;
+import tech.devinhouse.veiculos.model.Placa;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Importa arquivos de multas (CSV ou NDJSON) lendo uma linha de cada vez.
+ * <p>
+ * As multas de uma mesma placa são somadas enquanto o lote se forma e cada lote é gravado numa transação
+ * própria: uma consulta {@code IN} separa as placas cadastradas e um único lote de UPDATEs aplica as
+ * quantidades. Placas inexistentes são informadas no resultado em vez de interromper a importação.
+ */
+@Slf4j
+@Service
+public class ImportadorMultas {
+
+    static final int TAMANHO_LOTE = VeiculoService.TAMANHO_CONSULTA_IN;
+
+    private final ArmazenamentoVeiculos veiculoRepository;
+
+    private final TransactionOperations transacao;
+
+    private final VeiculoCache veiculoCache;
+
+    private final AgregadorFrota agregadorFrota;
+
+    private final VersaoFrota versaoFrota;
+
+    private final SaidaEventos saidaEventos;
+
+    private final HistoricoMultas historicoMultas;
+
+    private final ObjectReader leitorEvento;
+
+    private final Counter multasImportadas;
+
+    public ImportadorMultas(ArmazenamentoVeiculos veiculoRepository, TransactionOperations transacao,
+                            VeiculoCache veiculoCache, AgregadorFrota agregadorFrota, VersaoFrota versaoFrota,
+                            SaidaEventos saidaEventos, HistoricoMultas historicoMultas, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.veiculoRepository = veiculoRepository;
+        this.transacao = transacao;
+        this.veiculoCache = veiculoCache;
+        this.agregadorFrota = agregadorFrota;
+        this.versaoFrota = versaoFrota;
+        this.saidaEventos = saidaEventos;
+        this.historicoMultas = historicoMultas;
+        this.leitorEvento = objectMapper.readerFor(EventoMulta.class);
+        this.multasImportadas = Counter.builder("veiculos.multas.importadas")
+                .description("Multas aplicadas pela importação de arquivos")
+                .register(registry);
+    }
+
+    /**
+     * Uma multa por linha no formato {@code placa[,quantidade]}; o cabeçalho {@code placa,quantidade} é ignorado.
+     */
+    public ResultadoImportacaoMultas importarCsv(InputStream entrada) throws IOException {
+        return importar(entrada, linha -> {
+            int separador = linha.indexOf(',');
+            String placa = (separador < 0 ? linha : linha.substring(0, separador)).trim();
+            // Placas válidas são maiúsculas, então "placa" em minúsculas só pode ser o cabeçalho.
+            if (placa.equals("placa")) {
+                return null;
+            }
+            try {
+                int quantidade = separador < 0 ? 1 : Integer.parseInt(linha.substring(separador + 1).trim());
+                return new EventoMulta(placa, quantidade);
+            } catch (NumberFormatException e) {
+                return new EventoMulta(placa, 0);
+            }
+        });
+    }
+
+    /**
+     * Um objeto JSON por linha, como {@code {"placa":"ABC1D23","quantidade":2}}; sem quantidade vale uma multa.
+     */
+    public ResultadoImportacaoMultas importarNdjson(InputStream entrada) throws IOException {
+        return importar(entrada, linha -> {
+            try {
+                EventoMulta evento = leitorEvento.readValue(linha);
+                return new EventoMulta(evento.getPlaca(), evento.getQuantidade() == null ? 1 : evento.getQuantidade());
+            } catch (JsonProcessingException e) {
+                return new EventoMulta(null, 0);
+            }
+        });
+    }
+
+    // O conversor devolve null para linhas que devem ser ignoradas (cabeçalho) e um evento com placa fora
+    // do formato ou quantidade não positiva para linhas inválidas.
+    private ResultadoImportacaoMultas importar(InputStream entrada, Function<String, EventoMulta> conversor) throws IOException {
+        long inicio = System.nanoTime();
+        ResultadoImportacaoMultas resultado = new ResultadoImportacaoMultas();
+        Set<String> inexistentes = new LinkedHashSet<>();
+        Map<String, Integer> lote = new LinkedHashMap<>();
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 64 * 1024)) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                resultado.setLinhas(resultado.getLinhas() + 1);
+                EventoMulta evento = conversor.apply(linha);
+                if (evento == null) {
+                    continue;
+                }
+                if (!Placa.codificavel(evento.getPlaca()) || evento.getQuantidade() <= 0) {
+                    resultado.setLinhasInvalidas(resultado.getLinhasInvalidas() + 1);
+                    continue;
+                }
+                // Somas que estourariam o contador são tratadas como linha inválida, não como erro do servidor.
+                Integer acumulada = lote.get(evento.getPlaca());
+                if (acumulada != null && acumulada > Integer.MAX_VALUE - evento.getQuantidade()) {
+                    resultado.setLinhasInvalidas(resultado.getLinhasInvalidas() + 1);
+                    continue;
+                }
+                lote.merge(evento.getPlaca(), evento.getQuantidade(), Integer::sum);
+                if (lote.size() == TAMANHO_LOTE) {
+                    aplicar(lote, resultado, inexistentes);
+                    lote.clear();
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            aplicar(lote, resultado, inexistentes);
+        }
+        resultado.setInexistentes(new ArrayList<>(inexistentes));
+        long nanos = System.nanoTime() - inicio;
+        resultado.setDuracaoMs(nanos / 1_000_000);
+        resultado.setMultasPorSegundo(nanos == 0 ? 0 : resultado.getMultasAplicadas() * 1_000_000_000 / nanos);
+        log.info("Importação de multas: {} linha(s), {} multa(s) aplicada(s), {} descartada(s), {} linha(s) inválida(s) em {} ms ({} multas/s)",
+                resultado.getLinhas(), resultado.getMultasAplicadas(), resultado.getMultasDescartadas(),
+                resultado.getLinhasInvalidas(), resultado.getDuracaoMs(), resultado.getMultasPorSegundo());
+        return resultado;
+    }
+
+    private void aplicar(Map<String, Integer> lote, ResultadoImportacaoMultas resultado, Set<String> inexistentes) {
+        Set<String> descartadas = new LinkedHashSet<>();
+        Long aplicadas = transacao.execute(status -> {
+            List<String> candidatas = new ArrayList<>(lote.keySet());
+            Set<String> cadastradas = new HashSet<>(candidatas.isEmpty() ? List.of() : veiculoRepository.findPlacasCadastradas(candidatas));
+            Map<String, Integer> multas = new LinkedHashMap<>();
+            candidatas.forEach(placa -> {
+                if (cadastradas.contains(placa)) {
+                    multas.put(placa, lote.get(placa));
+                } else {
+                    descartadas.add(placa);
+                }
+            });
+            if (!multas.isEmpty()) {
+                // Placas excluídas entre a consulta e o UPDATE também voltam como inexistentes.
+                descartadas.addAll(veiculoRepository.incrementarMultasEmLote(multas));
+                descartadas.forEach(multas::remove);
+                saidaEventos.registrarMultas(multas);
+                historicoMultas.registrar(multas);
+            }
+            long total = multas.values().stream().mapToLong(Integer::longValue).sum();
+            veiculoCache.invalidar(multas.keySet());
+            agregadorFrota.registrarMultas(total);
+            if (total > 0) {
+                versaoFrota.registrarAlteracao();
+            }
+            return total;
+        });
+        long gravadas = aplicadas == null ? 0 : aplicadas;
+        long descartadasNoLote = descartadas.stream().mapToLong(lote::get).sum();
+        resultado.setMultasAplicadas(resultado.getMultasAplicadas() + gravadas);
+        resultado.setMultasDescartadas(resultado.getMultasDescartadas() + descartadasNoLote);
+        inexistentes.addAll(descartadas);
+        multasImportadas.increment(gravadas);
+    }
+
+}
@@ -0,0 +1,46 @@
+package tech.devinhouse.veiculos.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Marca a requisição atual para ler do banco primário mesmo em transações somente leitura. Com réplica
+ * configurada (RoteamentoLeituraConfig), é assim que o cliente que acabou de escrever lê a própria escrita
+ * enquanto a réplica ainda não a recebeu; o cache de veículos também é ignorado nesse intervalo, porque
+ * a escrita pode ter passado por outra instância, cujo commit não invalida o cache desta.
+ */
+public final class LeituraPrimario {
+
+    private static final ThreadLocal<Boolean> ATIVA = new ThreadLocal<>();
+
+    private LeituraPrimario() {
+    }
+
+    public static boolean ativa() {
+        return ATIVA.get() != null;
+    }
+
+    public static void ativar() {
+        ATIVA.set(Boolean.TRUE);
+    }
+
+    public static void encerrar() {
+        ATIVA.remove();
+    }
+
+    /**
+     * Executa a leitura no primário e devolve a marcação ao estado anterior. A escolha do banco acontece no
+     * primeiro comando SQL da transação, então a leitura precisa abrir a própria transação.
+     */
+    public static <T> T executar(Supplier<T> leitura) {
+        if (ativa()) {
+            return leitura.get();
+        }
+        ativar();
+        try {
+            return leitura.get();
+        } finally {
+            encerrar();
+        }
+    }
+
+}
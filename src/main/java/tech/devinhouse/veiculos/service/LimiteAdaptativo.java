@@ -0,0 +1,131 @@
+package tech.devinhouse.veiculos.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de requisições simultâneas que se ajusta à latência observada (AIMD).
+ * <p>
+ * Cada requisição concluída abaixo da latência alvo, com o limite em uso pelo menos pela metade, soma
+ * {@code 1/limite}, ou seja, cerca de uma vaga a cada "limite" conclusões. Uma conclusão acima do alvo
+ * ou com erro do servidor multiplica o limite pelo fator de redução, no máximo uma vez por intervalo
+ * de latência alvo, porque as requisições já em andamento ainda refletem a situação anterior à redução.
+ */
+public class LimiteAdaptativo implements MeterBinder {
+
+    private final String categoria;
+
+    private final int minimo;
+
+    private final int maximo;
+
+    private final long latenciaAlvoNanos;
+
+    private final double reducao;
+
+    private final Duration retryAfter;
+
+    private final AtomicInteger emUso = new AtomicInteger();
+
+    private final LongAdder rejeitadas = new LongAdder();
+
+    private volatile double limite;
+
+    private long ultimaReducao;
+
+    public LimiteAdaptativo(String categoria, int inicial, int minimo, int maximo, Duration latenciaAlvo,
+                            double reducao, Duration retryAfter) {
+        if (minimo < 1 || minimo > maximo || inicial < minimo || inicial > maximo) {
+            throw new IllegalArgumentException("Limites inválidos para " + categoria + ": inicial " + inicial
+                    + ", mínimo " + minimo + ", máximo " + maximo);
+        }
+        this.categoria = categoria;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaAlvoNanos = latenciaAlvo.toNanos();
+        this.reducao = reducao;
+        this.retryAfter = retryAfter;
+        this.limite = inicial;
+        this.ultimaReducao = System.nanoTime() - latenciaAlvoNanos;
+    }
+
+    /**
+     * Reserva uma vaga; {@code false} quando o limite atual já está em uso e a requisição deve ser recusada.
+     */
+    public boolean adquirir() {
+        int atual;
+        do {
+            atual = emUso.get();
+            if (atual >= (int) limite) {
+                rejeitadas.increment();
+                return false;
+            }
+        } while (!emUso.compareAndSet(atual, atual + 1));
+        return true;
+    }
+
+    /**
+     * Devolve a vaga de uma requisição iniciada em {@code inicioNanos} ({@link System#nanoTime()}).
+     */
+    public void liberar(long inicioNanos, boolean erroServidor) {
+        long agora = System.nanoTime();
+        liberar(agora - inicioNanos, erroServidor, agora);
+    }
+
+    void liberar(long duracaoNanos, boolean erroServidor, long agora) {
+        int emUsoAntes = emUso.getAndDecrement();
+        synchronized (this) {
+            if (erroServidor || duracaoNanos > latenciaAlvoNanos) {
+                if (agora - ultimaReducao >= latenciaAlvoNanos) {
+                    limite = Math.max(minimo, limite * reducao);
+                    ultimaReducao = agora;
+                }
+            } else if (emUsoAntes * 2 >= limite) {
+                limite = Math.min(maximo, limite + 1 / limite);
+            }
+        }
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEmUso() {
+        return emUso.get();
+    }
+
+    public long getRejeitadas() {
+        return rejeitadas.sum();
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("veiculos.admissao.limite", this, LimiteAdaptativo::getLimite)
+                .description("Requisições simultâneas admitidas no momento")
+                .tag("categoria", categoria)
+                .register(registry);
+        Gauge.builder("veiculos.admissao.ativas", this, LimiteAdaptativo::getEmUso)
+                .description("Requisições admitidas ainda em andamento")
+                .tag("categoria", categoria)
+                .register(registry);
+        FunctionCounter.builder("veiculos.admissao.rejeitadas", rejeitadas, LongAdder::sum)
+                .description("Requisições recusadas com 503 por excederem o limite")
+                .tag("categoria", categoria)
+                .register(registry);
+    }
+
+}
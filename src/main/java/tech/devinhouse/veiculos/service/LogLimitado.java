@@ -0,0 +1,72 @@
+package tech.devinhouse.veiculos.service;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log de erros de negócio esperados (placa inexistente, já cadastrada, com multas). Eles são comuns no
+ * tráfego normal, então cada mensagem é escrita no máximo uma vez por intervalo e a seguinte informa
+ * quantas ocorrências foram suprimidas; a contagem exata fica na métrica {@code veiculos.erros}.
+ */
+@Component
+public class LogLimitado {
+
+    private final long intervaloNanos;
+
+    private final Map<String, Janela> janelas = new ConcurrentHashMap<>();
+
+    public LogLimitado(@Value("${veiculos.log.intervalo-erros-negocio:10s}") Duration intervalo) {
+        this.intervaloNanos = intervalo.toNanos();
+    }
+
+    public void avisar(Logger log, String mensagem, Object argumento) {
+        if (log.isWarnEnabled() && liberar(mensagem)) {
+            escrever(log, mensagem, argumento);
+        }
+    }
+
+    public void avisar(Logger log, String mensagem, Object argumento1, Object argumento2) {
+        if (log.isWarnEnabled() && liberar(mensagem)) {
+            escrever(log, mensagem, argumento1, argumento2);
+        }
+    }
+
+    // A mensagem é o modelo com {}: o conjunto é fixo, então o mapa não cresce com o tráfego.
+    private boolean liberar(String mensagem) {
+        Janela janela = janelas.computeIfAbsent(mensagem, m -> new Janela());
+        long agora = System.nanoTime();
+        long proxima = janela.proxima.get();
+        if (agora - proxima >= 0 && janela.proxima.compareAndSet(proxima, agora + intervaloNanos)) {
+            return true;
+        }
+        janela.suprimidas.increment();
+        return false;
+    }
+
+    private void escrever(Logger log, String mensagem, Object... argumentos) {
+        long suprimidas = janelas.get(mensagem).suprimidas.sumThenReset();
+        if (suprimidas == 0) {
+            log.warn(mensagem, argumentos);
+        } else {
+            Object[] comSuprimidas = Arrays.copyOf(argumentos, argumentos.length + 1);
+            comSuprimidas[argumentos.length] = suprimidas;
+            log.warn(mensagem + " (+{} ocorrência(s) suprimida(s))", comSuprimidas);
+        }
+    }
+
+    private static final class Janela {
+
+        private final AtomicLong proxima = new AtomicLong(System.nanoTime());
+
+        private final LongAdder suprimidas = new LongAdder();
+    }
+
+}
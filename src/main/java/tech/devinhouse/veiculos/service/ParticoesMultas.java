@@ -0,0 +1,99 @@
+package tech.devinhouse.veiculos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.devinhouse.veiculos.repository.MultaRepository;
+import tech.devinhouse.veiculos.repository.MultaRepositoryCustom.Particao;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantém as partições mensais da tabela de multas no MariaDB: cria com antecedência as dos próximos
+ * meses, separando-as da partição MAXVALUE enquanto ela está vazia, e, com retenção configurada, remove
+ * as partições que já passaram dela. Remover uma partição é instantâneo, ao contrário de um DELETE de
+ * milhões de linhas; os totais diários não são afetados. Em outros bancos, ou sem particionamento, não faz nada.
+ */
+@Slf4j
+@Component
+public class ParticoesMultas {
+
+    private static final DateTimeFormatter NOME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final MultaRepository multaRepository;
+
+    private final Clock relogio;
+
+    private final int mesesAFrente;
+
+    private final int retencaoMeses;
+
+    @Autowired
+    public ParticoesMultas(ObjectProvider<MultaRepository> multaRepository,
+                           @Value("${veiculos.multas.historico.habilitado:true}") boolean habilitado,
+                           @Value("${veiculos.multas.fuso:America/Sao_Paulo}") ZoneId fuso,
+                           @Value("${veiculos.multas.historico.meses-a-frente:2}") int mesesAFrente,
+                           @Value("${veiculos.multas.historico.retencao-meses:0}") int retencaoMeses) {
+        this(habilitado ? multaRepository.getIfAvailable() : null, Clock.system(fuso), mesesAFrente, retencaoMeses);
+    }
+
+    ParticoesMultas(MultaRepository multaRepository, Clock relogio, int mesesAFrente, int retencaoMeses) {
+        this.multaRepository = multaRepository;
+        this.relogio = relogio;
+        this.mesesAFrente = mesesAFrente;
+        this.retencaoMeses = retencaoMeses;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${veiculos.multas.historico.cron-particoes:0 15 3 * * *}", zone = "${veiculos.multas.fuso:America/Sao_Paulo}")
+    public void manter() {
+        if (multaRepository == null) {
+            return;
+        }
+        List<Particao> particoes = multaRepository.particoes();
+        if (particoes.isEmpty() || particoes.get(particoes.size() - 1).limite() != null) {
+            log.debug("Tabela de multas sem particionamento por mês; nada a manter");
+            return;
+        }
+        String ultima = particoes.get(particoes.size() - 1).nome();
+        LocalDate ultimoLimite = particoes.size() > 1 ? particoes.get(particoes.size() - 2).limite() : null;
+        LocalDate mesAtual = LocalDate.now(relogio).withDayOfMonth(1);
+        for (LocalDate limite : limitesFaltantes(ultimoLimite, mesAtual, mesesAFrente)) {
+            String nome = NOME.format(limite.minusMonths(1));
+            multaRepository.dividirParticao(ultima, nome, limite);
+            log.info("Partição {} da tabela de multas criada (multas até {})", nome, limite.minusDays(1));
+        }
+        if (retencaoMeses > 0) {
+            LocalDate corte = mesAtual.minusMonths(retencaoMeses);
+            for (Particao particao : particoes) {
+                if (particao.limite() != null && !particao.limite().isAfter(corte)) {
+                    multaRepository.removerParticao(particao.nome());
+                    log.info("Partição {} da tabela de multas removida (multas anteriores a {})", particao.nome(), particao.limite());
+                }
+            }
+        }
+    }
+
+    // Limites (primeiro dia do mês seguinte) das partições que faltam para cobrir até o fim do mês
+    // atual mais mesesAFrente. Sem nenhuma partição mensal, a primeira recebe também todo o passado.
+    static List<LocalDate> limitesFaltantes(LocalDate ultimoLimite, LocalDate mesAtual, int mesesAFrente) {
+        LocalDate alvo = mesAtual.plusMonths(mesesAFrente + 1L);
+        LocalDate limite = ultimoLimite == null ? mesAtual.plusMonths(1) : ultimoLimite.withDayOfMonth(1).plusMonths(1);
+        List<LocalDate> limites = new ArrayList<>();
+        for (; !limite.isAfter(alvo); limite = limite.plusMonths(1)) {
+            limites.add(limite);
+        }
+        return limites;
+    }
+
+}
@@ -0,0 +1,346 @@
+package tech.devinhouse.veiculos.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.devinhouse.veiculos.model.EventoVeiculo;
+import tech.devinhouse.veiculos.repository.EventoVeiculoRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numera os eventos gravados pela {@link SaidaEventos} e os entrega aos assinantes do feed (SSE).
+ * <p>
+ * A posição não é o id do evento: ids são atribuídos na inserção e transações concorrentes podem fazer
+ * commit fora de ordem, então um consumidor que retomasse pelo id perderia eventos. Só o publicador
+ * numera, e só eventos já confirmados, de modo que as posições crescem sem buracos na ordem em que os
+ * consumidores as enxergam.
+ * <p>
+ * Com várias instâncias, cada ciclo numera numa só delas (a que obtém o bloqueio dos pendentes). As demais
+ * acompanham a última posição gravada na saída e acordam os próprios assinantes quando ela avança.
+ * <p>
+ * Os envios correm num pool próprio e limitado, separado do executor do MVC. Cada assinante tem no
+ * máximo um envio na fila: avisos que chegam enquanto ele espera são absorvidos, porque o envio lê do
+ * banco o que faltar até a última publicação. Um assinante cujo envio fica parado além do limite, ou
+ * que não cabe na fila, é descartado; o cliente reconecta com o {@code Last-Event-ID}.
+ */
+@Slf4j
+@Component
+public class PublicadorEventos {
+
+    static final int TAMANHO_PAGINA = 500;
+
+    private final EventoVeiculoRepository eventoRepository;
+
+    private final TransactionOperations transacao;
+
+    private final ThreadPoolExecutor envios;
+
+    private final Duration tempoMaximoEnvio;
+
+    private final Duration retencao;
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+
+    // Publicações em série: a próxima posição depende da última gravada.
+    private final ReentrantLock trava = new ReentrantLock();
+
+    private volatile long ultimaPublicada = -1;
+
+    public PublicadorEventos(SaidaEventos saidaEventos, ObjectProvider<EventoVeiculoRepository> eventoRepository,
+                             TransactionOperations transacao,
+                             @Value("${veiculos.eventos.threads-envio:4}") int threadsEnvio,
+                             @Value("${veiculos.eventos.fila-envio:1000}") int filaEnvio,
+                             @Value("${veiculos.eventos.tempo-maximo-envio:30s}") Duration tempoMaximoEnvio,
+                             @Value("${veiculos.eventos.retencao:7d}") Duration retencao) {
+        this.eventoRepository = saidaEventos.isHabilitada() ? eventoRepository.getIfAvailable() : null;
+        this.transacao = transacao;
+        AtomicInteger numero = new AtomicInteger();
+        this.envios = new ThreadPoolExecutor(threadsEnvio, threadsEnvio, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(filaEnvio), tarefa -> {
+                    Thread thread = new Thread(tarefa, "eventos-envio-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.tempoMaximoEnvio = tempoMaximoEnvio;
+        this.retencao = retencao;
+    }
+
+    public boolean isHabilitado() {
+        return eventoRepository != null;
+    }
+
+    /**
+     * Numera os eventos pendentes, avisa os assinantes e devolve quantos eventos foram publicados.
+     */
+    @Scheduled(fixedDelayString = "${veiculos.eventos.intervalo-publicacao-ms:200}")
+    public int publicar() {
+        if (eventoRepository == null) {
+            return 0;
+        }
+        trava.lock();
+        try {
+            int publicados = 0;
+            List<EventoVeiculo> lote;
+            do {
+                lote = transacao.execute(status -> numerar());
+                if (!lote.isEmpty()) {
+                    ultimaPublicada = lote.get(lote.size() - 1).getPosicao();
+                    publicados += lote.size();
+                    List<EventoVeiculo> entregues = lote;
+                    assinantes.forEach(assinante -> assinante.agendar(entregues));
+                }
+            } while (lote.size() == TAMANHO_PAGINA);
+            acompanharUltimaPosicao();
+            return publicados;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Eventos numerados por outra instância não passam pelo laço acima; sem esta leitura, os assinantes
+    // desta só os receberiam quando ela mesma publicasse algo. Qualquer mudança da marca acorda os
+    // assinantes, inclusive um recuo (saída restaurada de um backup), para que ela não fique presa no valor antigo.
+    private void acompanharUltimaPosicao() {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+        long ultimaPosicao = eventoRepository.ultimaPosicao();
+        if (ultimaPosicao != ultimaPublicada) {
+            ultimaPublicada = ultimaPosicao;
+            assinantes.forEach(assinante -> assinante.agendar(List.of()));
+        }
+    }
+
+    private List<EventoVeiculo> numerar() {
+        List<EventoVeiculo> pendentes = eventoRepository.findPendentes(PageRequest.of(0, TAMANHO_PAGINA));
+        if (pendentes.isEmpty()) {
+            return pendentes;
+        }
+        long posicao = eventoRepository.ultimaPosicao();
+        for (EventoVeiculo evento : pendentes) {
+            evento.setPosicao(++posicao);
+        }
+        eventoRepository.saveAll(pendentes);
+        return pendentes;
+    }
+
+    /**
+     * Abre um feed que entrega os eventos depois da posição informada e continua com os novos.
+     * Se os eventos seguintes a ela já foram removidos pela retenção, o feed envia um evento
+     * {@code expirado} e termina: o consumidor precisa recarregar a frota e assinar de novo.
+     */
+    public SseEmitter assinar(long apos) {
+        SseEmitter emissor = new SseEmitter();
+        Long primeira = eventoRepository.primeiraPosicao();
+        if (primeira != null && apos < primeira - 1) {
+            try {
+                emissor.send(SseEmitter.event().name("expirado").data(Map.of("primeiraPosicao", primeira), MediaType.APPLICATION_JSON));
+                emissor.complete();
+            } catch (IOException e) {
+                emissor.completeWithError(e);
+            }
+            return emissor;
+        }
+        Assinante assinante = new Assinante(emissor, apos);
+        emissor.onCompletion(() -> assinantes.remove(assinante));
+        emissor.onTimeout(() -> assinantes.remove(assinante));
+        emissor.onError(erro -> assinantes.remove(assinante));
+        assinantes.add(assinante);
+        assinante.agendar(List.of());
+        return emissor;
+    }
+
+    // Comentário SSE periódico para que proxies não derrubem conexões ociosas. Na mesma passada saem os
+    // assinantes com envio parado além do limite: o cliente não lê e a thread do pool fica presa no envio.
+    @Scheduled(fixedDelayString = "${veiculos.eventos.intervalo-heartbeat-ms:15000}")
+    public void manterConexoes() {
+        long agora = System.nanoTime();
+        assinantes.forEach(assinante -> {
+            if (assinante.parado(agora)) {
+                descartar(assinante, "envio parado há mais de " + tempoMaximoEnvio);
+            } else if (!assinante.ocupado()) {
+                submeter(assinante, assinante::sinalizar);
+            }
+        });
+    }
+
+    private void submeter(Assinante assinante, Runnable envio) {
+        try {
+            envios.execute(envio);
+        } catch (RejectedExecutionException e) {
+            descartar(assinante, "fila de envios cheia");
+        }
+    }
+
+    private void descartar(Assinante assinante, String motivo) {
+        if (assinantes.remove(assinante)) {
+            log.warn("Assinante do feed de eventos descartado: {}", motivo);
+            assinante.descartar();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${veiculos.eventos.intervalo-limpeza-ms:3600000}")
+    public int limpar() {
+        if (eventoRepository == null) {
+            return 0;
+        }
+        int removidos = eventoRepository.removerPublicadosAntes(Instant.now().minus(retencao), eventoRepository.ultimaPosicao());
+        if (removidos > 0) {
+            log.info("{} evento(s) de veículos removido(s) por retenção ({})", removidos, retencao);
+        }
+        return removidos;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envios.shutdownNow();
+        assinantes.forEach(assinante -> assinante.emissor.complete());
+        assinantes.clear();
+    }
+
+    private final class Assinante {
+
+        private final SseEmitter emissor;
+
+        private final ReentrantLock trava = new ReentrantLock();
+
+        private final AtomicBoolean agendado = new AtomicBoolean();
+
+        private final AtomicBoolean encerrado = new AtomicBoolean();
+
+        private volatile List<EventoVeiculo> ultimoLote = List.of();
+
+        // Início (System.nanoTime) do envio em andamento; zero sem envio.
+        private volatile long envioDesde;
+
+        private volatile boolean descartado;
+
+        private long cursor;
+
+        private Assinante(SseEmitter emissor, long cursor) {
+            this.emissor = emissor;
+            this.cursor = cursor;
+        }
+
+        void agendar(List<EventoVeiculo> publicados) {
+            ultimoLote = publicados;
+            if (agendado.compareAndSet(false, true)) {
+                submeter(this, () -> {
+                    agendado.set(false);
+                    try {
+                        atualizar(ultimoLote);
+                    } finally {
+                        encerrarSeDescartado();
+                    }
+                });
+            }
+        }
+
+        boolean ocupado() {
+            return agendado.get() || trava.isLocked();
+        }
+
+        boolean parado(long agora) {
+            long desde = envioDesde;
+            return desde != 0 && agora - desde > tempoMaximoEnvio.toNanos();
+        }
+
+        void descartar() {
+            descartado = true;
+            encerrarSeDescartado();
+        }
+
+        // O emissor não pode ser encerrado no meio de um envio (send e complete disputam o mesmo monitor, e
+        // um envio parado prenderia a thread do agendador): encerra quem obtiver a trava depois da marca.
+        private void encerrarSeDescartado() {
+            if (descartado && trava.tryLock()) {
+                try {
+                    if (encerrado.compareAndSet(false, true)) {
+                        emissor.complete();
+                    }
+                } finally {
+                    trava.unlock();
+                }
+            }
+        }
+
+        // Usa o lote recém-publicado quando ele continua exatamente de onde o assinante parou; caso
+        // contrário (assinatura nova, assinante atrasado) lê do banco até alcançar a última publicação.
+        void atualizar(List<EventoVeiculo> publicados) {
+            trava.lock();
+            try {
+                if (!publicados.isEmpty() && publicados.get(0).getPosicao() <= cursor + 1) {
+                    enviar(publicados);
+                }
+                List<EventoVeiculo> pagina;
+                while (cursor < ultimaPublicada || publicados.isEmpty()) {
+                    pagina = eventoRepository.findByPosicaoGreaterThanOrderByPosicaoAsc(cursor, PageRequest.of(0, TAMANHO_PAGINA));
+                    enviar(pagina);
+                    if (pagina.size() < TAMANHO_PAGINA) {
+                        break;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou emissor já encerrado.
+                assinantes.remove(this);
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        void sinalizar() {
+            trava.lock();
+            try {
+                enviar(SseEmitter.event().comment(""));
+            } catch (IOException | IllegalStateException e) {
+                assinantes.remove(this);
+            } finally {
+                trava.unlock();
+            }
+            encerrarSeDescartado();
+        }
+
+        private void enviar(SseEmitter.SseEventBuilder evento) throws IOException {
+            envioDesde = System.nanoTime();
+            try {
+                emissor.send(evento);
+            } finally {
+                envioDesde = 0;
+            }
+        }
+
+        private void enviar(List<EventoVeiculo> eventos) throws IOException {
+            for (EventoVeiculo evento : eventos) {
+                if (evento.getPosicao() > cursor) {
+                    enviar(SseEmitter.event()
+                            .id(evento.getPosicao().toString())
+                            .name(evento.getTipo().name().toLowerCase())
+                            .data(evento, MediaType.APPLICATION_JSON));
+                    cursor = evento.getPosicao();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package tech.devinhouse.veiculos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.model.EventoVeiculo;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.EventoVeiculoRepository;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grava os eventos do feed de alterações na transação de quem altera o veículo: se ela for desfeita,
+ * o evento também é. No perfil "memoria" não há JPA: o feed fica desligado, e ligá-lo impede a aplicação
+ * de subir em vez de deixar de gravar os eventos sem aviso.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class SaidaEventos {
+
+    private final EventoVeiculoRepository eventoRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public SaidaEventos(ObjectProvider<EventoVeiculoRepository> eventoRepository, ObjectMapper objectMapper,
+                        @Value("${veiculos.eventos.habilitado:true}") boolean habilitado) {
+        this.eventoRepository = habilitado ? eventoRepository.getIfAvailable() : null;
+        if (habilitado && this.eventoRepository == null) {
+            throw new IllegalStateException("O feed de alterações (veiculos.eventos.habilitado) precisa de JPA e não funciona no perfil \"memoria\"");
+        }
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isHabilitada() {
+        return eventoRepository != null;
+    }
+
+    public void registrarCriacao(Veiculo veiculo) {
+        registrarCriacoes(List.of(veiculo));
+    }
+
+    public void registrarCriacoes(List<Veiculo> veiculos) {
+        if (eventoRepository == null || veiculos.isEmpty()) {
+            return;
+        }
+        List<EventoVeiculo> eventos = new ArrayList<>(veiculos.size());
+        for (Veiculo veiculo : veiculos) {
+            eventos.add(new EventoVeiculo(EventoVeiculo.Tipo.CRIADO, veiculo.getPlaca(), null, json(veiculo)));
+        }
+        eventoRepository.saveAll(eventos);
+    }
+
+    public void registrarExclusao(String placa) {
+        if (eventoRepository != null) {
+            eventoRepository.save(new EventoVeiculo(EventoVeiculo.Tipo.EXCLUIDO, placa, null, null));
+        }
+    }
+
+    public void registrarMultas(String placa, int quantidade) {
+        registrarMultas(Map.of(placa, quantidade));
+    }
+
+    public void registrarMultas(Map<String, Integer> multas) {
+        if (eventoRepository == null || multas.isEmpty()) {
+            return;
+        }
+        List<EventoVeiculo> eventos = new ArrayList<>(multas.size());
+        multas.forEach((placa, quantidade) -> eventos.add(new EventoVeiculo(EventoVeiculo.Tipo.MULTADO, placa, quantidade, null)));
+        eventoRepository.saveAll(eventos);
+    }
+
+    private String json(Veiculo veiculo) {
+        try {
+            return objectMapper.writeValueAsString(veiculo);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+package tech.devinhouse.veiculos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import tech.devinhouse.veiculos.dto.ProgressoSnapshot;
+import tech.devinhouse.veiculos.dto.ResultadoLote;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Exporta e importa a frota inteira em arquivos de snapshot ({@link ArquivoSnapshot}) no diretório
+ * configurado, para copiar os veículos entre ambientes sem a lista JSON completa nem um POST por veículo.
+ * <p>
+ * A exportação percorre os veículos em stream. A importação confere o arquivo inteiro antes de gravar
+ * qualquer veículo e depois grava os blocos em paralelo, cada um numa transação com INSERTs em lote; as
+ * placas já cadastradas são ignoradas, então repetir uma importação interrompida continua de onde ela
+ * parou. Veículos que a API recusaria (placa vazia ou que o armazenamento não aceita, multas nulas ou negativas)
+ * não são gravados e ficam contados em {@link ProgressoSnapshot#getInvalidos()}. Nos dois sentidos a memória usada depende do tamanho do bloco, não do da frota. Só uma operação
+ * por vez; o andamento da atual (ou da última) fica em {@link #progresso()}.
+ */
+@Slf4j
+@Service
+public class SnapshotFrota {
+
+    private static final Pattern NOME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,99}");
+
+    private final VeiculoService veiculoService;
+
+    private final Path diretorio;
+
+    private final int paralelismo;
+
+    private final ReentrantLock operacao = new ReentrantLock();
+
+    private volatile Andamento andamento;
+
+    public SnapshotFrota(VeiculoService veiculoService,
+                         @Value("${veiculos.snapshot.diretorio:snapshots}") Path diretorio,
+                         @Value("${veiculos.snapshot.paralelismo:4}") int paralelismo) {
+        this.veiculoService = veiculoService;
+        this.diretorio = diretorio;
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+    /**
+     * Grava a frota no snapshot {@code nome}; vazio se outra operação estiver em andamento.
+     */
+    public Optional<ProgressoSnapshot> exportar(String nome) throws IOException {
+        Path arquivo = arquivo(nome);
+        if (!operacao.tryLock()) {
+            return Optional.empty();
+        }
+        try {
+            Files.createDirectories(diretorio);
+            Andamento atual = iniciar("exportacao", nome, veiculoService.estatisticas().getTotal());
+            try (ArquivoSnapshot.Escritor escritor = new ArquivoSnapshot.Escritor(arquivo)) {
+                veiculoService.percorrer(veiculo -> {
+                    try {
+                        escritor.escrever(veiculo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    atual.registrar(1, 0, 0, 0);
+                });
+                ArquivoSnapshot.Cabecalho cabecalho = escritor.concluir();
+                log.info("Snapshot {} exportado com {} veículo(s) em {} bloco(s), {} byte(s)",
+                        nome, cabecalho.veiculos(), cabecalho.blocos(), Files.size(arquivo));
+            } catch (IOException | RuntimeException e) {
+                atual.concluir(e);
+                throw e;
+            }
+            atual.concluir(null);
+            return Optional.of(atual.paraDto());
+        } finally {
+            operacao.unlock();
+        }
+    }
+
+    /**
+     * Cadastra os veículos do snapshot {@code nome}; vazio se outra operação estiver em andamento. Um
+     * arquivo inválido é recusado antes de qualquer gravação. Se um bloco falhar, os demais em andamento
+     * terminam, nenhum outro começa e o erro volta em {@link ProgressoSnapshot#getErro()}.
+     */
+    public Optional<ProgressoSnapshot> importar(String nome) throws IOException, InterruptedException {
+        Path arquivo = existente(nome);
+        if (!operacao.tryLock()) {
+            return Optional.empty();
+        }
+        try {
+            ArquivoSnapshot.Cabecalho cabecalho = ArquivoSnapshot.verificar(arquivo);
+            Andamento atual = iniciar("importacao", nome, cabecalho.veiculos());
+            AtomicReference<RuntimeException> falha = new AtomicReference<>();
+            // Blocos lidos e ainda não gravados ficam limitados, para que a leitura não corra à frente do banco.
+            Semaphore vagas = new Semaphore(paralelismo * 2);
+            AtomicInteger numero = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(paralelismo, tarefa -> {
+                Thread thread = new Thread(tarefa, "snapshot-importacao-" + numero.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                ArquivoSnapshot.ler(arquivo, bloco -> {
+                    vagas.acquire();
+                    if (falha.get() != null) {
+                        vagas.release();
+                        return;
+                    }
+                    executor.execute(() -> {
+                        try {
+                            gravar(bloco, atual);
+                        } catch (RuntimeException e) {
+                            falha.compareAndSet(null, e);
+                        } finally {
+                            vagas.release();
+                        }
+                    });
+                });
+            } finally {
+                executor.shutdown();
+                if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                    executor.shutdownNow();
+                    falha.compareAndSet(null, new IllegalStateException("Importação não terminou no prazo de 1 hora"));
+                }
+            }
+            if (falha.get() != null) {
+                log.error("Importação do snapshot {} interrompida após {} de {} veículo(s)", nome, atual.processados.get(), cabecalho.veiculos(), falha.get());
+            } else {
+                log.info("Snapshot {} importado: {} veículo(s) criado(s), {} já cadastrado(s) e {} inválido(s)",
+                        nome, atual.criados.get(), atual.existentes.get(), atual.invalidos.get());
+            }
+            atual.concluir(falha.get());
+            return Optional.of(atual.paraDto());
+        } finally {
+            operacao.unlock();
+        }
+    }
+
+    /**
+     * Grava no diretório de snapshots um arquivo recebido de outro ambiente.
+     */
+    public long receber(String nome, InputStream conteudo) throws IOException {
+        Path arquivo = arquivo(nome);
+        Files.createDirectories(diretorio);
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".recebido");
+        try {
+            long bytes = Files.copy(conteudo, temporario, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Snapshot {} recebido com {} byte(s)", nome, bytes);
+            return bytes;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * Caminho de um snapshot já gravado, para download.
+     */
+    public Path existente(String nome) throws NoSuchFileException {
+        Path arquivo = arquivo(nome);
+        if (!Files.isRegularFile(arquivo)) {
+            throw new NoSuchFileException(nome);
+        }
+        return arquivo;
+    }
+
+    public Optional<ProgressoSnapshot> progresso() {
+        Andamento atual = andamento;
+        return atual == null ? Optional.empty() : Optional.of(atual.paraDto());
+    }
+
+    // Uma placa cadastrada por outra instância entre a consulta e o INSERT derruba a transação do bloco
+    // com chave duplicada; na segunda tentativa a consulta já a encontra e ela vira existente.
+    private void gravar(List<Veiculo> bloco, Andamento atual) {
+        List<Veiculo> validos = new ArrayList<>(bloco.size());
+        for (Veiculo veiculo : bloco) {
+            if (valido(veiculo)) {
+                validos.add(veiculo);
+            } else {
+                log.warn("Veículo de placa {} do snapshot ignorado: fora das regras de cadastro", veiculo.getPlaca());
+            }
+        }
+        ResultadoLote resultado;
+        try {
+            resultado = veiculoService.restaurarEmLote(validos);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bloco do snapshot com placa cadastrada durante a gravação; repetindo", e);
+            resultado = veiculoService.restaurarEmLote(validos);
+        }
+        atual.registrar(bloco.size(), resultado.getCriadas().size(), resultado.getConflitantes().size(), bloco.size() - validos.size());
+    }
+
+    private boolean valido(Veiculo veiculo) {
+        return veiculo.getPlaca() != null && !veiculo.getPlaca().isEmpty() && veiculoService.aceitaPlaca(veiculo.getPlaca())
+                && veiculo.getQtdMultas() != null && veiculo.getQtdMultas() >= 0;
+    }
+
+    private Path arquivo(String nome) {
+        if (nome == null || !NOME.matcher(nome).matches()) {
+            throw new IllegalArgumentException("Nome de snapshot inválido: use letras, números, '.', '_' e '-'");
+        }
+        return diretorio.resolve(nome);
+    }
+
+    private Andamento iniciar(String tipo, String nome, long total) {
+        Andamento novo = new Andamento(tipo, nome, total);
+        andamento = novo;
+        log.info("{} do snapshot {} iniciada ({} veículo(s))", tipo.equals("exportacao") ? "Exportação" : "Importação", nome, total);
+        return novo;
+    }
+
+    private static final class Andamento {
+
+        private final String operacao;
+
+        private final String arquivo;
+
+        private final long total;
+
+        private final Instant inicio = Instant.now();
+
+        private final AtomicLong processados = new AtomicLong();
+
+        private final AtomicLong criados = new AtomicLong();
+
+        private final AtomicLong existentes = new AtomicLong();
+
+        private final AtomicLong invalidos = new AtomicLong();
+
+        private volatile Instant fim;
+
+        private volatile String erro;
+
+        private Andamento(String operacao, String arquivo, long total) {
+            this.operacao = operacao;
+            this.arquivo = arquivo;
+            this.total = total;
+        }
+
+        // Um aviso no log a cada 10% do total.
+        private void registrar(long quantidade, long novos, long jaCadastrados, long recusados) {
+            long depois = processados.addAndGet(quantidade);
+            criados.addAndGet(novos);
+            existentes.addAndGet(jaCadastrados);
+            invalidos.addAndGet(recusados);
+            long passo = Math.max(1, total / 10);
+            if (total > 0 && (depois - quantidade) / passo != depois / passo) {
+                log.info("Snapshot {} ({}): {} de {} veículo(s)", arquivo, operacao, depois, total);
+            }
+        }
+
+        private void concluir(Exception falha) {
+            erro = falha == null ? null : String.valueOf(falha.getMessage());
+            fim = Instant.now();
+        }
+
+        private ProgressoSnapshot paraDto() {
+            return new ProgressoSnapshot(operacao, arquivo, total, processados.get(), criados.get(), existentes.get(), invalidos.get(), inicio, fim, erro);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package tech.devinhouse.veiculos.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tech.devinhouse.veiculos.dto.EstatisticasCache;
+import tech.devinhouse.veiculos.model.Placa;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+@Component
+public class VeiculoCache implements MeterBinder {
+
+    private static final int FAIXAS = 64;
+
+    // A chave é o código da placa (Placa.codificar): hash e equals de um long custam menos que os de
+    // uma String a cada consulta. Placas fora do formato não são codificáveis e não passam pelo cache.
+    private final Cache<Long, Veiculo> cache;
+
+    // Invalidações por faixa de placas, usadas para descartar leituras que começaram antes de uma escrita.
+    private final AtomicLongArray invalidacoes = new AtomicLongArray(FAIXAS);
+
+    // As invalidações só alcançam o cache da instância que fez a escrita. Com várias instâncias, cada
+    // entrada é conferida contra a versão da linha no primário antes de ser servida; só uma implantação
+    // de instância única pode desligar a conferência e servir o cache sem ir ao banco.
+    private final boolean conferirVersao;
+
+    public VeiculoCache(@Value("${veiculos.cache.habilitado:true}") boolean habilitado,
+                        @Value("${veiculos.cache.tamanho-maximo:100000}") long tamanhoMaximo,
+                        @Value("${veiculos.cache.ttl:60s}") Duration ttl,
+                        @Value("${veiculos.cache.conferir-versao:true}") boolean conferirVersao) {
+        this.cache = habilitado
+                ? Caffeine.newBuilder().maximumSize(tamanhoMaximo).expireAfterWrite(ttl).recordStats().build()
+                : null;
+        this.conferirVersao = conferirVersao;
+    }
+
+    public boolean isHabilitado() {
+        return cache != null;
+    }
+
+    // O banco é lido fora de qualquer trava do cache: quem carrega segura uma conexão, e quem invalida
+    // (após o commit) também, então esperar um pelo outro esgota o pool. O valor lido só é guardado se
+    // nenhuma invalidação da mesma faixa aconteceu desde o início da leitura, de modo que o cache não
+    // guarda valor anterior à escrita. Leituras simultâneas da mesma placa podem ir as duas ao banco.
+    // A carga que preenche o cache vai sempre ao primário: uma linha lida da réplica atrasada ficaria no
+    // cache até o TTL, e a versão dela responderia If-None-Match com um 304 desatualizado.
+    // Com a conferência de versão, uma entrada cuja versão não é mais a do primário (escrita feita por
+    // outra instância) é descartada e recarregada; se a linha sumiu, a placa é dada como inexistente.
+    public Optional<Veiculo> buscar(String placa, Function<String, Optional<Veiculo>> carregador,
+                                    Function<String, Optional<Long>> versaoAtual) {
+        long codigo = Placa.codificar(placa);
+        if (cache == null || codigo == Placa.INVALIDA || LeituraPrimario.ativa()) {
+            return carregador.apply(placa);
+        }
+        Veiculo emCache = cache.getIfPresent(codigo);
+        if (emCache != null) {
+            if (!conferirVersao) {
+                return Optional.of(emCache);
+            }
+            Optional<Long> versao = LeituraPrimario.executar(() -> versaoAtual.apply(placa));
+            if (versao.isPresent() && versao.get().equals(emCache.getVersao())) {
+                return Optional.of(emCache);
+            }
+            cache.asMap().remove(codigo, emCache);
+            if (versao.isEmpty()) {
+                return Optional.empty();
+            }
+        }
+        int faixa = faixa(codigo);
+        long geracao = invalidacoes.get(faixa);
+        Optional<Veiculo> carregado = LeituraPrimario.executar(() -> carregador.apply(placa));
+        carregado.ifPresent(veiculo -> cache.asMap().compute(codigo,
+                (c, atual) -> invalidacoes.get(faixa) == geracao ? veiculo : atual));
+        return carregado;
+    }
+
+    /**
+     * Veículo já em cache, sem ir ao banco; com a conferência de versão ligada não há entrada que possa
+     * ser servida sem consulta, e a resposta é sempre vazia.
+     */
+    public Optional<Veiculo> buscarCarregado(String placa) {
+        long codigo = Placa.codificar(placa);
+        return cache == null || conferirVersao || codigo == Placa.INVALIDA || LeituraPrimario.ativa()
+                ? Optional.empty()
+                : Optional.ofNullable(cache.getIfPresent(codigo));
+    }
+
+    public void invalidar(String placa) {
+        if (cache != null) {
+            Transacoes.aposCommit(() -> descartar(placa));
+        }
+    }
+
+    public void invalidar(Collection<String> placas) {
+        if (cache != null) {
+            Transacoes.aposCommit(() -> placas.forEach(this::descartar));
+        }
+    }
+
+    private void descartar(String placa) {
+        long codigo = Placa.codificar(placa);
+        if (codigo != Placa.INVALIDA) {
+            invalidacoes.incrementAndGet(faixa(codigo));
+            cache.invalidate(codigo);
+        }
+    }
+
+    // Placas de 7 caracteres deixam os dígitos finais do código (base 37) sempre zerados, então o código
+    // é espalhado pela multiplicação de Fibonacci e a faixa sai dos bits altos do produto.
+    private static int faixa(long codigo) {
+        return (int) ((codigo * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(FAIXAS)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "veiculos.placas");
+        }
+    }
+
+    public EstatisticasCache estatisticas() {
+        if (cache == null) {
+            return new EstatisticasCache(false, 0, 0, 0, 0, 0);
+        }
+        CacheStats stats = cache.stats();
+        return new EstatisticasCache(true, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+}
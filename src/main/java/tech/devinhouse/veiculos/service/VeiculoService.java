@@ -1,68 +1,319 @@
 package tech.devinhouse.veiculos.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.dto.EstatisticasFrota;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.dto.ResultadoConsulta;
+import tech.devinhouse.veiculos.dto.ResultadoLote;
+import tech.devinhouse.veiculos.exception.PlacaForaDoFormatoException;
 import tech.devinhouse.veiculos.exception.RegistroExistenteException;
 import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
 import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.exception.VersaoDesatualizadaException;
+import tech.devinhouse.veiculos.model.Placa;
 import tech.devinhouse.veiculos.model.Veiculo;
-import tech.devinhouse.veiculos.repository.VeiculoRepository;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
+@Timed(value = "veiculos.servico", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class VeiculoService {
 
+    public static final int TAMANHO_MAXIMO_PAGINA = 1000;
+
+    static final int TAMANHO_CONSULTA_IN = 1000;
+
+    /**
+     * Tamanho de página efetivamente usado para o pedido: entre 1 e {@link #TAMANHO_MAXIMO_PAGINA}. O
+     * controller usa o mesmo valor para saber se a página veio cheia e há uma próxima.
+     */
+    public static int limitarPagina(int tamanho) {
+        return Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO_PAGINA));
+    }
+
     @Autowired
-    private VeiculoRepository veiculoRepository;
+    private ArmazenamentoVeiculos veiculoRepository;
 
+    @Autowired
+    private AcumuladorMultas acumuladorMultas;
+
+    @Autowired
+    private VeiculoCache veiculoCache;
+
+    @Autowired
+    private FiltroPlacas filtroPlacas;
+
+    @Autowired
+    private AgregadorFrota agregadorFrota;
+
+    @Autowired
+    private VersaoFrota versaoFrota;
+
+    @Autowired
+    private SaidaEventos saidaEventos;
+
+    @Autowired
+    private HistoricoMultas historicoMultas;
+
+    @Autowired
+    private LogLimitado logLimitado;
+
+    @Value("${veiculos.multas.acumular:false}")
+    private boolean acumularMultas;
+
+    // Com o filtro de placas habilitado (só em implantações de instância única, ver FiltroPlacas), uma
+    // placa que ele dá como ausente responde 404 sem ir ao banco.
     public List<Veiculo> consultar(String placa) {
-        Veiculo veiculo = veiculoRepository.findById(placa).orElseThrow(() -> new RegistroInexistenteException(placa));
+        if (filtroPlacas.ausenteComCerteza(placa)) {
+            throw new RegistroInexistenteException(placa);
+        }
+        Veiculo veiculo = veiculoCache.buscar(placa, veiculoRepository::findById, veiculoRepository::findVersaoByPlaca)
+                .orElseThrow(() -> new RegistroInexistenteException(placa));
         List <Veiculo> veiculos = new ArrayList<>();
         veiculos.add(veiculo);
         return veiculos;
     }
 
+    /**
+     * Versão atual do veículo, sem carregá-lo do banco quando ele já está no cache. Fora do cache a versão
+     * é lida do primário: a de uma réplica atrasada responderia If-None-Match com um 304 desatualizado.
+     */
+    public Optional<Long> versao(String placa) {
+        if (filtroPlacas.ausenteComCerteza(placa)) {
+            return Optional.empty();
+        }
+        Optional<Veiculo> emCache = veiculoCache.buscarCarregado(placa);
+        return emCache.isPresent()
+                ? emCache.map(Veiculo::getVersao)
+                : LeituraPrimario.executar(() -> veiculoRepository.findVersaoByPlaca(placa));
+    }
+
+    public String versaoFrota() {
+        return versaoFrota.etag();
+    }
+
     public List<Veiculo> consultar() {
         List <Veiculo> veiculos = veiculoRepository.findAll();
         return veiculos;
     }
 
+    public ResultadoConsulta consultarPlacas(Collection<String> placas) {
+        Map<String, Veiculo> encontrados = new LinkedHashMap<>();
+        List<String> pendentes = new ArrayList<>();
+        for (String placa : new LinkedHashSet<>(placas)) {
+            encontrados.put(placa, null);
+            if (!filtroPlacas.ausenteComCerteza(placa)) {
+                veiculoCache.buscarCarregado(placa).ifPresentOrElse(v -> encontrados.put(placa, v), () -> pendentes.add(placa));
+            }
+        }
+        for (int inicio = 0; inicio < pendentes.size(); inicio += TAMANHO_CONSULTA_IN) {
+            List<String> trecho = pendentes.subList(inicio, Math.min(inicio + TAMANHO_CONSULTA_IN, pendentes.size()));
+            veiculoRepository.findAllById(trecho).forEach(v -> encontrados.put(v.getPlaca(), v));
+        }
+        ResultadoConsulta resultado = new ResultadoConsulta();
+        encontrados.forEach((placa, veiculo) -> {
+            if (veiculo == null) {
+                resultado.getInexistentes().add(placa);
+            } else {
+                resultado.getVeiculos().add(veiculo);
+            }
+        });
+        return resultado;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Veiculo> consultarPagina(String aposPlaca, int tamanho) {
+        int limite = limitarPagina(tamanho);
+        String cursor = aposPlaca == null ? "" : aposPlaca;
+        return veiculoRepository.findByPlacaGreaterThanOrderByPlacaAsc(cursor, PageRequest.of(0, limite));
+    }
+
+    public EstatisticasFrota estatisticas() {
+        return agregadorFrota.consultar();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Veiculo> pesquisar(FiltroVeiculos filtro) {
+        int limite = limitarPagina(filtro.getTamanho());
+        return veiculoRepository.pesquisar(filtro, limite);
+    }
+
+    @Transactional(readOnly = true)
+    public void percorrer(Consumer<Veiculo> consumidor) {
+        try (Stream<Veiculo> veiculos = veiculoRepository.streamTodosOrdenadosPorPlaca()) {
+            veiculos.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Indica se a placa pode ser cadastrada: o armazenamento em memória só aceita placas em {@link Placa#FORMATO}.
+     */
+    public boolean aceitaPlaca(String placa) {
+        return veiculoRepository.aceitaPlaca(placa);
+    }
+
+    @Transactional
     public Veiculo criar(Veiculo veiculo) {
+        if (!veiculoRepository.aceitaPlaca(veiculo.getPlaca())) {
+            throw new PlacaForaDoFormatoException(veiculo.getPlaca());
+        }
         if (veiculoRepository.existsVeiculosByPlaca(veiculo.getPlaca())){
-            log.error("O veículo não foi cadastrado pois a placa {} já está cadastrada. ", veiculo.getPlaca());
+            logLimitado.avisar(log, "O veículo não foi cadastrado pois a placa {} já está cadastrada. ", veiculo.getPlaca());
             throw new RegistroExistenteException(veiculo.getPlaca());
         }
 
         veiculo.setQtdMultas(0);
-        veiculoRepository.save(veiculo);
+        veiculoRepository.inserir(veiculo);
+        saidaEventos.registrarCriacao(veiculo);
+        veiculoCache.invalidar(veiculo.getPlaca());
+        filtroPlacas.adicionar(veiculo.getPlaca());
+        agregadorFrota.registrarCriacao(veiculo);
+        versaoFrota.registrarAlteracao();
         return veiculo;
     }
 
+    @Transactional
+    public ResultadoLote criarEmLote(List<Veiculo> veiculos) {
+        return inserirEmLote(veiculos, false);
+    }
+
+    /**
+     * Cadastra os veículos como vieram de um snapshot, com as multas, ignorando as placas já cadastradas.
+     */
+    @Transactional
+    public ResultadoLote restaurarEmLote(List<Veiculo> veiculos) {
+        return inserirEmLote(veiculos, true);
+    }
+
+    private ResultadoLote inserirEmLote(List<Veiculo> veiculos, boolean manterMultas) {
+        Map<String, Veiculo> porPlaca = new LinkedHashMap<>();
+        ResultadoLote resultado = new ResultadoLote();
+        for (Veiculo veiculo : veiculos) {
+            if (!veiculoRepository.aceitaPlaca(veiculo.getPlaca())) {
+                throw new PlacaForaDoFormatoException(veiculo.getPlaca());
+            }
+            if (porPlaca.putIfAbsent(veiculo.getPlaca(), veiculo) != null) {
+                resultado.getConflitantes().add(veiculo.getPlaca());
+            }
+        }
+        List<String> placas = new ArrayList<>(porPlaca.keySet());
+        for (int inicio = 0; inicio < placas.size(); inicio += TAMANHO_CONSULTA_IN) {
+            List<String> trecho = placas.subList(inicio, Math.min(inicio + TAMANHO_CONSULTA_IN, placas.size()));
+            for (String cadastrada : veiculoRepository.findPlacasCadastradas(trecho)) {
+                porPlaca.remove(cadastrada);
+                resultado.getConflitantes().add(cadastrada);
+            }
+        }
+        List<Veiculo> novos = new ArrayList<>(porPlaca.values());
+        if (!manterMultas) {
+            novos.forEach(veiculo -> veiculo.setQtdMultas(0));
+        }
+        veiculoRepository.inserirEmLote(novos);
+        saidaEventos.registrarCriacoes(novos);
+        novos.forEach(veiculo -> resultado.getCriadas().add(veiculo.getPlaca()));
+        veiculoCache.invalidar(resultado.getCriadas());
+        resultado.getCriadas().forEach(filtroPlacas::adicionar);
+        novos.forEach(agregadorFrota::registrarCriacao);
+        if (!novos.isEmpty()) {
+            versaoFrota.registrarAlteracao();
+        }
+        if (!resultado.getConflitantes().isEmpty()) {
+            logLimitado.avisar(log, "{} veículo(s) do lote não foram cadastrados pois a placa já está cadastrada.", resultado.getConflitantes().size());
+        }
+        return resultado;
+    }
+
+    @Transactional
     public void excluir(String placa) {
-        boolean existe = veiculoRepository.existsVeiculosByPlaca(placa);
-        if (!existe){
-            log.error("O veículo de placa {} não existe, por isso não foi excluído ", placa);
+        excluir(placa, null);
+    }
+
+    /**
+     * Exclui o veículo se ele ainda estiver na versão informada; {@code null} aceita qualquer versão.
+     */
+    @Transactional
+    public void excluir(String placa, Long versaoEsperada) {
+        if (filtroPlacas.ausenteComCerteza(placa)) {
+            throw new RegistroInexistenteException(placa);
+        }
+        // A leitura bloqueia a linha até o fim da transação: uma multa gravada por outra transação, inclusive
+        // pela descarga do acumulador, ou já aparece aqui ou espera a exclusão terminar e não acha mais a placa.
+        // As que o acumulador ainda não gravou entram pela soma das pendentes abaixo.
+        Optional<Veiculo> veiculoOptional = veiculoRepository.findParaExclusao(placa);
+        if (veiculoOptional.isEmpty()){
+            logLimitado.avisar(log, "O veículo de placa {} não existe, por isso não foi excluído ", placa);
             throw new RegistroInexistenteException(placa);
         }
-        Optional<Veiculo> veiculoOptional = veiculoRepository.findById(placa);
+        if (versaoEsperada != null && !versaoEsperada.equals(veiculoOptional.get().getVersao())) {
+            throw new VersaoDesatualizadaException(placa);
+        }
         Integer multas = veiculoOptional.get().getQtdMultas();
+        if (acumularMultas) {
+            multas += (int) acumuladorMultas.pendentes(placa);
+        }
         if (multas != 0){
-            log.error("O veículo de placa {} não foi excluído pois há {} multa(s) cadastrada(s). ", placa, multas);
+            logLimitado.avisar(log, "O veículo de placa {} não foi excluído pois há {} multa(s) cadastrada(s). ", placa, multas);
             throw new VeiculoComMultaException(placa);
         }
         veiculoRepository.deleteById(placa);
+        saidaEventos.registrarExclusao(placa);
+        veiculoCache.invalidar(placa);
+        agregadorFrota.registrarExclusao(veiculoOptional.get());
+        versaoFrota.registrarAlteracao();
     }
 
+    @Transactional
     public Veiculo adicionarMulta(String placa) {
-        Veiculo veiculo = veiculoRepository.findById(placa).orElseThrow(() -> new RegistroInexistenteException(placa));
-        Integer multas = veiculo.getQtdMultas()+1;
-        veiculo.setQtdMultas(multas);
-        veiculo = veiculoRepository.save(veiculo);
-        return veiculo;
+        return adicionarMulta(placa, null);
+    }
+
+    /**
+     * Adiciona uma multa se o veículo ainda estiver na versão informada; {@code null} aceita qualquer versão.
+     * Com versão informada a multa vai direto para o banco, mesmo com o acúmulo habilitado, porque só o
+     * UPDATE condicional garante que ninguém alterou o veículo no meio do caminho. Placas fora do formato
+     * de {@link Placa} também vão direto, porque o acumulador guarda as placas pelo código.
+     */
+    @Transactional
+    public Veiculo adicionarMulta(String placa, Long versaoEsperada) {
+        if (versaoEsperada != null) {
+            if (veiculoRepository.incrementarMultasNaVersao(placa, 1, versaoEsperada) == 0) {
+                if (!veiculoRepository.existsVeiculosByPlaca(placa)) {
+                    throw new RegistroInexistenteException(placa);
+                }
+                throw new VersaoDesatualizadaException(placa);
+            }
+        } else if (acumularMultas && Placa.codificavel(placa)) {
+            Veiculo veiculo = veiculoRepository.findById(placa).orElseThrow(() -> new RegistroInexistenteException(placa));
+            long pendentes = acumuladorMultas.registrar(placa);
+            agregadorFrota.registrarMultas(1);
+            // Sem versão, e portanto sem ETag: a multa ainda não está na linha, e a versão lida antes dela
+            // faria o If-Match seguinte falhar, ou casar com uma linha alterada depois.
+            return new Veiculo(veiculo.getPlaca(), veiculo.getTipo(), veiculo.getCor(), veiculo.getAnoDeFabricacao(),
+                    veiculo.getQtdMultas() + (int) pendentes, null);
+        } else if (veiculoRepository.incrementarMultas(placa, 1) == 0) {
+            throw new RegistroInexistenteException(placa);
+        }
+        saidaEventos.registrarMultas(placa, 1);
+        historicoMultas.registrar(placa, 1);
+        veiculoCache.invalidar(placa);
+        agregadorFrota.registrarMultas(1);
+        versaoFrota.registrarAlteracao();
+        return veiculoRepository.findById(placa).orElseThrow(() -> new RegistroInexistenteException(placa));
     }
 }
@@ -0,0 +1,70 @@
+package tech.devinhouse.veiculos.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tech.devinhouse.veiculos.model.AlteracoesFrota;
+import tech.devinhouse.veiculos.repository.AlteracoesFrotaRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de alterações da frota, usado como ETag das listagens. Com banco, cada escrita soma uma
+ * alteração em {@code alteracoes_frota} na própria transação, então todas as instâncias entregam o mesmo
+ * ETag e uma escrita desfeita não o altera. No perfil "memoria" os veículos são do processo e o contador
+ * também: é incrementado depois do commit, com um prefixo aleatório que muda a cada inicialização para
+ * que um contador reiniciado nunca repita um ETag já entregue. Escritas feitas direto no banco não são percebidas.
+ * Em ambos os casos a instância conta as próprias alterações confirmadas, para separar delas as das outras
+ * instâncias ({@link #alteracoesExternas()}).
+ */
+@Component
+public class VersaoFrota {
+
+    private final AlteracoesFrotaRepository alteracoesRepository;
+
+    private final String instancia = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong alteracoes = new AtomicLong();
+
+    @Autowired
+    public VersaoFrota(ObjectProvider<AlteracoesFrotaRepository> alteracoesRepository) {
+        this(alteracoesRepository.getIfAvailable());
+    }
+
+    VersaoFrota(AlteracoesFrotaRepository alteracoesRepository) {
+        this.alteracoesRepository = alteracoesRepository;
+    }
+
+    VersaoFrota() {
+        this((AlteracoesFrotaRepository) null);
+    }
+
+    // A fatia sai da thread, e não da placa, para que uma transação que registre mais de uma alteração
+    // volte sempre à mesma linha e não a bloqueie em ordem diferente de outra transação.
+    public void registrarAlteracao() {
+        if (alteracoesRepository != null) {
+            alteracoesRepository.incrementar((int) Math.floorMod(Thread.currentThread().getId(), AlteracoesFrota.FATIAS));
+        }
+        Transacoes.aposCommit(alteracoes::incrementAndGet);
+    }
+
+    public String etag() {
+        if (alteracoesRepository != null) {
+            return "\"frota-" + alteracoesRepository.somar() + "\"";
+        }
+        return "\"" + instancia + "-" + alteracoes.get() + "\"";
+    }
+
+    /**
+     * Alterações confirmadas no banco por outras instâncias (e as desta ainda a um passo do contador
+     * local). Só a diferença entre duas leituras tem sentido; no perfil "memoria" é sempre zero.
+     */
+    public long alteracoesExternas() {
+        if (alteracoesRepository == null) {
+            return 0;
+        }
+        return alteracoesRepository.somar() - alteracoes.get();
+    }
+
+}
@@ -0,0 +1,75 @@
+-- Database schema for MariaDB 10.3+ (InnoDB, the default engine); also runs on H2 in MariaDB mode.
+-- Applied ahead of deployment, not by the application: the "rapido" profile starts with ddl-auto=none.
+-- Every statement is idempotent, so the script can be re-run against an existing database.
+-- EsquemaTests validates it against the JPA mappings: change both together.
+
+create sequence if not exists seq_eventos_veiculos start with 1 increment by 500;
+
+create table if not exists veiculos (
+    placa varchar(255) not null,
+    ano_de_fabricacao integer,
+    cor varchar(255),
+    qtd_multas integer,
+    tipo varchar(255),
+    versao bigint default 0 not null,
+    primary key (placa)
+);
+
+-- Databases created before the optimistic-locking version existed already have the table without it.
+alter table veiculos add column if not exists versao bigint default 0 not null;
+
+create index if not exists IDX_VEICULOS_TIPO_ANO on veiculos (tipo, ano_de_fabricacao);
+create index if not exists IDX_VEICULOS_COR_ANO on veiculos (cor, ano_de_fabricacao);
+create index if not exists IDX_VEICULOS_ANO_PLACA on veiculos (ano_de_fabricacao, placa);
+create index if not exists IDX_VEICULOS_MULTAS_PLACA on veiculos (qtd_multas, placa);
+
+create table if not exists eventos_veiculos (
+    id bigint not null,
+    momento datetime(6) not null,
+    placa varchar(255) not null,
+    posicao bigint,
+    quantidade integer,
+    tipo varchar(10) not null,
+    veiculo varchar(2000),
+    primary key (id)
+);
+
+create unique index if not exists IDX_EVENTOS_POSICAO on eventos_veiculos (posicao);
+
+create sequence if not exists seq_multas start with 1 increment by 500;
+
+-- Append-only fine records. On MariaDB the table is partitioned by month (the executable comment is skipped
+-- by other databases); ParticoesMultas splits the next months off p_futuro and drops expired partitions.
+-- The partitioning column must be part of the primary key.
+create table if not exists multas (
+    id bigint not null,
+    dia date not null,
+    momento datetime(6) not null,
+    placa varchar(255) not null,
+    quantidade integer not null,
+    primary key (id, dia)
+) /*!50500 partition by range columns (dia) (partition p_futuro values less than (maxvalue)) */;
+
+create index if not exists IDX_MULTAS_PLACA_DIA on multas (placa, dia);
+
+-- Daily totals kept on insert, so history queries read one row per day and not the fine records.
+create table if not exists multas_veiculos_dias (
+    dia date not null,
+    placa varchar(255) not null,
+    quantidade bigint not null,
+    primary key (placa, dia)
+);
+
+create table if not exists multas_dias (
+    dia date not null,
+    fatia integer not null,
+    quantidade bigint not null,
+    primary key (dia, fatia)
+);
+
+-- Fleet change counter behind the list ETag, split in 16 rows so concurrent writers rarely share a row lock.
+create table if not exists alteracoes_frota (
+    fatia integer not null,
+    alteracoes bigint not null,
+    primary key (fatia)
+);
@@ -0,0 +1,171 @@
+package tech.devinhouse.veiculos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.devinhouse.veiculos.dto.ResultadoConsulta;
+import tech.devinhouse.veiculos.dto.ResultadoLote;
+import tech.devinhouse.veiculos.exception.PlacaForaDoFormatoException;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+import tech.devinhouse.veiculos.repository.EventoVeiculoRepository;
+import tech.devinhouse.veiculos.repository.MultaRepository;
+import tech.devinhouse.veiculos.repository.VeiculoRepositoryMemoria;
+import tech.devinhouse.veiculos.service.HistoricoMultas;
+import tech.devinhouse.veiculos.service.SaidaEventos;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Os testes compartilham o contexto e o armazenamento: cada um usa as próprias placas.
+@SpringBootTest
+@ActiveProfiles({"test", "memoria"})
+@DirtiesContext
+class ArmazenamentoMemoriaTests {
+
+    @TempDir
+    static Path diretorio;
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registro) {
+        registro.add("veiculos.memoria.diretorio", diretorio::toString);
+    }
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private ArmazenamentoVeiculos veiculoRepository;
+
+    @Autowired
+    private TransactionTemplate transacao;
+
+    @Autowired
+    private SaidaEventos saidaEventos;
+
+    @Autowired
+    private HistoricoMultas historicoMultas;
+
+    @Test
+    @DisplayName("Cadastra no armazenamento em memória e recusa placa repetida ou consulta de placa inexistente")
+    void cadastra_e_consulta() {
+        // given
+        assertInstanceOf(VeiculoRepositoryMemoria.class, veiculoRepository);
+        //when
+        service.criar(new Veiculo("MEM1000", "Clio", "vermelho", 2002));
+        //then
+        assertEquals("Clio", service.consultar("MEM1000").get(0).getTipo());
+        assertThrows(RegistroExistenteException.class, () -> service.criar(new Veiculo("MEM1000", "Clio", "vermelho", 2002)));
+        assertThrows(RegistroInexistenteException.class, () -> service.consultar("MEM1099"));
+    }
+
+    @Test
+    @DisplayName("Sobe com o feed e o histórico desligados e não aceita ligá-los sem JPA")
+    void feed_e_historico_exigem_jpa() {
+        // given
+        var semJpa = new StaticListableBeanFactory();
+        //then
+        assertFalse(saidaEventos.isHabilitada());
+        assertFalse(historicoMultas.isHabilitado());
+        assertThrows(IllegalStateException.class,
+                () -> new SaidaEventos(semJpa.getBeanProvider(EventoVeiculoRepository.class), new ObjectMapper(), true));
+        assertThrows(IllegalStateException.class,
+                () -> new HistoricoMultas(semJpa.getBeanProvider(MultaRepository.class), true, ZoneId.of("UTC")));
+    }
+
+    @Test
+    @DisplayName("Recusa placa fora do formato codificado, sozinha ou em lote, sem gravar nada")
+    void recusa_placa_fora_do_formato() {
+        //when
+        assertThrows(PlacaForaDoFormatoException.class, () -> service.criar(new Veiculo("mem-3000", "Clio", "vermelho", 2002)));
+        assertThrows(PlacaForaDoFormatoException.class, () -> service.criarEmLote(List.of(
+                new Veiculo("MEM3001", "Jetta", "prata", 2012),
+                new Veiculo("mem-3002", "Gol", "azul", 2010))));
+        //then
+        assertFalse(veiculoRepository.existsVeiculosByPlaca("MEM3001"));
+    }
+
+    @Test
+    @DisplayName("Cadastra em lote só as placas novas e informa as conflitantes")
+    void cadastra_lote() {
+        // given
+        service.criar(new Veiculo("MEM2000", "Clio", "vermelho", 2002));
+        //when
+        ResultadoLote lote = service.criarEmLote(List.of(
+                new Veiculo("MEM2001", "Jetta", "prata", 2012),
+                new Veiculo("MEM2000", "Clio", "vermelho", 2002),
+                new Veiculo("MEM2002", "Gol", "azul", 2010)));
+        //then
+        assertEquals(List.of("MEM2001", "MEM2002"), lote.getCriadas());
+        assertEquals(List.of("MEM2000"), lote.getConflitantes());
+        assertEquals(List.of("MEM2001"), service.consultarPagina("MEM2000", 1).stream().map(Veiculo::getPlaca).toList());
+    }
+
+    @Test
+    @DisplayName("Aplica multas e só exclui veículos sem multa")
+    void multa_e_exclui() {
+        // given
+        service.criarEmLote(List.of(new Veiculo("MEM3000", "Clio", "vermelho", 2002), new Veiculo("MEM3001", "Gol", "azul", 2010)));
+        //when
+        Veiculo multado = service.adicionarMulta("MEM3000");
+        service.excluir("MEM3001");
+        //then
+        assertEquals(1, multado.getQtdMultas());
+        assertEquals(1, service.consultar("MEM3000").get(0).getQtdMultas());
+        assertThrows(RegistroInexistenteException.class, () -> service.adicionarMulta("MEM3099"));
+        assertThrows(VeiculoComMultaException.class, () -> service.excluir("MEM3000"));
+        assertThrows(RegistroInexistenteException.class, () -> service.excluir("MEM3001"));
+        ResultadoConsulta consulta = service.consultarPlacas(List.of("MEM3000", "MEM3001"));
+        assertEquals(List.of("MEM3000"), consulta.getVeiculos().stream().map(Veiculo::getPlaca).toList());
+        assertEquals(List.of("MEM3001"), consulta.getInexistentes());
+    }
+
+    @Test
+    @DisplayName("Mantém as estatísticas da frota a cada escrita")
+    void estatisticas() {
+        // given
+        long total = service.estatisticas().getTotal();
+        long multas = service.estatisticas().getTotalMultas();
+        //when
+        service.criar(new Veiculo("MEM4000", "Clio", "vermelho", 2002));
+        service.adicionarMulta("MEM4000");
+        //then
+        assertEquals(total + 1, service.estatisticas().getTotal());
+        assertEquals(multas + 1, service.estatisticas().getTotalMultas());
+    }
+
+    @Test
+    @DisplayName("Desfaz no rollback as escritas feitas pela transação")
+    void desfaz_no_rollback() {
+        // given
+        service.criar(new Veiculo("MEM5000", "Clio", "vermelho", 2002));
+        //when
+        assertThrows(IllegalStateException.class, () -> transacao.executeWithoutResult(status -> {
+            veiculoRepository.incrementarMultas("MEM5000", 2);
+            veiculoRepository.inserir(new Veiculo("MEM5001", "Gol", "azul", 2010));
+            veiculoRepository.deleteById("MEM5000");
+            throw new IllegalStateException("falha depois das escritas");
+        }));
+        //then
+        Veiculo restaurado = veiculoRepository.findById("MEM5000").orElseThrow();
+        assertEquals(0, restaurado.getQtdMultas());
+        assertEquals(0L, restaurado.getVersao());
+        assertFalse(veiculoRepository.existsVeiculosByPlaca("MEM5001"));
+    }
+}
@@ -0,0 +1,63 @@
+package tech.devinhouse.veiculos;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.EventoVeiculoRepository;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// O perfil "rapido" não cria nem altera o esquema: aqui o script versionado é aplicado num banco vazio
+// e o Hibernate só o valida contra os mapeamentos, falhando a subida do contexto se divergirem.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:esquema;MODE=MariaDB;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/esquema.sql",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@ActiveProfiles({"test", "rapido"})
+class EsquemaTests {
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private EventoVeiculoRepository eventoRepository;
+
+    @Test
+    @DisplayName("O script de esquema corresponde aos mapeamentos e aceita cadastro, multa e exclusão")
+    void esquema_versionado() {
+        service.criar(new Veiculo("ESQ0001", "Clio", "vermelho", 2002));
+        service.adicionarMulta("ESQ0001");
+        service.criar(new Veiculo("ESQ0002", "Jetta", "prata", 2012));
+        service.excluir("ESQ0002");
+
+        assertEquals(1, service.consultar("ESQ0001").get(0).getQtdMultas());
+        assertEquals(4, eventoRepository.count());
+    }
+
+    @Test
+    @DisplayName("O script atualiza uma tabela de veículos criada antes da coluna de versão")
+    void atualiza_esquema_antigo() {
+        // given
+        DataSource antigo = new DriverManagerDataSource("jdbc:h2:mem:esquema-antigo;MODE=MariaDB;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(antigo);
+        jdbc.execute("create table veiculos (placa varchar(255) not null, ano_de_fabricacao integer, cor varchar(255), "
+                + "qtd_multas integer, tipo varchar(255), primary key (placa))");
+        jdbc.update("insert into veiculos (placa, tipo, cor, ano_de_fabricacao, qtd_multas) values ('ESQ0003', 'Gol', 'azul', 2010, 2)");
+        //when
+        new ResourceDatabasePopulator(new ClassPathResource("db/esquema.sql")).execute(antigo);
+        //then
+        assertEquals(0L, jdbc.queryForObject("select versao from veiculos where placa = 'ESQ0003'", Long.class));
+    }
+
+}
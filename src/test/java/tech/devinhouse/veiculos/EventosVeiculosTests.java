@@ -0,0 +1,104 @@
+package tech.devinhouse.veiculos;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.devinhouse.veiculos.controller.EventosController;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.model.EventoVeiculo;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.EventoVeiculoRepository;
+import tech.devinhouse.veiculos.service.PublicadorEventos;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventosVeiculosTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private PublicadorEventos publicador;
+
+    @Autowired
+    private EventoVeiculoRepository eventoRepository;
+
+    @Test
+    @DisplayName("Publica as alterações confirmadas em posições contínuas e as entrega no feed a partir do Last-Event-ID")
+    void publica_e_entrega_eventos() throws Exception {
+        // given
+        publicador.publicar();
+        long inicio = eventoRepository.ultimaPosicao();
+        service.criar(new Veiculo("EVT0001", "Clio", "vermelho", 2002));
+        service.criar(new Veiculo("EVT0002", "Jetta", "prata", 2012));
+        service.adicionarMulta("EVT0001");
+        service.excluir("EVT0002");
+        assertThrows(RegistroExistenteException.class, () -> service.criar(new Veiculo("EVT0001", "Gol", "branco", 2010)));
+        //when
+        publicador.publicar();
+        //then
+        List<EventoVeiculo> publicados = eventoRepository.findByPosicaoGreaterThanOrderByPosicaoAsc(inicio, PageRequest.of(0, 100));
+        for (int i = 0; i < publicados.size(); i++) {
+            assertEquals(inicio + i + 1, publicados.get(i).getPosicao());
+        }
+        List<EventoVeiculo> eventos = publicados.stream().filter(e -> e.getPlaca().startsWith("EVT")).toList();
+        assertEquals(List.of(EventoVeiculo.Tipo.CRIADO, EventoVeiculo.Tipo.CRIADO, EventoVeiculo.Tipo.MULTADO, EventoVeiculo.Tipo.EXCLUIDO),
+                eventos.stream().map(EventoVeiculo::getTipo).toList());
+        assertEquals(1, eventos.get(2).getQuantidade());
+
+        MvcResult resultado = mockMvc.perform(get("/api/veiculos/eventos").header(EventosController.HEADER_ULTIMO_EVENTO, inicio))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String feed = "";
+        for (int tentativa = 0; tentativa < 50 && !feed.contains("event:excluido"); tentativa++) {
+            Thread.sleep(100);
+            feed = resultado.getResponse().getContentAsString();
+        }
+        assertTrue(feed.contains("id:" + eventos.get(0).getPosicao() + "\nevent:criado\n"), feed);
+        assertTrue(feed.contains("\"placa\":\"EVT0002\""), feed);
+        assertTrue(feed.contains("event:multado"), feed);
+        assertTrue(feed.contains("event:excluido"), feed);
+        assertFalse(feed.contains("id:" + inicio + "\n"), feed);
+    }
+
+    @Test
+    @DisplayName("Entrega aos assinantes eventos numerados por outra instância")
+    void entrega_eventos_de_outra_instancia() throws Exception {
+        // given
+        publicador.publicar();
+        long inicio = eventoRepository.ultimaPosicao();
+        MvcResult resultado = mockMvc.perform(get("/api/veiculos/eventos").header(EventosController.HEADER_ULTIMO_EVENTO, inicio))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // A assinatura faz a primeira leitura em segundo plano; o evento precisa chegar depois dela.
+        Thread.sleep(500);
+        EventoVeiculo evento = new EventoVeiculo(EventoVeiculo.Tipo.MULTADO, "EVT0010", 1, null);
+        evento.setPosicao(inicio + 1);
+        eventoRepository.save(evento);
+        //when
+        publicador.publicar();
+        //then
+        String feed = "";
+        for (int tentativa = 0; tentativa < 50 && !feed.contains("EVT0010"); tentativa++) {
+            Thread.sleep(100);
+            feed = resultado.getResponse().getContentAsString();
+        }
+        assertTrue(feed.contains("id:" + (inicio + 1) + "\nevent:multado\n"), feed);
+    }
+
+}
@@ -0,0 +1,57 @@
+package tech.devinhouse.veiculos;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:filtro;MODE=MariaDB;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "veiculos.filtro.habilitado=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@DirtiesContext
+class FiltroPlacasTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @DisplayName("Responde 404 sem nenhum comando SQL para placas que o filtro habilitado dá como ausentes")
+    void placa_ausente_sem_sql() throws Exception {
+        // given
+        service.criar(new Veiculo("FLT0001", "Clio", "vermelho", 2002));
+        //when
+        mockMvc.perform(get("/api/veiculos/{placa}", "FLT0002")).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/veiculos/{placa}", "FLT0002")).andExpect(status().isNotFound());
+        //then
+        for (String metodo : new String[]{"GET", "DELETE"}) {
+            DistributionSummary comandos = registry.get("veiculos.sql.requisicao")
+                    .tag("method", metodo).tag("uri", "/api/veiculos/{placa}").summary();
+            assertEquals(1, comandos.count());
+            assertEquals(0, comandos.totalAmount(), metodo);
+        }
+        mockMvc.perform(get("/api/veiculos/{placa}", "FLT0001")).andExpect(status().isOk());
+    }
+
+}
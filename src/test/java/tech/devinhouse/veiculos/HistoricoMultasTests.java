@@ -0,0 +1,85 @@
+package tech.devinhouse.veiculos;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.MultaRepository;
+import tech.devinhouse.veiculos.service.ImportadorMultas;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class HistoricoMultasTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private ImportadorMultas importadorMultas;
+
+    @Autowired
+    private MultaRepository multaRepository;
+
+    @Test
+    @DisplayName("Registra cada multa e mantém os totais do dia por veículo e da frota")
+    void registra_e_consulta_historico() throws Exception {
+        // given
+        String hoje = LocalDate.now(ZoneId.of("America/Sao_Paulo")).toString();
+        long frotaAntes = totalFrotaHoje(hoje);
+        long registrosAntes = multaRepository.count();
+        service.criar(new Veiculo("HIS0001", "Clio", "vermelho", 2002));
+        service.criar(new Veiculo("HIS0002", "Jetta", "prata", 2012));
+        service.adicionarMulta("HIS0001");
+        service.adicionarMulta("HIS0001");
+        service.adicionarMulta("HIS0002");
+        //when
+        importadorMultas.importarCsv(new ByteArrayInputStream("HIS0001,3\nHIS0002\nHIS0003\n".getBytes(StandardCharsets.UTF_8)));
+        //then
+        assertEquals(registrosAntes + 5, multaRepository.count());
+        mockMvc.perform(get("/api/veiculos/HIS0001/multas").param("dias", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.ate").value(hoje))
+                .andExpect(jsonPath("$.dias", hasSize(1)))
+                .andExpect(jsonPath("$.dias[0].dia").value(hoje))
+                .andExpect(jsonPath("$.dias[0].quantidade").value(5));
+        mockMvc.perform(get("/api/veiculos/HIS0002/multas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2));
+        assertEquals(frotaAntes + 7, totalFrotaHoje(hoje));
+    }
+
+    @Test
+    @DisplayName("Retorna 404 para o histórico de uma placa não cadastrada")
+    void historico_placaInexistente() throws Exception {
+        mockMvc.perform(get("/api/veiculos/HIS9999/multas"))
+                .andExpect(status().isNotFound());
+    }
+
+    private long totalFrotaHoje(String hoje) throws Exception {
+        String corpo = mockMvc.perform(get("/api/veiculos/multas/diarias").param("de", hoje).param("ate", hoje))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<java.util.List<Integer>>read(corpo, "$[*].quantidade").stream().mapToLong(Integer::longValue).sum();
+    }
+
+}
@@ -0,0 +1,71 @@
+package tech.devinhouse.veiculos;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricasTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @DisplayName("Registra erros de domínio, tempo do serviço e comandos SQL por requisição")
+    void metricas() throws Exception {
+        mockMvc.perform(get("/api/veiculos/{placa}", "MFW7020")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/veiculos")).andExpect(status().isOk());
+
+        assertEquals(1, registry.get("veiculos.erros").tag("tipo", "RegistroInexistenteException").counter().count());
+        assertEquals(1, registry.get("veiculos.servico").tag("method", "consultar").tag("exception", "none").timer().count());
+        assertTrue(registry.get("veiculos.sql.requisicao").tag("uri", "/api/veiculos").summary().totalAmount() >= 1);
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")));
+    }
+
+    @Test
+    @DisplayName("Conta na requisição os comandos SQL do stream NDJSON executados na thread assíncrona")
+    void metricas_streamAssincrono() throws Exception {
+        // given
+        mockMvc.perform(get("/api/veiculos")).andExpect(status().isOk());
+        DistributionSummary resumo = registry.get("veiculos.sql.requisicao")
+                .tag("method", "GET").tag("uri", "/api/veiculos").summary();
+        long requisicoes = resumo.count();
+        double comandos = resumo.totalAmount();
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/veiculos").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+
+        //then
+        assertEquals(requisicoes + 1, resumo.count());
+        // a versão da frota, lida na thread da requisição, e a consulta do stream, na thread do executor
+        assertEquals(comandos + 2, resumo.totalAmount());
+    }
+
+}
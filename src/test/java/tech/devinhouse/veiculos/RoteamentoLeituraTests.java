@@ -0,0 +1,112 @@
+package tech.devinhouse.veiculos;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import javax.sql.DataSource;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Dois H2 em memória fazem o papel de primário e réplica; a "replicação" é feita à mão pelo teste.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:roteamento-primario;MODE=MariaDB;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "veiculos.replica.jdbc-url=jdbc:h2:mem:roteamento-replica;MODE=MariaDB;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "veiculos.replica.janela-leitura-primario=1m"})
+@AutoConfigureMockMvc
+class RoteamentoLeituraTests {
+
+    private static final String VEICULO = "{\"placa\":\"RTA0001\",\"tipo\":\"Clio\",\"cor\":\"vermelho\",\"anoDeFabricacao\":2002}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    @Qualifier("dataSourcePrimario")
+    private DataSource primario;
+
+    @Autowired
+    @Qualifier("dataSourceReplica")
+    private DataSource replica;
+
+    @BeforeEach
+    void copiarEsquema() {
+        JdbcTemplate jdbcReplica = new JdbcTemplate(replica);
+        jdbcReplica.execute("drop all objects");
+        for (String comando : new JdbcTemplate(primario).queryForList("script nodata nopasswords nosettings", String.class)) {
+            if (!comando.startsWith("CREATE USER")) {
+                jdbcReplica.execute(comando);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Lê da réplica, escreve no primário e lê as próprias escritas no primário durante a janela")
+    void roteia_leituras_e_escritas() throws Exception {
+        MvcResult criacao = mockMvc.perform(post("/api/veiculos").contentType(MediaType.APPLICATION_JSON).content(VEICULO))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists("veiculos-primario"))
+                .andReturn();
+        Cookie primario = criacao.getResponse().getCookie("veiculos-primario");
+
+        // Outro cliente, sem o cookie: a réplica ainda não recebeu o veículo.
+        mockMvc.perform(get("/api/veiculos").param("tamanho", "10")).andExpect(jsonPath("$.length()", is(0)));
+        // Quem escreveu lê do primário.
+        mockMvc.perform(get("/api/veiculos/{placa}", "RTA0001").cookie(primario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tipo", is("Clio")));
+
+        new JdbcTemplate(replica).update("insert into veiculos (placa, tipo, cor, ano_de_fabricacao, qtd_multas, versao) values (?, ?, ?, ?, ?, ?)",
+                "RTA0001", "Clio", "vermelho", 2002, 0, 0);
+        mockMvc.perform(get("/api/veiculos").param("tamanho", "10")).andExpect(jsonPath("$[0].placa", is("RTA0001")));
+    }
+
+    @Test
+    @DisplayName("Escritas e releituras dentro de transações de escrita nunca vão para a réplica")
+    void escritas_no_primario() {
+        service.criar(new Veiculo("RTA0002", "Jetta", "prata", 2012));
+        Veiculo multado = service.adicionarMulta("RTA0002");
+        assertEquals(1, multado.getQtdMultas());
+        assertEquals(1, new JdbcTemplate(primario).queryForObject("select qtd_multas from veiculos where placa = 'RTA0002'", Integer.class));
+        assertEquals(0, new JdbcTemplate(replica).queryForObject("select count(*) from veiculos", Integer.class));
+    }
+
+
+    @Test
+    @DisplayName("O cache de veículos é preenchido pelo primário, nunca pela réplica atrasada")
+    void cache_preenchido_pelo_primario() throws Exception {
+        // given
+        service.criar(new Veiculo("RTA0003", "Gol", "branco", 2010));
+        service.adicionarMulta("RTA0003");
+        new JdbcTemplate(replica).update("insert into veiculos (placa, tipo, cor, ano_de_fabricacao, qtd_multas, versao) values (?, ?, ?, ?, ?, ?)",
+                "RTA0003", "Gol", "branco", 2010, 0, 0);
+        //when
+        mockMvc.perform(get("/api/veiculos/{placa}", "RTA0003")).andExpect(status().isOk());
+        //then
+        mockMvc.perform(get("/api/veiculos/{placa}", "RTA0003"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].qtdMultas", is(1)));
+        assertEquals(1L, service.versao("RTA0003").orElseThrow());
+    }
+
+}
@@ -0,0 +1,131 @@
+package tech.devinhouse.veiculos;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.VeiculoRepository;
+import tech.devinhouse.veiculos.service.VeiculoService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshots;MODE=MariaDB;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "veiculos.snapshot.paralelismo=2"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+class SnapshotFrotaTests {
+
+    @TempDir
+    static Path diretorio;
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registro) {
+        registro.add("veiculos.snapshot.diretorio", diretorio::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Exporta a frota, recebe o arquivo de volta e importa só os veículos que faltam, com as multas")
+    void exporta_e_importa() throws Exception {
+        // given
+        for (int i = 0; i < 5000; i++) {
+            service.criar(new Veiculo(String.format("SNP%04d", i), i % 2 == 0 ? "Clio" : "Jetta", "prata", 2000 + i % 20));
+        }
+        service.adicionarMulta("SNP0001");
+        service.adicionarMulta("SNP0001");
+        mockMvc.perform(post("/api/admin/snapshots/frota.vsnp/exportacao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processados").value(5000));
+        byte[] arquivo = mockMvc.perform(get("/api/admin/snapshots/frota.vsnp"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(put("/api/admin/snapshots/copia.vsnp").contentType(MediaType.APPLICATION_OCTET_STREAM).content(arquivo))
+                .andExpect(status().isOk());
+        veiculoRepository.deleteAllById(List.of("SNP0001", "SNP4999"));
+        //when
+        mockMvc.perform(post("/api/admin/snapshots/copia.vsnp/importacao"))
+        //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5000))
+                .andExpect(jsonPath("$.criados").value(2))
+                .andExpect(jsonPath("$.existentes").value(4998));
+        assertEquals(2, veiculoRepository.findById("SNP0001").orElseThrow().getQtdMultas());
+        assertTrue(veiculoRepository.existsById("SNP4999"));
+        assertTrue(Files.size(diretorio.resolve("frota.vsnp")) < 5000 * 24);
+        mockMvc.perform(get("/api/admin/snapshots/progresso"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operacao").value("importacao"));
+    }
+
+    @Test
+    @DisplayName("Importa os veículos válidos e conta os que a API recusaria")
+    void ignora_veiculos_invalidos() throws Exception {
+        // given
+        service.criar(new Veiculo("SNV0001", "Clio", "prata", 2010));
+        jdbcTemplate.update("insert into veiculos (placa, tipo, cor, ano_de_fabricacao, qtd_multas, versao) values ('snv-02', 'Clio', 'prata', 2010, 0, 0)");
+        jdbcTemplate.update("insert into veiculos (placa, tipo, cor, ano_de_fabricacao, qtd_multas, versao) values ('SNV0003', 'Clio', 'prata', 2010, null, 0)");
+        mockMvc.perform(post("/api/admin/snapshots/invalidos.vsnp/exportacao"))
+                .andExpect(status().isOk());
+        jdbcTemplate.update("delete from veiculos where placa in ('SNV0001', 'snv-02', 'SNV0003')");
+        //when
+        mockMvc.perform(post("/api/admin/snapshots/invalidos.vsnp/importacao"))
+        //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criados").value(2))
+                .andExpect(jsonPath("$.invalidos").value(1))
+                .andExpect(jsonPath("$.erro").doesNotExist());
+        assertTrue(veiculoRepository.existsById("SNV0001"));
+        // O banco aceita a placa fora do formato codificado; só o armazenamento em memória a recusaria.
+        assertTrue(veiculoRepository.existsById("snv-02"));
+        assertFalse(veiculoRepository.existsById("SNV0003"));
+        veiculoRepository.deleteById("SNV0001");
+        veiculoRepository.deleteById("snv-02");
+    }
+
+    @Test
+    @DisplayName("Recusa um arquivo corrompido antes de gravar qualquer veículo e nomes com caminho")
+    void recusa_arquivo_invalido() throws Exception {
+        //when
+        mockMvc.perform(put("/api/admin/snapshots/lixo.vsnp").contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[64]))
+                .andExpect(status().isOk());
+        //then
+        mockMvc.perform(post("/api/admin/snapshots/lixo.vsnp/importacao"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/api/admin/snapshots/..lixo/importacao"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/admin/snapshots/inexistente.vsnp/importacao"))
+                .andExpect(status().isNotFound());
+    }
+
+}
@@ -0,0 +1,55 @@
+package tech.devinhouse.veiculos;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import tech.devinhouse.veiculos.exception.RegistroExistenteException;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.VeiculoService;
+import tech.devinhouse.veiculos.service.VersaoFrota;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class VersaoFrotaTests {
+
+    @Autowired
+    private VeiculoService service;
+
+    @Autowired
+    private ApplicationContext contexto;
+
+    @Test
+    @DisplayName("O ETag da frota vem do banco: outra instância vê a mesma versão e escritas desfeitas não a mudam")
+    void etag_compartilhado() {
+        // given
+        VersaoFrota outraInstancia = contexto.getAutowireCapableBeanFactory().createBean(VersaoFrota.class);
+        String antes = service.versaoFrota();
+        //when
+        service.criar(new Veiculo("ETG0001", "Clio", "vermelho", 2002));
+        String depois = service.versaoFrota();
+        assertThrows(RegistroExistenteException.class, () -> service.criar(new Veiculo("ETG0001", "Clio", "vermelho", 2002)));
+        //then
+        assertNotEquals(antes, depois);
+        assertEquals(depois, outraInstancia.etag());
+        assertEquals(depois, service.versaoFrota());
+    }
+
+    @Test
+    @DisplayName("Cada instância separa as alterações das outras das próprias")
+    void alteracoes_externas() {
+        // given
+        VersaoFrota estaInstancia = contexto.getBean(VersaoFrota.class);
+        VersaoFrota outraInstancia = contexto.getAutowireCapableBeanFactory().createBean(VersaoFrota.class);
+        long propriasAntes = estaInstancia.alteracoesExternas();
+        long daOutraAntes = outraInstancia.alteracoesExternas();
+        //when
+        service.criar(new Veiculo("ETG0002", "Clio", "vermelho", 2002));
+        //then
+        assertEquals(propriasAntes, estaInstancia.alteracoesExternas());
+        assertEquals(daOutraAntes + 1, outraInstancia.alteracoesExternas());
+    }
+
+}
@@ -0,0 +1,77 @@
+package tech.devinhouse.veiculos.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tech.devinhouse.veiculos.service.LimiteAdaptativo;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroAdmissaoTest {
+
+    private final LimiteAdaptativo pontuais = new LimiteAdaptativo("pontual", 1, 1, 1, Duration.ofSeconds(1), 0.5, Duration.ofSeconds(1));
+
+    private final LimiteAdaptativo pesadas = new LimiteAdaptativo("pesada", 1, 1, 1, Duration.ofSeconds(1), 0.5, Duration.ofSeconds(5));
+
+    private final FiltroAdmissao filtro = new FiltroAdmissao(pontuais, pesadas);
+
+    @Test
+    @DisplayName("Recusa com 503 e Retry-After quando o limite da categoria está em uso, sem afetar a outra")
+    void recusa_acimaDoLimite() throws Exception {
+        // given
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        MockHttpServletResponse pontual = new MockHttpServletResponse();
+        //when
+        filtro.doFilter(requisicao("GET", "/api/veiculos"), new MockHttpServletResponse(), (req, res) -> {
+            filtro.doFilter(requisicao("POST", "/api/veiculos/lote"), recusada, (r, s) -> fail("Requisição pesada admitida acima do limite"));
+            filtro.doFilter(requisicao("GET", "/api/veiculos/MFW7020"), pontual, (r, s) -> { });
+        });
+        MockHttpServletResponse depois = new MockHttpServletResponse();
+        filtro.doFilter(requisicao("GET", "/api/veiculos"), depois, (req, res) -> { });
+        //then
+        assertEquals(503, recusada.getStatus());
+        assertEquals("5", recusada.getHeader("Retry-After"));
+        assertTrue(recusada.getContentAsString().contains("erro"));
+        assertEquals(200, pontual.getStatus());
+        assertEquals(200, depois.getStatus());
+        assertEquals(1, pesadas.getRejeitadas());
+        assertEquals(0, pesadas.getEmUso());
+    }
+
+    @Test
+    @DisplayName("Mantém a vaga de uma resposta assíncrona até ela terminar")
+    void libera_aoTerminarAssincrona() throws Exception {
+        // given
+        MockHttpServletRequest requisicao = requisicao("GET", "/api/veiculos");
+        requisicao.setAsyncSupported(true);
+        //when
+        filtro.doFilter(requisicao, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        int durante = pesadas.getEmUso();
+        requisicao.getAsyncContext().complete();
+        //then
+        assertEquals(1, durante);
+        assertEquals(0, pesadas.getEmUso());
+    }
+
+    @Test
+    @DisplayName("Separa listagens completas e operações em lote das consultas pontuais e multas")
+    void classifica_requisicoes() {
+        assertTrue(FiltroAdmissao.pesada(requisicao("GET", "/api/veiculos"), ""));
+        assertTrue(FiltroAdmissao.pesada(requisicao("POST", "/api/veiculos/multas"), "/multas"));
+        assertTrue(FiltroAdmissao.pesada(requisicao("GET", "/api/veiculos/pesquisa"), "/pesquisa"));
+        MockHttpServletRequest pagina = requisicao("GET", "/api/veiculos");
+        pagina.setParameter("tamanho", "100");
+        assertFalse(FiltroAdmissao.pesada(pagina, ""));
+        assertFalse(FiltroAdmissao.pesada(requisicao("POST", "/api/veiculos"), ""));
+        assertFalse(FiltroAdmissao.pesada(requisicao("PUT", "/api/veiculos/MFW7020/multas"), "/MFW7020/multas"));
+        assertFalse(FiltroAdmissao.pesada(requisicao("GET", "/api/veiculos/MFW7020"), "/MFW7020"));
+    }
+
+    private static MockHttpServletRequest requisicao(String metodo, String caminho) {
+        return new MockHttpServletRequest(metodo, caminho);
+    }
+
+}
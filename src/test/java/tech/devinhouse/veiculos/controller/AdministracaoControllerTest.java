@@ -0,0 +1,55 @@
+package tech.devinhouse.veiculos.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.devinhouse.veiculos.dto.EstatisticasCache;
+import tech.devinhouse.veiculos.dto.EstatisticasFiltro;
+import tech.devinhouse.veiculos.service.FiltroPlacas;
+import tech.devinhouse.veiculos.service.VeiculoCache;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdministracaoController.class)
+class AdministracaoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private VeiculoCache veiculoCache;
+
+    @MockBean
+    private FiltroPlacas filtroPlacas;
+
+    @Test
+    @DisplayName("Retorna os contadores do cache de veículos")
+    void consultar_cache() throws Exception {
+        Mockito.when(veiculoCache.estatisticas()).thenReturn(new EstatisticasCache(true, 3, 10, 2, 1, 10 / 12.0));
+        mockMvc.perform(get("/api/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.acertos", is(10)))
+                .andExpect(jsonPath("$.falhas", is(2)))
+                .andExpect(jsonPath("$.remocoes", is(1)));
+    }
+
+    @Test
+    @DisplayName("Reconstrói o filtro de placas e retorna seu tamanho em memória")
+    void reconstruir_filtro() throws Exception {
+        Mockito.when(filtroPlacas.reconstruir())
+                .thenReturn(new EstatisticasFiltro(true, true, 200_000, 2, 1_917_056, 7, 239_632, 0.01, 0.0));
+        mockMvc.perform(post("/api/admin/filtro/reconstrucao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.construido", is(true)))
+                .andExpect(jsonPath("$.bytes", is(239_632)));
+    }
+
+}
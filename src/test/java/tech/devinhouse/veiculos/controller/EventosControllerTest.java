@@ -0,0 +1,45 @@
+package tech.devinhouse.veiculos.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.devinhouse.veiculos.service.PublicadorEventos;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EventosController.class)
+class EventosControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PublicadorEventos publicador;
+
+    @Test
+    @DisplayName("Retoma o feed a partir do Last-Event-ID, que prevalece sobre o parâmetro apos")
+    void retoma_pelo_ultimo_evento() throws Exception {
+        Mockito.when(publicador.isHabilitado()).thenReturn(true);
+        Mockito.when(publicador.assinar(42)).thenReturn(new SseEmitter());
+        mockMvc.perform(get("/api/veiculos/eventos").param("apos", "7").header(EventosController.HEADER_ULTIMO_EVENTO, "42"))
+                .andExpect(request().asyncStarted());
+        Mockito.verify(publicador).assinar(42);
+    }
+
+    @Test
+    @DisplayName("Retorna erro 404 quando o feed de eventos está desabilitado")
+    void feed_desabilitado() throws Exception {
+        Mockito.when(publicador.isHabilitado()).thenReturn(false);
+        mockMvc.perform(get("/api/veiculos/eventos"))
+                .andExpect(status().isNotFound());
+        Mockito.verify(publicador, Mockito.never()).assinar(Mockito.anyLong());
+    }
+
+}
@@ -1,6 +1,10 @@
 package tech.devinhouse.veiculos.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,27 +12,45 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.devinhouse.veiculos.config.FormatosBinariosConfig;
+import tech.devinhouse.veiculos.dto.EstatisticasFrota;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.dto.ResultadoConsulta;
+import tech.devinhouse.veiculos.dto.ResultadoImportacaoMultas;
+import tech.devinhouse.veiculos.dto.ResultadoLote;
+import tech.devinhouse.veiculos.exception.PlacaForaDoFormatoException;
 import tech.devinhouse.veiculos.exception.RegistroExistenteException;
 import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
 import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.exception.VersaoDesatualizadaException;
 import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.service.ImportadorMultas;
 import tech.devinhouse.veiculos.service.VeiculoService;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @ExtendWith(SpringExtension.class)
-@WebMvcTest
+@WebMvcTest(VeiculosController.class)
+@Import(FormatosBinariosConfig.class)
 class VeiculosControllerTest {
 
     @Autowired
@@ -40,6 +62,14 @@ class VeiculosControllerTest {
     @MockBean  // mock para dependencias da classe de controller
     private VeiculoService service;
 
+    @MockBean
+    private ImportadorMultas importadorMultas;
+
+    @BeforeEach
+    void versaoFrota() {
+        Mockito.when(service.versaoFrota()).thenReturn("\"frota-1\"");
+    }
+
     @Test
     @DisplayName("Retorna lista vazia quando não tem registros")
     void consultar_listaVazia() throws Exception {
@@ -63,6 +93,158 @@ class VeiculosControllerTest {
                   .andExpect(jsonPath("$[1].qtdMultas", is(veiculos.get(1).getQtdMultas())));
     }
 
+    @Test
+    @DisplayName("Retorna a lista em CBOR quando o cliente aceita CBOR, com os mesmos campos do JSON")
+    void consultar_lista_cbor() throws Exception {
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002, 0, 3L),
+                new Veiculo("MFW7021", "Jetta","prata", 2012, 2, 0L));
+        Mockito.when(service.consultar()).thenReturn(veiculos);
+        MvcResult resultado = mockMvc.perform(get("/api/veiculos").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn();
+        byte[] cbor = resultado.getResponse().getContentAsByteArray();
+        byte[] json = objectMapper.writeValueAsBytes(veiculos);
+        List<Map<String, Object>> lidos = new CBORMapper().readValue(cbor, new TypeReference<>() {});
+        assertEquals(objectMapper.readValue(json, new TypeReference<List<Map<String, Object>>>() {}), lidos);
+        assertTrue(cbor.length < json.length);
+    }
+
+    @Test
+    @DisplayName("Retorna o veículo em Smile quando solicitado e continua em JSON sem Accept")
+    void consultar_placa_smile() throws Exception {
+        Veiculo veiculo = new Veiculo("MFW7020", "Clio","vermelho", 2002, 1, 4L);
+        Mockito.when(service.consultar("MFW7020")).thenReturn(List.of(veiculo));
+        MvcResult resultado = mockMvc.perform(get("/api/veiculos/{placa}", "MFW7020").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andReturn();
+        List<Veiculo> lidos = new SmileMapper().readValue(resultado.getResponse().getContentAsByteArray(), new TypeReference<>() {});
+        assertEquals("Clio", lidos.get(0).getTipo());
+        mockMvc.perform(get("/api/veiculos/{placa}", "MFW7020"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].versao", is(4)));
+    }
+
+    @Test
+    @DisplayName("Retorna página ordenada com cursor para a próxima página quando a página está cheia")
+    void consultar_pagina() throws Exception {
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002 ),
+                new Veiculo("MFW7021", "Jetta","prata", 2012 ));
+        Mockito.when(service.consultarPagina("MFW7019", 2)).thenReturn(veiculos);
+        mockMvc.perform(get("/api/veiculos").param("apos", "MFW7019").param("tamanho", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(VeiculosController.HEADER_PROXIMA_PLACA, "MFW7021"));
+    }
+
+    @Test
+    @DisplayName("Trata tamanho zero como página de um registro, como o serviço")
+    void consultar_paginaTamanhoZero() throws Exception {
+        // given
+        Mockito.when(service.consultarPagina(null, 0))
+                .thenReturn(List.of(new Veiculo("MFW7020", "Clio","vermelho", 2002 )));
+        //when
+        mockMvc.perform(get("/api/veiculos").param("tamanho", "0"))
+        //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(VeiculosController.HEADER_PROXIMA_PLACA, "MFW7020"));
+        mockMvc.perform(get("/api/veiculos/pesquisa").param("tamanho", "0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(VeiculosController.HEADER_PROXIMO_CURSOR));
+    }
+
+    @Test
+    @DisplayName("Não informa próxima placa quando a página não está cheia")
+    void consultar_ultimaPagina() throws Exception {
+        Mockito.when(service.consultarPagina(null, 10))
+                .thenReturn(List.of(new Veiculo("MFW7020", "Clio","vermelho", 2002 )));
+        mockMvc.perform(get("/api/veiculos").param("tamanho", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(VeiculosController.HEADER_PROXIMA_PLACA));
+    }
+
+    @Test
+    @DisplayName("Retorna as estatísticas da frota")
+    void estatisticas() throws Exception {
+        Mockito.when(service.estatisticas()).thenReturn(new EstatisticasFrota(2, 3, 1.5,
+                Map.of("Clio", 2L), Map.of("prata", 2L), Map.of("2002", 2L)));
+        mockMvc.perform(get("/api/veiculos/estatisticas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.mediaMultas", is(1.5)))
+                .andExpect(jsonPath("$.porTipo.Clio", is(2)));
+    }
+
+    @Test
+    @DisplayName("Pesquisa com filtros e devolve o cursor da próxima página")
+    void pesquisar() throws Exception {
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "caminhao","branco", 2008, 2),
+                new Veiculo("MFW7021", "caminhao","azul", 2005, 1));
+        Mockito.when(service.pesquisar(Mockito.any(FiltroVeiculos.class))).thenReturn(veiculos);
+        mockMvc.perform(get("/api/veiculos/pesquisa")
+                        .param("tipo", "caminhao")
+                        .param("anoMaximo", "2010")
+                        .param("multasMinimo", "1")
+                        .param("ordenarPor", "ANO_DE_FABRICACAO")
+                        .param("direcao", "DESC")
+                        .param("tamanho", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(VeiculosController.HEADER_PROXIMO_CURSOR, "2005:MFW7021"));
+        Mockito.verify(service).pesquisar(Mockito.argThat(filtro -> "caminhao".equals(filtro.getTipo())
+                && filtro.getAnoMaximo() == 2010 && filtro.getMultasMinimo() == 1 && filtro.getTamanho() == 2));
+    }
+
+    @Test
+    @DisplayName("Recusa cursor de pesquisa adulterado sem consultar o serviço")
+    void pesquisar_cursorInvalido() throws Exception {
+        for (String cursor : List.of("MFW7021", "dois:MFW7021", ":MFW7021", "99999999999:MFW7021")) {
+            mockMvc.perform(get("/api/veiculos/pesquisa")
+                            .param("ordenarPor", "QTD_MULTAS")
+                            .param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.erro").value("Cursor de pesquisa inválido!"));
+        }
+        Mockito.verify(service, Mockito.never()).pesquisar(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Transmite um veículo por linha quando solicitado NDJSON")
+    @SuppressWarnings("unchecked")
+    void consultar_stream() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<Veiculo> consumidor = invocation.getArgument(0);
+            consumidor.accept(new Veiculo("MFW7020", "Clio","vermelho", 2002 ));
+            consumidor.accept(new Veiculo("MFW7021", "Jetta","prata", 2012 ));
+            return null;
+        }).when(service).percorrer(Mockito.any(Consumer.class));
+        MvcResult resultado = mockMvc.perform(get("/api/veiculos").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(allOf(
+                        startsWith("{\"placa\":\"MFW7020\""),
+                        containsString("\n{\"placa\":\"MFW7021\""))));
+    }
+
+    @Test
+    @DisplayName("Mantém JSON como formato padrão da listagem")
+    void consultar_listaJsonPadrao() throws Exception {
+        mockMvc.perform(get("/api/veiculos").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     @DisplayName("Retorna apenas o veículo correspondente quando consultar uma placa existente")
     void consultar_placaExistente() throws Exception{
@@ -74,6 +256,74 @@ class VeiculosControllerTest {
                .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    @DisplayName("Responde 304 sem consultar a frota quando o ETag da lista não mudou")
+    void consultar_listaNaoModificada() throws Exception {
+        mockMvc.perform(get("/api/veiculos").header("If-None-Match", "\"frota-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"frota-1\""))
+                .andExpect(content().string(""));
+        Mockito.verify(service, Mockito.never()).consultar();
+    }
+
+    @Test
+    @DisplayName("Devolve a lista com o novo ETag quando a frota mudou")
+    void consultar_listaModificada() throws Exception {
+        Mockito.when(service.consultar()).thenReturn(List.of(new Veiculo("MFW7020", "Clio","vermelho", 2002, 0, 0L)));
+        mockMvc.perform(get("/api/veiculos").header("If-None-Match", "\"frota-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"frota-1\""))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Responde 304 pela versão do veículo sem carregá-lo")
+    void consultar_placaNaoModificada() throws Exception {
+        Mockito.when(service.versao("MFW7020")).thenReturn(Optional.of(3L));
+        mockMvc.perform(get("/api/veiculos/{placa}","MFW7020").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified());
+        Mockito.verify(service, Mockito.never()).consultar(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Devolve o veículo com ETag da versão atual")
+    void consultar_placaComEtag() throws Exception {
+        Mockito.when(service.versao("MFW7020")).thenReturn(Optional.of(4L));
+        Mockito.when(service.consultar("MFW7020")).thenReturn(List.of(new Veiculo("MFW7020", "Clio","vermelho", 2002, 1, 4L)));
+        mockMvc.perform(get("/api/veiculos/{placa}","MFW7020").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$[0].versao", is(4)));
+    }
+
+    @Test
+    @DisplayName("Repassa a versão do If-Match e responde 412 quando ela está desatualizada")
+    void recusa_multa_versao_desatualizada() throws Exception {
+        Mockito.when(service.adicionarMulta("MFW7020", 3L)).thenThrow(new VersaoDesatualizadaException("MFW7020"));
+        mockMvc.perform(put("/api/veiculos/{placa}/multas","MFW7020").header("If-Match", "\"3\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/veiculos/{placa}","MFW7020").header("If-Match", "W/\"3\""))
+                .andExpect(status().isPreconditionFailed());
+        Mockito.verify(service, Mockito.never()).excluir(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Consulta várias placas de uma vez informando as inexistentes")
+    void consultar_placas() throws Exception{
+        var veiculo = new Veiculo("MFW7020", "Clio","vermelho", 2002 );
+        Mockito.when(service.consultarPlacas(List.of("MFW7020", "MFW7021")))
+                .thenReturn(new ResultadoConsulta(List.of(veiculo), List.of("MFW7021")));
+        mockMvc.perform(get("/api/veiculos").param("placas", "MFW7020,MFW7021"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.veiculos", hasSize(1)))
+                .andExpect(jsonPath("$.inexistentes", contains("MFW7021")));
+        mockMvc.perform(post("/api/veiculos/consulta")
+                .content(objectMapper.writeValueAsString(List.of("MFW7020", "MFW7021")))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.veiculos[0].placa", is("MFW7020")));
+    }
+
     @Test
     @DisplayName("Retorna erro 404 quando consultar uma placa inexistente")
     void consultar_placaInexistente() throws Exception{
@@ -100,7 +350,7 @@ class VeiculosControllerTest {
     @Test
     @DisplayName("Quando multa em placa nao cadastrada, deve retornar erro")
     void multar_naoEncontrado() throws Exception {
-        Mockito.when(service.adicionarMulta(Mockito.anyString())).thenThrow(RegistroInexistenteException.class);
+        Mockito.when(service.adicionarMulta(Mockito.anyString(), Mockito.isNull())).thenThrow(RegistroInexistenteException.class);
         mockMvc.perform(put("/api/veiculos/{placa}/multas", "MFW7020")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
@@ -119,6 +369,54 @@ class VeiculosControllerTest {
                 .andExpect(status().isCreated());  // 201
     }
 
+    @Test
+    @DisplayName("Cadastra lote informando placas criadas e conflitantes")
+    void cadastra_lote() throws Exception{
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002 ),
+                new Veiculo("MFW7021", "Jetta","prata", 2012 ));
+        Mockito.when(service.criarEmLote(Mockito.anyList()))
+                .thenReturn(new ResultadoLote(List.of("MFW7020"), List.of("MFW7021")));
+        mockMvc.perform(post("/api/veiculos/lote")
+                .content(objectMapper.writeValueAsString(veiculos))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criadas", contains("MFW7020")))
+                .andExpect(jsonPath("$.conflitantes", contains("MFW7021")));
+    }
+
+    @Test
+    @DisplayName("Recusa o lote com placa que o armazenamento não aceita")
+    void recusa_lote_com_placa_fora_do_formato() throws Exception{
+        // given
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002 ),
+                new Veiculo("MFW-7021", "Jetta","prata", 2012 ));
+        Mockito.when(service.criarEmLote(Mockito.anyList())).thenThrow(new PlacaForaDoFormatoException("MFW-7021"));
+        //when
+        mockMvc.perform(post("/api/veiculos/lote")
+                .content(objectMapper.writeValueAsString(veiculos))
+                .contentType(MediaType.APPLICATION_JSON))
+        //then
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erro", is("Placa fora do formato aceito!")));
+    }
+
+    @Test
+    @DisplayName("Cadastra placa com separador ou minúsculas quando o armazenamento a aceita")
+    void cadastra_placa_fora_do_formato_codificado() throws Exception{
+        // given
+        var veiculo = new Veiculo("mfw-7020", "Clio","vermelho", 2002 );
+        Mockito.when(service.criar(Mockito.any(Veiculo.class))).thenReturn(veiculo);
+        //when
+        mockMvc.perform(post("/api/veiculos")
+                .content(objectMapper.writeValueAsString(veiculo))
+                .contentType(MediaType.APPLICATION_JSON))
+        //then
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.placa", is("mfw-7020")));
+    }
+
     @Test
     @DisplayName("Retorna um erro quando usuário tenta cadastrar novamente a mesma placa")
     void recusa_cadastro_duplicado() throws Exception{
@@ -132,6 +430,24 @@ class VeiculosControllerTest {
                 .andExpect(jsonPath("$.erro", containsStringIgnoringCase("Registro já cadastrado!")));;  // 201
     }
 
+    @Test
+    @DisplayName("Importa arquivo CSV de multas e informa as placas inexistentes")
+    void importa_multas_csv() throws Exception{
+        var resultado = new ResultadoImportacaoMultas();
+        resultado.setLinhas(3);
+        resultado.setMultasAplicadas(2);
+        resultado.setMultasDescartadas(1);
+        resultado.getInexistentes().add("ABC1234");
+        Mockito.when(importadorMultas.importarCsv(Mockito.any(InputStream.class))).thenReturn(resultado);
+        mockMvc.perform(post("/api/veiculos/multas")
+                .content("placa,quantidade\nMFW7020,2\nABC1234,1\n")
+                .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.multasAplicadas", is(2)))
+                .andExpect(jsonPath("$.inexistentes", contains("ABC1234")));
+        Mockito.verify(importadorMultas).importarCsv(Mockito.any(InputStream.class));
+    }
+
     @Test
     @DisplayName("Exclui veículo quando não há multas cadastradas")
     void exclui_veiculo_sem_multa() throws Exception{
@@ -147,7 +463,7 @@ class VeiculosControllerTest {
     @Test
     @DisplayName("Recusa exclusão de veículo quando há multa cadastrada")
     void recusa_exclusao_veiculo_com_multa() throws Exception{
-        Mockito.doThrow(VeiculoComMultaException.class).when(service).excluir(Mockito.anyString());
+        Mockito.doThrow(VeiculoComMultaException.class).when(service).excluir(Mockito.anyString(), Mockito.isNull());
         mockMvc.perform(delete("/api/veiculos/{placa}","MFW7020")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isLocked());
@@ -156,7 +472,7 @@ class VeiculosControllerTest {
     @Test
     @DisplayName("Lança exceção quando tenta excluir veículo não cadastrado")
     void recusa_exclusao_de_registro_inexistente() throws Exception{
-        Mockito.doThrow(RegistroInexistenteException.class).when(service).excluir(Mockito.anyString());
+        Mockito.doThrow(RegistroInexistenteException.class).when(service).excluir(Mockito.anyString(), Mockito.isNull());
         mockMvc.perform(delete("/api/veiculos/{placa}","MFW7020")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
@@ -0,0 +1,64 @@
+package tech.devinhouse.veiculos.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacaTest {
+
+    @Test
+    @DisplayName("Decodifica de volta a mesma placa que foi codificada")
+    void ida_e_volta() {
+        // given
+        List<String> placas = List.of("MFW7020", "ABC1D23", "A", "0", "ZZZZZZZZZZZZ", "000000000000", "AB12");
+        // when / then
+        for (String placa : placas) {
+            long codigo = Placa.codificar(placa);
+            assertNotEquals(Placa.INVALIDA, codigo, placa);
+            assertEquals(placa, Placa.decodificar(codigo));
+        }
+    }
+
+    @Test
+    @DisplayName("Preserva a ordem alfabética das placas")
+    void preserva_ordem() {
+        // given
+        List<String> placas = Stream.of("MFW7020", "MFW7021", "MFW702", "MFW70200", "ABC1D23", "ABC1234", "Z", "9", "A0", "0ZZ")
+                .sorted()
+                .toList();
+        // when
+        List<Long> codigos = placas.stream().map(Placa::codificar).toList();
+        // then
+        for (int i = 1; i < codigos.size(); i++) {
+            assertTrue(codigos.get(i - 1) < codigos.get(i), placas.get(i - 1) + " < " + placas.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Recusa placas fora do formato e códigos que não correspondem a uma placa")
+    void recusa_invalidas() {
+        for (String placa : new String[]{null, "", "mfw7020", "MFW-7020", "ABCDEFGHIJKLM", "MFW 7020", "ÁBC1234"}) {
+            assertEquals(Placa.INVALIDA, Placa.codificar(placa), String.valueOf(placa));
+            assertFalse(Placa.codificavel(placa));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Placa.decodificar(0));
+        assertThrows(IllegalArgumentException.class, () -> Placa.decodificar(-5));
+        assertThrows(IllegalArgumentException.class, () -> Placa.decodificar(1));
+        assertThrows(IllegalArgumentException.class, () -> Placa.decodificar(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Reconhece os formatos brasileiros antigo e Mercosul")
+    void formatos_brasileiros() {
+        assertTrue(Placa.brasileira("MFW7020"));
+        assertTrue(Placa.brasileira("ABC1D23"));
+        assertFalse(Placa.brasileira("ABC12D3"));
+        assertFalse(Placa.brasileira("AB1C234"));
+        assertFalse(Placa.brasileira("MFW702"));
+        assertFalse(Placa.brasileira(null));
+    }
+}
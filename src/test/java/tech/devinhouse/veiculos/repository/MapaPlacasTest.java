@@ -0,0 +1,81 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaPlacasTest {
+
+    @Test
+    @DisplayName("Grava, consulta, substitui e remove placas")
+    void grava_e_remove() {
+        // given
+        MapaPlacas<String> mapa = new MapaPlacas<>();
+        // when
+        assertNull(mapa.put(10, "a"));
+        assertNull(mapa.put(20, "b"));
+        assertEquals("a", mapa.put(10, "c"));
+        // then
+        assertEquals(2, mapa.size());
+        assertEquals("c", mapa.get(10));
+        assertTrue(mapa.containsKey(20));
+        assertFalse(mapa.containsKey(15));
+        assertEquals("b", mapa.remove(20));
+        assertNull(mapa.remove(20));
+        assertEquals(1, mapa.size());
+        assertNull(mapa.get(20));
+    }
+
+    @Test
+    @DisplayName("Mantém a ordem das placas ao dividir e esvaziar blocos, em qualquer ordem de escrita")
+    void mantem_ordem() {
+        // given
+        MapaPlacas<Long> mapa = new MapaPlacas<>();
+        TreeMap<Long, Long> esperado = new TreeMap<>();
+        List<Long> chaves = new ArrayList<>(LongStream.range(0, 5_000).map(i -> i * 3).boxed().toList());
+        Collections.shuffle(chaves, new Random(42));
+        // when
+        chaves.forEach(chave -> {
+            mapa.put(chave, chave);
+            esperado.put(chave, chave);
+        });
+        chaves.subList(0, 2_500).forEach(chave -> {
+            mapa.remove(chave);
+            esperado.remove(chave);
+        });
+        // then
+        assertEquals(esperado.size(), mapa.size());
+        List<Long> percorridas = new ArrayList<>();
+        mapa.forEach(entrada -> percorridas.add(entrada.placa()));
+        assertEquals(new ArrayList<>(esperado.keySet()), percorridas);
+    }
+
+    @Test
+    @DisplayName("Percorre a partir de um cursor nos dois sentidos, sem incluir o cursor")
+    void percorre_com_cursor() {
+        // given
+        MapaPlacas<Long> mapa = new MapaPlacas<>();
+        for (long chave = 1; chave <= 500; chave++) {
+            mapa.put(chave * 2, chave);
+        }
+        // when
+        Iterator<MapaPlacas.Entrada<Long>> crescente = mapa.crescente(300);
+        Iterator<MapaPlacas.Entrada<Long>> decrescente = mapa.decrescente(301);
+        // then
+        assertEquals(302, crescente.next().placa());
+        assertEquals(304, crescente.next().placa());
+        assertEquals(300, decrescente.next().placa());
+        assertEquals(298, decrescente.next().placa());
+        assertFalse(mapa.crescente(1000).hasNext());
+        assertEquals(1000, mapa.decrescente(Long.MAX_VALUE).next().placa());
+    }
+}
@@ -0,0 +1,143 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VeiculoRepositoryMemoriaTest {
+
+    @TempDir
+    Path diretorio;
+
+    private VeiculoRepositoryMemoria abrir() throws IOException {
+        return new VeiculoRepositoryMemoria(diretorio, false);
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith("wal-")).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Reaplica o diário ao reabrir e recupera cadastros, multas e exclusões")
+    void recupera_diario() throws IOException {
+        // given
+        VeiculoRepositoryMemoria repositorio = abrir();
+        repositorio.inserir(new Veiculo("MFW7020", "Clio", "vermelho", 2002));
+        repositorio.inserirEmLote(List.of(new Veiculo("MFW7021", null, "prata", null), new Veiculo("MFW7022", "Gol", "azul", 2010)));
+        repositorio.incrementarMultas("MFW7020", 3);
+        repositorio.deleteById("MFW7022");
+        repositorio.sincronizar();
+        //when
+        VeiculoRepositoryMemoria reaberto = abrir();
+        //then
+        assertEquals(2, reaberto.count());
+        assertEquals(new Veiculo("MFW7020", "Clio", "vermelho", 2002, 3, 1L), reaberto.findById("MFW7020").orElseThrow());
+        assertEquals(new Veiculo("MFW7021", null, "prata", null, 0, 0L), reaberto.findById("MFW7021").orElseThrow());
+        assertFalse(reaberto.existsVeiculosByPlaca("MFW7022"));
+    }
+
+    @Test
+    @DisplayName("Snapshot substitui os segmentos anteriores e as escritas seguintes continuam no diário")
+    void recupera_snapshot_e_diario() throws IOException {
+        // given
+        VeiculoRepositoryMemoria repositorio = abrir();
+        List<Veiculo> lote = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lote.add(new Veiculo(String.format("F%06d", i), "carro", "branco", 2000 + i % 20));
+        }
+        repositorio.inserirEmLote(lote);
+        repositorio.gravarSnapshot();
+        repositorio.incrementarMultas("F000001", 1);
+        repositorio.deleteById("F000002");
+        repositorio.encerrar();
+        //when
+        VeiculoRepositoryMemoria reaberto = abrir();
+        //then
+        assertTrue(Files.exists(diretorio.resolve("snapshot.dat")));
+        assertEquals(1, segmentos().size());
+        assertEquals(999, reaberto.count());
+        assertEquals(1, reaberto.findById("F000001").orElseThrow().getQtdMultas());
+        assertFalse(reaberto.existsVeiculosByPlaca("F000002"));
+        assertEquals(1, reaberto.somarMultas());
+    }
+
+    @Test
+    @DisplayName("Descarta registro incompleto no fim do último segmento")
+    void descarta_registro_incompleto() throws IOException {
+        // given
+        VeiculoRepositoryMemoria repositorio = abrir();
+        repositorio.inserir(new Veiculo("MFW7020", "Clio", "vermelho", 2002));
+        repositorio.inserir(new Veiculo("MFW7021", "Jetta", "prata", 2012));
+        repositorio.sincronizar();
+        Path segmento = segmentos().get(0);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 3);
+        }
+        //when
+        VeiculoRepositoryMemoria reaberto = abrir();
+        //then
+        assertTrue(reaberto.existsVeiculosByPlaca("MFW7020"));
+        assertFalse(reaberto.existsVeiculosByPlaca("MFW7021"));
+        reaberto.inserir(new Veiculo("MFW7021", "Jetta", "prata", 2012));
+        assertTrue(abrir().existsVeiculosByPlaca("MFW7021"));
+    }
+
+    @Test
+    @DisplayName("Recusa inserir placa já cadastrada sem gravar nada do lote")
+    void recusa_lote_com_placa_cadastrada() throws IOException {
+        // given
+        VeiculoRepositoryMemoria repositorio = abrir();
+        repositorio.inserir(new Veiculo("MFW7020", "Clio", "vermelho", 2002));
+        //when
+        assertThrows(DuplicateKeyException.class, () -> repositorio.inserirEmLote(
+                List.of(new Veiculo("MFW7021", "Jetta", "prata", 2012), new Veiculo("MFW7020", "Clio", "vermelho", 2002))));
+        //then
+        assertEquals(1, repositorio.count());
+        assertEquals(1, abrir().count());
+    }
+
+    @Test
+    @DisplayName("Pesquisa e pagina com as mesmas regras de ordenação e cursor da consulta JPA")
+    void pesquisa_com_cursor() throws IOException {
+        // given
+        VeiculoRepositoryMemoria repositorio = abrir();
+        repositorio.inserirEmLote(List.of(
+                new Veiculo("AAA0001", "carro", "branco", 2010),
+                new Veiculo("AAA0002", "carro", "preto", 2015),
+                new Veiculo("AAA0003", "moto", "branco", 2015),
+                new Veiculo("AAA0004", "carro", "branco", null),
+                new Veiculo("AAA0005", "carro", "branco", 2020)));
+        FiltroVeiculos filtro = new FiltroVeiculos();
+        filtro.setTipo("carro");
+        filtro.setOrdenarPor(FiltroVeiculos.Ordenacao.ANO_DE_FABRICACAO);
+        filtro.setDirecao(Sort.Direction.DESC);
+        //when
+        List<Veiculo> primeira = repositorio.pesquisar(filtro, 2);
+        filtro.setCursor(filtro.cursorApos(primeira.get(1)));
+        List<Veiculo> segunda = repositorio.pesquisar(filtro, 2);
+        //then
+        assertEquals(List.of("AAA0005", "AAA0002"), primeira.stream().map(Veiculo::getPlaca).toList());
+        assertEquals(List.of("AAA0001"), segunda.stream().map(Veiculo::getPlaca).toList());
+        assertEquals(List.of("AAA0003", "AAA0004"), repositorio.findByPlacaGreaterThanOrderByPlacaAsc("AAA0002", PageRequest.of(0, 2))
+                .stream().map(Veiculo::getPlaca).toList());
+    }
+
+}
@@ -0,0 +1,141 @@
+package tech.devinhouse.veiculos.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.devinhouse.veiculos.dto.FiltroVeiculos;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VeiculoRepositoryTest {
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void limpar() {
+        veiculoRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Não perde multas quando muitas requisições incrementam a mesma placa em paralelo")
+    void incrementa_multas_em_paralelo() throws Exception {
+        // given
+        veiculoRepository.save(new Veiculo("MFW7020", "Clio","vermelho", 2002 ));
+        int threads = 16;
+        int multasPorThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        //when
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < multasPorThread; i++) {
+                    veiculoRepository.incrementarMultas("MFW7020", 1);
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        //then
+        assertEquals(threads * multasPorThread, veiculoRepository.findById("MFW7020").orElseThrow().getQtdMultas());
+    }
+
+    @Test
+    @DisplayName("Soma multas em lote e devolve as placas que não existem")
+    void incrementa_multas_em_lote() {
+        // given
+        veiculoRepository.save(new Veiculo("MFW7020", "Clio","vermelho", 2002, 1 ));
+        veiculoRepository.save(new Veiculo("MFW7021", "Jetta","prata", 2012, 0 ));
+        Map<String, Integer> multas = new LinkedHashMap<>();
+        multas.put("MFW7020", 3);
+        multas.put("ABC1234", 2);
+        multas.put("MFW7021", 1);
+        //when
+        List<String> inexistentes = veiculoRepository.incrementarMultasEmLote(multas);
+        //then
+        assertEquals(List.of("ABC1234"), inexistentes);
+        assertEquals(4, veiculoRepository.findById("MFW7020").orElseThrow().getQtdMultas());
+        assertEquals(1, veiculoRepository.findById("MFW7021").orElseThrow().getQtdMultas());
+    }
+
+    @Test
+    @DisplayName("Insere lote e encontra apenas as placas cadastradas")
+    void insere_lote() {
+        // given
+        var veiculos = new ArrayList<Veiculo>();
+        for (int i = 0; i < 1200; i++) {
+            veiculos.add(new Veiculo(String.format("MFW%04d", i), "Clio","vermelho", 2002 ));
+        }
+        //when
+        veiculoRepository.inserirEmLote(veiculos);
+        //then
+        assertEquals(1200, veiculoRepository.count());
+        assertEquals(List.of("MFW0001"), veiculoRepository.findPlacasCadastradas(List.of("MFW0001", "ABC1234")));
+    }
+
+    @Test
+    @DisplayName("Pesquisa com filtros e percorre as páginas pelo cursor sem repetir veículos")
+    void pesquisar_paginas() {
+        // given
+        veiculoRepository.inserirEmLote(List.of(
+                new Veiculo("AAA0001", "caminhao", "branco", 2005, 3),
+                new Veiculo("AAA0002", "caminhao", "azul", 2008, 1),
+                new Veiculo("AAA0003", "caminhao", "branco", 2008, 2),
+                new Veiculo("AAA0004", "caminhao", "branco", 2015, 4),
+                new Veiculo("AAA0005", "carro", "branco", 2001, 5),
+                new Veiculo("AAA0006", "caminhao", "preto", 2002, 0)));
+        var filtro = new FiltroVeiculos();
+        filtro.setTipo("caminhao");
+        filtro.setAnoMaximo(2010);
+        filtro.setMultasMinimo(1);
+        filtro.setOrdenarPor(FiltroVeiculos.Ordenacao.ANO_DE_FABRICACAO);
+        filtro.setDirecao(Sort.Direction.DESC);
+        //when
+        List<Veiculo> primeira = veiculoRepository.pesquisar(filtro, 2);
+        filtro.setCursor(filtro.cursorApos(primeira.get(1)));
+        List<Veiculo> segunda = veiculoRepository.pesquisar(filtro, 2);
+        //then
+        assertEquals(List.of("AAA0003", "AAA0002"), primeira.stream().map(Veiculo::getPlaca).toList());
+        assertEquals(List.of("AAA0001"), segunda.stream().map(Veiculo::getPlaca).toList());
+    }
+
+    @Test
+    @DisplayName("Cria os índices usados pela pesquisa")
+    void indices_pesquisa() {
+        List<?> indices = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name = 'VEICULOS'", String.class);
+        assertTrue(indices.containsAll(List.of("IDX_VEICULOS_TIPO_ANO", "IDX_VEICULOS_COR_ANO",
+                "IDX_VEICULOS_ANO_PLACA", "IDX_VEICULOS_MULTAS_PLACA")), indices.toString());
+    }
+
+    @Test
+    @DisplayName("Não altera nenhuma linha quando a placa não está cadastrada")
+    void incrementa_multas_placa_inexistente() {
+        assertEquals(0, veiculoRepository.incrementarMultas("MFW7020", 1));
+    }
+
+}
@@ -0,0 +1,155 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AcumuladorMultasTest {
+
+    @Mock
+    private ArmazenamentoVeiculos veiculoRepository;
+
+    @Mock
+    private SaidaEventos saidaEventos;
+
+    @Mock
+    private HistoricoMultas historicoMultas;
+
+    @Mock
+    private AgregadorFrota agregadorFrota;
+
+    private final VeiculoCache veiculoCache = new VeiculoCache(false, 0, Duration.ZERO, false);
+
+    @Test
+    @DisplayName("Não perde multas quando registros e descargas acontecem em paralelo")
+    void registra_em_paralelo_sem_perdas() throws Exception {
+        // given
+        Map<String, LongAdder> gravadas = new ConcurrentHashMap<>();
+        Mockito.when(veiculoRepository.incrementarMultas(Mockito.anyString(), Mockito.anyInt())).thenAnswer(invocation -> {
+            gravadas.computeIfAbsent(invocation.getArgument(0), p -> new LongAdder()).add(invocation.<Integer>getArgument(1));
+            return 1;
+        });
+        var acumulador = new AcumuladorMultas(veiculoRepository, TransactionOperations.withoutTransaction(), veiculoCache, new VersaoFrota(), saidaEventos, historicoMultas, agregadorFrota);
+        String[] placas = {"MFW7020", "MFW7021", "MFW7022", "MFW7023"};
+        int threads = 16;
+        int multasPorThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicBoolean registrando = new AtomicBoolean(true);
+        Thread descarregador = new Thread(() -> {
+            while (registrando.get()) {
+                acumulador.descarregar();
+            }
+        });
+        //when
+        descarregador.start();
+        for (int t = 0; t < threads; t++) {
+            int deslocamento = t;
+            executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < multasPorThread; i++) {
+                    acumulador.registrar(placas[(i + deslocamento) % placas.length]);
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        registrando.set(false);
+        descarregador.join();
+        acumulador.descarregar();
+        //then
+        long total = gravadas.values().stream().mapToLong(LongAdder::sum).sum();
+        assertEquals((long) threads * multasPorThread, total);
+        for (String placa : placas) {
+            assertEquals((long) threads * multasPorThread / placas.length, gravadas.get(placa).sum());
+            assertEquals(0, acumulador.pendentes(placa));
+        }
+    }
+
+    @Test
+    @DisplayName("Devolve as multas ao acumulador quando a gravação do lote falha")
+    void reaplica_lote_com_falha() {
+        // given
+        Mockito.when(veiculoRepository.incrementarMultas("MFW7020", 2))
+                .thenThrow(new IllegalStateException("banco indisponível"))
+                .thenReturn(1);
+        var acumulador = new AcumuladorMultas(veiculoRepository, TransactionOperations.withoutTransaction(), veiculoCache, new VersaoFrota(), saidaEventos, historicoMultas, agregadorFrota);
+        acumulador.registrar("MFW7020");
+        acumulador.registrar("MFW7020");
+        //when
+        long primeiraDescarga = acumulador.descarregar();
+        long pendentesAposFalha = acumulador.pendentes("MFW7020");
+        long segundaDescarga = acumulador.descarregar();
+        //then
+        assertEquals(0, primeiraDescarga);
+        assertEquals(2, pendentesAposFalha);
+        assertEquals(2, segundaDescarga);
+        assertEquals(0, acumulador.pendentes("MFW7020"));
+        Mockito.verify(saidaEventos).registrarMultas("MFW7020", 2);
+        Mockito.verify(historicoMultas).registrar(Map.of("MFW7020", 2));
+    }
+
+    @Test
+    @DisplayName("Continua contando as multas pendentes enquanto a descarga grava o lote")
+    void conta_pendentes_durante_gravacao() {
+        // given
+        var pendentesDuranteGravacao = new AtomicLong();
+        var acumulador = new AcumuladorMultas(veiculoRepository, TransactionOperations.withoutTransaction(), veiculoCache, new VersaoFrota(), saidaEventos, historicoMultas, agregadorFrota);
+        Mockito.when(veiculoRepository.incrementarMultas("MFW7020", 2)).thenAnswer(invocation -> {
+            pendentesDuranteGravacao.set(acumulador.pendentes("MFW7020"));
+            return 1;
+        });
+        acumulador.registrar("MFW7020");
+        acumulador.registrar("MFW7020");
+        //when
+        long gravadas = acumulador.descarregar();
+        //then
+        assertEquals(2, gravadas);
+        assertEquals(2, pendentesDuranteGravacao.get());
+        assertEquals(0, acumulador.pendentes("MFW7020"));
+        assertEquals(0, acumulador.descarregar());
+        Mockito.verify(veiculoRepository, Mockito.times(1)).incrementarMultas(Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Retira do agregador da frota as multas descartadas de um veículo já excluído")
+    void corrige_agregador_ao_descartar() {
+        // given
+        Mockito.when(veiculoRepository.incrementarMultas("MFW7020", 3)).thenReturn(0);
+        var versaoFrota = new VersaoFrota();
+        var acumulador = new AcumuladorMultas(veiculoRepository, TransactionOperations.withoutTransaction(), veiculoCache, versaoFrota, saidaEventos, historicoMultas, agregadorFrota);
+        String etagAntes = versaoFrota.etag();
+        acumulador.registrar("MFW7020");
+        acumulador.registrar("MFW7020");
+        acumulador.registrar("MFW7020");
+        //when
+        long gravadas = acumulador.descarregar();
+        //then
+        assertEquals(0, gravadas);
+        assertEquals(etagAntes, versaoFrota.etag());
+        Mockito.verify(agregadorFrota).registrarMultas(-3);
+        Mockito.verifyNoInteractions(saidaEventos);
+    }
+
+}
@@ -0,0 +1,71 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.devinhouse.veiculos.dto.EstatisticasFrota;
+import tech.devinhouse.veiculos.model.Veiculo;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AgregadorFrotaTest {
+
+    @Mock
+    private ArmazenamentoVeiculos veiculoRepository;
+
+    @Mock
+    private VersaoFrota versaoFrota;
+
+    @InjectMocks
+    private AgregadorFrota agregador;
+
+    @Test
+    @DisplayName("Parte da reconciliação e acompanha cadastros, exclusões e multas sem consultar o banco")
+    void consultar_aposEscritas() {
+        // given
+        Mockito.when(veiculoRepository.count()).thenReturn(2L);
+        Mockito.when(veiculoRepository.somarMultas()).thenReturn(3L);
+        Mockito.when(veiculoRepository.contarPorTipo()).thenReturn(List.<Object[]>of(new Object[]{"Clio", 2L}));
+        Mockito.when(veiculoRepository.contarPorCor()).thenReturn(List.<Object[]>of(new Object[]{"prata", 1L}, new Object[]{null, 1L}));
+        Mockito.when(veiculoRepository.contarPorAno()).thenReturn(List.<Object[]>of(new Object[]{2002, 2L}));
+        agregador.reconciliar();
+        //when
+        agregador.registrarCriacao(new Veiculo("MFW7022", "fit","branco", 2014));
+        agregador.registrarExclusao(new Veiculo("MFW7020", "Clio","prata", 2002, 0));
+        agregador.registrarMultas(5);
+        EstatisticasFrota estatisticas = agregador.consultar();
+        //then
+        assertEquals(2, estatisticas.getTotal());
+        assertEquals(8, estatisticas.getTotalMultas());
+        assertEquals(4.0, estatisticas.getMediaMultas());
+        assertEquals(Map.of("Clio", 1L, "fit", 1L), estatisticas.getPorTipo());
+        assertEquals(Map.of("branco", 1L, AgregadorFrota.SEM_VALOR, 1L), estatisticas.getPorCor());
+        assertEquals(Map.of("2002", 1L, "2014", 1L), estatisticas.getPorAno());
+        Mockito.verify(veiculoRepository, Mockito.times(1)).count();
+    }
+
+    @Test
+    @DisplayName("Recalcula as estatísticas só quando outra instância altera a frota")
+    void acompanharOutrasInstancias() {
+        // given
+        Mockito.when(versaoFrota.alteracoesExternas()).thenReturn(4L);
+        agregador.reconciliar();
+        //when
+        agregador.acompanharOutrasInstancias();
+        Mockito.when(versaoFrota.alteracoesExternas()).thenReturn(5L);
+        agregador.acompanharOutrasInstancias();
+        agregador.acompanharOutrasInstancias();
+        //then
+        Mockito.verify(veiculoRepository, Mockito.times(2)).count();
+    }
+
+}
@@ -0,0 +1,84 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.devinhouse.veiculos.exception.SnapshotInvalidoException;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArquivoSnapshotTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Lê em blocos os mesmos veículos gravados, inclusive campos nulos e acentos")
+    void escrever_e_ler() throws Exception {
+        // given
+        List<Veiculo> veiculos = new ArrayList<>();
+        for (int i = 0; i < ArquivoSnapshot.VEICULOS_POR_BLOCO * 2 + 10; i++) {
+            veiculos.add(new Veiculo(String.format("ABC%04d", i), i % 3 == 0 ? null : "Caminhão " + i % 7,
+                    i % 5 == 0 ? null : "prata", i % 11 == 0 ? null : 1990 + i % 30, i % 13 == 0 ? null : i % 4));
+        }
+        Path arquivo = diretorio.resolve("frota.vsnp");
+        try (var escritor = new ArquivoSnapshot.Escritor(arquivo)) {
+            for (Veiculo veiculo : veiculos) {
+                escritor.escrever(veiculo);
+            }
+            escritor.concluir();
+        }
+        //when
+        List<Veiculo> lidos = new ArrayList<>();
+        List<Integer> blocos = new ArrayList<>();
+        ArquivoSnapshot.Cabecalho cabecalho = ArquivoSnapshot.ler(arquivo, bloco -> {
+            blocos.add(bloco.size());
+            lidos.addAll(bloco);
+        });
+        //then
+        assertEquals(veiculos, lidos);
+        assertEquals(List.of(ArquivoSnapshot.VEICULOS_POR_BLOCO, ArquivoSnapshot.VEICULOS_POR_BLOCO, 10), blocos);
+        assertEquals(new ArquivoSnapshot.Cabecalho(veiculos.size(), 3), cabecalho);
+        assertFalse(Files.exists(diretorio.resolve("frota.vsnp.tmp")));
+    }
+
+    @Test
+    @DisplayName("Recusa arquivo com byte alterado ou truncado e descarta exportação não concluída")
+    void recusa_arquivo_corrompido() throws Exception {
+        // given
+        Path arquivo = diretorio.resolve("frota.vsnp");
+        try (var escritor = new ArquivoSnapshot.Escritor(arquivo)) {
+            for (int i = 0; i < 100; i++) {
+                escritor.escrever(new Veiculo(String.format("ABC%04d", i), "Clio", "vermelho", 2002, 0));
+            }
+            escritor.concluir();
+        }
+        Path truncado = Files.copy(arquivo, diretorio.resolve("truncado.vsnp"));
+        try (FileChannel canal = FileChannel.open(truncado, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 1);
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[]{'X'}), canal.size() - 3);
+        }
+        Path interrompido = diretorio.resolve("interrompido.vsnp");
+        try (var escritor = new ArquivoSnapshot.Escritor(interrompido)) {
+            escritor.escrever(new Veiculo("ABC0000", "Clio", "vermelho", 2002, 0));
+        }
+        //when
+        //then
+        assertThrows(SnapshotInvalidoException.class, () -> ArquivoSnapshot.verificar(arquivo));
+        assertThrows(SnapshotInvalidoException.class, () -> ArquivoSnapshot.verificar(truncado));
+        assertFalse(Files.exists(interrompido));
+        assertFalse(Files.exists(diretorio.resolve("interrompido.vsnp.tmp")));
+    }
+
+}
@@ -0,0 +1,71 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.devinhouse.veiculos.dto.EstatisticasFiltro;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FiltroPlacasTest {
+
+    @Mock
+    private ArmazenamentoVeiculos veiculoRepository;
+
+    private FiltroPlacas filtro(boolean habilitado) {
+        return new FiltroPlacas(veiculoRepository, TransactionOperations.withoutTransaction(), habilitado, 0.01, 1000);
+    }
+
+    @Test
+    @DisplayName("Nunca descarta uma placa cadastrada e mantém a taxa de falsos positivos configurada")
+    void reconstruir() {
+        // given
+        Mockito.when(veiculoRepository.count()).thenReturn(50_000L);
+        Mockito.when(veiculoRepository.streamPlacas())
+                .thenReturn(IntStream.range(0, 50_000).mapToObj(i -> String.format("MFW%04d", i)));
+        FiltroPlacas filtro = filtro(true);
+        //when
+        EstatisticasFiltro estatisticas = filtro.reconstruir();
+        //then
+        assertTrue(estatisticas.isConstruido());
+        assertEquals(50_000, estatisticas.getPlacasInseridas());
+        assertTrue(IntStream.range(0, 50_000).noneMatch(i -> filtro.ausenteComCerteza(String.format("MFW%04d", i))));
+        long falsosPositivos = IntStream.range(0, 100_000)
+                .filter(i -> !filtro.ausenteComCerteza(String.format("XYZ%05d", i)))
+                .count();
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    @DisplayName("Inclui placas cadastradas depois da construção")
+    void adicionar() {
+        // given
+        Mockito.when(veiculoRepository.streamPlacas()).thenReturn(Stream.empty());
+        FiltroPlacas filtro = filtro(true);
+        filtro.reconstruir();
+        //when
+        filtro.adicionar("MFW7020");
+        //then
+        assertFalse(filtro.ausenteComCerteza("MFW7020"));
+    }
+
+    @Test
+    @DisplayName("Não descarta nenhuma placa antes de construído ou quando desabilitado")
+    void sem_filtro() {
+        assertFalse(filtro(true).ausenteComCerteza("MFW7020"));
+        FiltroPlacas desabilitado = filtro(false);
+        desabilitado.construirAoIniciar();
+        assertFalse(desabilitado.ausenteComCerteza("MFW7020"));
+        Mockito.verifyNoInteractions(veiculoRepository);
+    }
+
+}
@@ -0,0 +1,106 @@
+package tech.devinhouse.veiculos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.devinhouse.veiculos.dto.ResultadoImportacaoMultas;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportadorMultasTest {
+
+    @Mock
+    private ArmazenamentoVeiculos veiculoRepository;
+
+    @Mock
+    private AgregadorFrota agregadorFrota;
+
+    @Mock
+    private SaidaEventos saidaEventos;
+
+    @Mock
+    private HistoricoMultas historicoMultas;
+
+    private ImportadorMultas importador() {
+        return new ImportadorMultas(veiculoRepository, TransactionOperations.withoutTransaction(),
+                new VeiculoCache(false, 0, Duration.ZERO, false), agregadorFrota, new VersaoFrota(), saidaEventos, historicoMultas, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private static ByteArrayInputStream arquivo(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Soma as multas da mesma placa num único UPDATE e informa as placas inexistentes")
+    void importa_csv() throws Exception {
+        // given
+        Mockito.when(veiculoRepository.findPlacasCadastradas(Mockito.anyCollection())).thenReturn(List.of("MFW7020", "MFW7021"));
+        Mockito.when(veiculoRepository.incrementarMultasEmLote(Mockito.anyMap())).thenReturn(List.of());
+        String csv = "placa,quantidade\nMFW7020,2\nMFW7021\nABC1234,1\nMFW7020,1\n\nmfw-7020,1\nMFW7021,x\n";
+        //when
+        ResultadoImportacaoMultas resultado = importador().importarCsv(arquivo(csv));
+        //then
+        Mockito.verify(veiculoRepository).incrementarMultasEmLote(Map.of("MFW7020", 3, "MFW7021", 1));
+        assertEquals(7, resultado.getLinhas());
+        assertEquals(2, resultado.getLinhasInvalidas());
+        assertEquals(4, resultado.getMultasAplicadas());
+        assertEquals(1, resultado.getMultasDescartadas());
+        assertEquals(List.of("ABC1234"), resultado.getInexistentes());
+        Mockito.verify(agregadorFrota).registrarMultas(4);
+        Mockito.verify(saidaEventos).registrarMultas(Map.of("MFW7020", 3, "MFW7021", 1));
+        Mockito.verify(historicoMultas).registrar(Map.of("MFW7020", 3, "MFW7021", 1));
+    }
+
+    @Test
+    @DisplayName("Lê NDJSON, descarta placas não cadastradas e grava em lotes")
+    void importa_ndjson_em_lotes() throws Exception {
+        // given
+        Mockito.when(veiculoRepository.findPlacasCadastradas(Mockito.anyCollection()))
+                .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                        .filter(placa -> !placa.startsWith("X")).toList());
+        Mockito.when(veiculoRepository.incrementarMultasEmLote(Mockito.anyMap())).thenReturn(List.of());
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < ImportadorMultas.TAMANHO_LOTE + 10; i++) {
+            ndjson.append("{\"placa\":\"MFW").append(String.format("%04d", i)).append("\"}\n");
+        }
+        ndjson.append("{\"placa\":\"XYZ0001\",\"quantidade\":5}\n");
+        ndjson.append("{placa\n");
+        //when
+        ResultadoImportacaoMultas resultado = importador().importarNdjson(arquivo(ndjson.toString()));
+        //then
+        Mockito.verify(veiculoRepository, Mockito.times(2)).incrementarMultasEmLote(Mockito.anyMap());
+        assertEquals(ImportadorMultas.TAMANHO_LOTE + 10, resultado.getMultasAplicadas());
+        assertEquals(5, resultado.getMultasDescartadas());
+        assertEquals(List.of("XYZ0001"), resultado.getInexistentes());
+        assertEquals(1, resultado.getLinhasInvalidas());
+    }
+
+    @Test
+    @DisplayName("Trata como inválida a linha cuja soma estouraria o contador de multas da placa")
+    void rejeita_soma_que_estoura() throws Exception {
+        // given
+        Mockito.when(veiculoRepository.findPlacasCadastradas(Mockito.anyCollection())).thenReturn(List.of("MFW7020"));
+        Mockito.when(veiculoRepository.incrementarMultasEmLote(Mockito.anyMap())).thenReturn(List.of());
+        String csv = "MFW7020," + Integer.MAX_VALUE + "\nMFW7020,1\n";
+        //when
+        ResultadoImportacaoMultas resultado = importador().importarCsv(arquivo(csv));
+        //then
+        Mockito.verify(veiculoRepository).incrementarMultasEmLote(Map.of("MFW7020", Integer.MAX_VALUE));
+        assertEquals(1, resultado.getLinhasInvalidas());
+        assertEquals(Integer.MAX_VALUE, resultado.getMultasAplicadas());
+    }
+}
@@ -0,0 +1,72 @@
+package tech.devinhouse.veiculos.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteAdaptativoTest {
+
+    private static final long ALVO = Duration.ofMillis(100).toNanos();
+
+    @Test
+    @DisplayName("Recusa acima do limite e conta as recusas")
+    void adquirir_acimaDoLimite() {
+        // given
+        var limite = new LimiteAdaptativo("pontual", 2, 1, 10, Duration.ofMillis(100), 0.5, Duration.ofSeconds(1));
+        var registry = new SimpleMeterRegistry();
+        limite.bindTo(registry);
+        //when
+        boolean primeira = limite.adquirir();
+        boolean segunda = limite.adquirir();
+        boolean terceira = limite.adquirir();
+        //then
+        assertTrue(primeira);
+        assertTrue(segunda);
+        assertFalse(terceira);
+        assertEquals(2, limite.getEmUso());
+        assertEquals(1.0, registry.get("veiculos.admissao.rejeitadas").tag("categoria", "pontual").functionCounter().count());
+        assertEquals(2.0, registry.get("veiculos.admissao.limite").tag("categoria", "pontual").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Cresce aos poucos enquanto a latência fica abaixo do alvo e o limite está em uso")
+    void liberar_abaixoDoAlvo() {
+        // given
+        var limite = new LimiteAdaptativo("pontual", 2, 1, 3, Duration.ofMillis(100), 0.5, Duration.ofSeconds(1));
+        long agora = 0;
+        //when
+        for (int i = 0; i < 10; i++) {
+            limite.adquirir();
+            limite.adquirir();
+            limite.liberar(ALVO / 2, false, agora);
+            limite.liberar(ALVO / 2, false, agora);
+        }
+        //then
+        assertEquals(3, limite.getLimite());
+        assertEquals(0, limite.getEmUso());
+    }
+
+    @Test
+    @DisplayName("Reduz uma vez por intervalo de latência alvo quando a latência passa do alvo ou há erro")
+    void liberar_acimaDoAlvo() {
+        // given
+        var limite = new LimiteAdaptativo("pesada", 8, 1, 32, Duration.ofMillis(100), 0.5, Duration.ofSeconds(5));
+        long agora = System.nanoTime();
+        //when
+        limite.adquirir();
+        limite.adquirir();
+        limite.liberar(ALVO * 2, false, agora);
+        limite.liberar(ALVO * 2, false, agora + 1);
+        int aposPrimeiraReducao = limite.getLimite();
+        limite.adquirir();
+        limite.liberar(1, true, agora + ALVO);
+        //then
+        assertEquals(4, aposPrimeiraReducao);
+        assertEquals(2, limite.getLimite());
+    }
+
+}
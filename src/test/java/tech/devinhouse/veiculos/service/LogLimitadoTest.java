@@ -0,0 +1,48 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLimitadoTest {
+
+    private static final String MENSAGEM = "O veículo de placa {} não existe, por isso não foi excluído ";
+
+    @Test
+    @DisplayName("Escreve uma mensagem por intervalo e informa quantas foram suprimidas na seguinte")
+    void limita_por_intervalo() throws Exception {
+        // given
+        Logger log = Mockito.mock(Logger.class);
+        Mockito.when(log.isWarnEnabled()).thenReturn(true);
+        LogLimitado logLimitado = new LogLimitado(Duration.ofMillis(50));
+        //when
+        for (int i = 0; i < 5; i++) {
+            logLimitado.avisar(log, MENSAGEM, "MFW702" + i);
+        }
+        logLimitado.avisar(log, "{} veículo(s) do lote não foram cadastrados", 2);
+        Thread.sleep(60);
+        logLimitado.avisar(log, MENSAGEM, "MFW7029");
+        //then
+        Mockito.verify(log).warn(MENSAGEM, new Object[]{"MFW7020"});
+        Mockito.verify(log).warn("{} veículo(s) do lote não foram cadastrados", new Object[]{2});
+        Mockito.verify(log).warn(MENSAGEM + " (+{} ocorrência(s) suprimida(s))", new Object[]{"MFW7029", 4L});
+        Mockito.verify(log, Mockito.atLeastOnce()).isWarnEnabled();
+        Mockito.verifyNoMoreInteractions(log);
+    }
+
+    @Test
+    @DisplayName("Erros de negócio não preenchem a pilha e só montam a mensagem quando pedida")
+    void erro_de_negocio_sem_pilha() {
+        RegistroInexistenteException erro = new RegistroInexistenteException("MFW7020");
+        assertEquals(0, erro.getStackTrace().length);
+        assertEquals("MFW7020", erro.getPlaca());
+        assertEquals("O veículo com identificador MFW7020 não está cadastrado!", erro.getMessage());
+    }
+
+}
@@ -0,0 +1,85 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.devinhouse.veiculos.repository.MultaRepository;
+import tech.devinhouse.veiculos.repository.MultaRepositoryCustom.Particao;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+class ParticoesMultasTest {
+
+    private static final Clock RELOGIO = Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneId.of("America/Sao_Paulo"));
+
+    @Mock
+    private MultaRepository multaRepository;
+
+    @Test
+    @DisplayName("Cria as partições do mês atual e dos próximos meses separando-as da partição MAXVALUE")
+    void manter_criaParticoesAFrente() {
+        // given
+        Mockito.when(multaRepository.particoes()).thenReturn(List.of(
+                new Particao("p202609", LocalDate.of(2026, 10, 1)),
+                new Particao("p_futuro", null)));
+        //when
+        new ParticoesMultas(multaRepository, RELOGIO, 2, 0).manter();
+        //then
+        var ordem = Mockito.inOrder(multaRepository);
+        ordem.verify(multaRepository).dividirParticao("p_futuro", "p202610", LocalDate.of(2026, 11, 1));
+        ordem.verify(multaRepository).dividirParticao("p_futuro", "p202611", LocalDate.of(2026, 12, 1));
+        ordem.verify(multaRepository).dividirParticao("p_futuro", "p202612", LocalDate.of(2027, 1, 1));
+        Mockito.verify(multaRepository, Mockito.never()).removerParticao(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Remove só as partições inteiramente anteriores à retenção")
+    void manter_removeParticoesExpiradas() {
+        // given
+        Mockito.when(multaRepository.particoes()).thenReturn(List.of(
+                new Particao("p202606", LocalDate.of(2026, 7, 1)),
+                new Particao("p202607", LocalDate.of(2026, 8, 1)),
+                new Particao("p202608", LocalDate.of(2026, 9, 1)),
+                new Particao("p202612", LocalDate.of(2027, 1, 1)),
+                new Particao("p_futuro", null)));
+        //when
+        new ParticoesMultas(multaRepository, RELOGIO, 2, 2).manter();
+        //then
+        Mockito.verify(multaRepository).removerParticao("p202606");
+        Mockito.verify(multaRepository).removerParticao("p202607");
+        Mockito.verify(multaRepository, Mockito.never()).removerParticao("p202608");
+        Mockito.verify(multaRepository, Mockito.never()).dividirParticao(Mockito.anyString(), Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Não faz nada quando a tabela não é particionada")
+    void manter_semParticionamento() {
+        // given
+        Mockito.when(multaRepository.particoes()).thenReturn(List.of());
+        //when
+        new ParticoesMultas(multaRepository, RELOGIO, 2, 12).manter();
+        //then
+        Mockito.verify(multaRepository).particoes();
+        Mockito.verifyNoMoreInteractions(multaRepository);
+    }
+
+    @Test
+    @DisplayName("Sem partição mensal, a primeira vai até o fim do mês atual e recebe todo o passado")
+    void limitesFaltantes_semParticaoMensal() {
+        //when
+        List<LocalDate> limites = ParticoesMultas.limitesFaltantes(null, LocalDate.of(2026, 10, 1), 1);
+        //then
+        assertEquals(List.of(LocalDate.of(2026, 11, 1), LocalDate.of(2026, 12, 1)), limites);
+    }
+
+}
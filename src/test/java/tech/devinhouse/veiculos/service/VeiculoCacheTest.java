@@ -0,0 +1,172 @@
+package tech.devinhouse.veiculos.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.devinhouse.veiculos.dto.EstatisticasCache;
+import tech.devinhouse.veiculos.model.Veiculo;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VeiculoCacheTest {
+
+    private static final Function<String, Optional<Long>> SEM_CONFERENCIA = p -> {
+        throw new AssertionError("versão conferida com a conferência desligada");
+    };
+
+    @Test
+    @DisplayName("Consulta o banco apenas na primeira leitura da placa")
+    void buscar_leituraRepetida() {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), false);
+        var veiculo = new Veiculo("MFW7020", "Clio","vermelho", 2002 );
+        AtomicInteger carregamentos = new AtomicInteger();
+        //when
+        cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.of(veiculo); }, SEM_CONFERENCIA);
+        Optional<Veiculo> resultado = cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.of(veiculo); }, SEM_CONFERENCIA);
+        //then
+        assertEquals(veiculo, resultado.orElseThrow());
+        assertEquals(1, carregamentos.get());
+        EstatisticasCache estatisticas = cache.estatisticas();
+        assertEquals(1, estatisticas.getAcertos());
+        assertEquals(1, estatisticas.getFalhas());
+    }
+
+    @Test
+    @DisplayName("Não guarda placas inexistentes e recarrega após invalidação")
+    void buscar_aposInvalidacao() {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), false);
+        AtomicInteger carregamentos = new AtomicInteger();
+        //when
+        Optional<Veiculo> inexistente = cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.empty(); }, SEM_CONFERENCIA);
+        cache.buscar("MFW7021", p -> Optional.of(new Veiculo("MFW7021", "Jetta","prata", 2012, 0)), SEM_CONFERENCIA);
+        cache.invalidar("MFW7021");
+        Optional<Veiculo> recarregado = cache.buscar("MFW7021", p -> Optional.of(new Veiculo("MFW7021", "Jetta","prata", 2012, 1)), SEM_CONFERENCIA);
+        //then
+        assertTrue(inexistente.isEmpty());
+        assertEquals(1, carregamentos.get());
+        assertEquals(1, cache.estatisticas().getTamanho());
+        assertEquals(1, recarregado.orElseThrow().getQtdMultas());
+    }
+
+    @Test
+    @DisplayName("Descarta a leitura quando a placa é invalidada enquanto o banco é consultado")
+    void buscar_invalidacaoDuranteLeitura() {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), false);
+        //when
+        Optional<Veiculo> lido = cache.buscar("MFW7020", p -> {
+            cache.invalidar("MFW7020");
+            return Optional.of(new Veiculo("MFW7020", "Clio","vermelho", 2002, 0));
+        }, SEM_CONFERENCIA);
+        Optional<Veiculo> recarregado = cache.buscar("MFW7020", p -> Optional.of(new Veiculo("MFW7020", "Clio","vermelho", 2002, 1)), SEM_CONFERENCIA);
+        //then
+        assertEquals(0, lido.orElseThrow().getQtdMultas());
+        assertEquals(1, recarregado.orElseThrow().getQtdMultas());
+    }
+
+    @Test
+    @DisplayName("Repassa ao banco as leituras de placas fora do formato")
+    void buscar_placaNaoCodificavel() {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), false);
+        AtomicInteger carregamentos = new AtomicInteger();
+        //when
+        cache.buscar("mfw-7020", p -> { carregamentos.incrementAndGet(); return Optional.of(new Veiculo(p, "Clio","vermelho", 2002 )); }, SEM_CONFERENCIA);
+        cache.buscar("mfw-7020", p -> { carregamentos.incrementAndGet(); return Optional.of(new Veiculo(p, "Clio","vermelho", 2002 )); }, SEM_CONFERENCIA);
+        cache.invalidar("mfw-7020");
+        //then
+        assertEquals(2, carregamentos.get());
+        assertEquals(0, cache.estatisticas().getTamanho());
+        assertTrue(cache.buscarCarregado("mfw-7020").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Recarrega a entrada alterada por outra instância e serve a que ainda está na versão do banco")
+    void buscar_conferindoVersao() {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), true);
+        AtomicInteger carregamentos = new AtomicInteger();
+        cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.of(new Veiculo(p, "Clio","vermelho", 2002, 0, 0L)); }, SEM_CONFERENCIA);
+        //when
+        Optional<Veiculo> mesmaVersao = cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.empty(); }, p -> Optional.of(0L));
+        Optional<Veiculo> alterado = cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.of(new Veiculo(p, "Clio","vermelho", 2002, 1, 1L)); }, p -> Optional.of(1L));
+        //then
+        assertEquals(0, mesmaVersao.orElseThrow().getQtdMultas());
+        assertEquals(1, alterado.orElseThrow().getQtdMultas());
+        assertEquals(2, carregamentos.get());
+        assertTrue(cache.buscarCarregado("MFW7020").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Dá como inexistente a placa em cache excluída por outra instância")
+    void buscar_conferindoVersao_excluido() {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), true);
+        cache.buscar("MFW7020", p -> Optional.of(new Veiculo(p, "Clio","vermelho", 2002, 0, 0L)), SEM_CONFERENCIA);
+        //when
+        Optional<Veiculo> resultado = cache.buscar("MFW7020", p -> { throw new AssertionError("recarregou placa excluída"); }, p -> Optional.empty());
+        //then
+        assertTrue(resultado.isEmpty());
+        assertEquals(0, cache.estatisticas().getTamanho());
+    }
+
+    @Test
+    @DisplayName("Repassa todas as leituras ao banco quando desabilitado")
+    void buscar_desabilitado() {
+        // given
+        var cache = new VeiculoCache(false, 10, Duration.ofMinutes(1), false);
+        AtomicInteger carregamentos = new AtomicInteger();
+        //when
+        cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.empty(); }, SEM_CONFERENCIA);
+        cache.buscar("MFW7020", p -> { carregamentos.incrementAndGet(); return Optional.empty(); }, SEM_CONFERENCIA);
+        //then
+        assertEquals(2, carregamentos.get());
+        assertFalse(cache.estatisticas().isHabilitado());
+    }
+
+    @Test
+    @DisplayName("Invalida a placa sem esperar a leitura em andamento no banco")
+    void invalidar_durante_leitura_nao_bloqueia() throws Exception {
+        // given
+        var cache = new VeiculoCache(true, 10, Duration.ofMinutes(1), false);
+        var leituraIniciada = new CountDownLatch(1);
+        var liberarLeitura = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<Veiculo>> leitura = executor.submit(() -> cache.buscar("MFW7020", p -> {
+                leituraIniciada.countDown();
+                try {
+                    liberarLeitura.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.of(new Veiculo("MFW7020", "Clio","vermelho", 2002, 0));
+            }, SEM_CONFERENCIA));
+            assertTrue(leituraIniciada.await(5, TimeUnit.SECONDS));
+            //when
+            // Quem invalida é o escritor após o commit, ainda com a conexão: se esperasse a leitura,
+            // que também aguarda uma conexão, o pool se esgotaria.
+            var invalidacao = CompletableFuture.runAsync(() -> cache.invalidar("MFW7020"));
+            //then
+            assertDoesNotThrow(() -> invalidacao.get(5, TimeUnit.SECONDS));
+            liberarLeitura.countDown();
+            assertEquals(0, leitura.get(5, TimeUnit.SECONDS).orElseThrow().getQtdMultas());
+            assertTrue(cache.buscarCarregado("MFW7020").isEmpty());
+        } finally {
+            liberarLeitura.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -1,21 +1,30 @@
 package tech.devinhouse.veiculos.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import tech.devinhouse.veiculos.dto.ResultadoConsulta;
+import tech.devinhouse.veiculos.dto.ResultadoLote;
 import tech.devinhouse.veiculos.exception.RegistroExistenteException;
 import tech.devinhouse.veiculos.exception.RegistroInexistenteException;
 import tech.devinhouse.veiculos.exception.VeiculoComMultaException;
+import tech.devinhouse.veiculos.exception.VersaoDesatualizadaException;
 import tech.devinhouse.veiculos.model.Veiculo;
-import tech.devinhouse.veiculos.repository.VeiculoRepository;
+import tech.devinhouse.veiculos.repository.ArmazenamentoVeiculos;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,11 +32,40 @@ import static org.junit.jupiter.api.Assertions.*;
 class VeiculoServiceTest {
 
     @Mock
-    private VeiculoRepository veiculoRepository;
+    private ArmazenamentoVeiculos veiculoRepository;
+
+    @Mock
+    private AcumuladorMultas acumuladorMultas;
+
+    @Mock
+    private FiltroPlacas filtroPlacas;
+
+    @Mock
+    private AgregadorFrota agregadorFrota;
+
+    @Mock
+    private VersaoFrota versaoFrota;
+
+    @Mock
+    private SaidaEventos saidaEventos;
+
+    @Mock
+    private HistoricoMultas historicoMultas;
+
+    @Spy
+    private LogLimitado logLimitado = new LogLimitado(Duration.ofSeconds(10));
+
+    @Spy
+    private VeiculoCache veiculoCache = new VeiculoCache(false, 0, Duration.ZERO, false);
 
     @InjectMocks
     private VeiculoService service;
 
+    @BeforeEach
+    void aceitarPlacas() {
+        Mockito.lenient().when(veiculoRepository.aceitaPlaca(Mockito.any())).thenReturn(true);
+    }
+
     @Test
     @DisplayName("Retorna lista vazia quando não tem registros")
     void consultar_listaVazia() {
@@ -57,6 +95,66 @@ class VeiculoServiceTest {
         assertEquals("MFW7021", resultado.get(1).getPlaca());
     }
 
+    @Test
+    @DisplayName("Consulta várias placas em uma só ida ao banco e separa as inexistentes")
+    void consultar_placas(){
+        // given
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002 ),
+                new Veiculo("MFW7021", "Jetta","prata", 2012 ));
+        Mockito.when(filtroPlacas.ausenteComCerteza(Mockito.anyString())).thenReturn(false);
+        Mockito.when(filtroPlacas.ausenteComCerteza("ABC1234")).thenReturn(true);
+        Mockito.when(veiculoRepository.findAllById(List.of("MFW7021", "MFW7020", "MFW7022"))).thenReturn(veiculos);
+        //when
+        ResultadoConsulta resultado = service.consultarPlacas(List.of("MFW7021", "ABC1234", "MFW7020", "MFW7022", "MFW7021"));
+        //then
+        assertEquals(List.of("MFW7021", "MFW7020"), resultado.getVeiculos().stream().map(Veiculo::getPlaca).toList());
+        assertEquals(List.of("ABC1234", "MFW7022"), resultado.getInexistentes());
+        Mockito.verify(veiculoRepository, Mockito.times(1)).findAllById(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Consulta página a partir da placa informada limitando o tamanho máximo")
+    void consultar_pagina(){
+        // given
+        var veiculos = List.of(new Veiculo("MFW7021", "Jetta","prata", 2012 ));
+        Mockito.when(veiculoRepository.findByPlacaGreaterThanOrderByPlacaAsc(Mockito.eq("MFW7020"), Mockito.any()))
+                .thenReturn(veiculos);
+        //when
+        List<Veiculo> resultado = service.consultarPagina("MFW7020", 50_000);
+        //then
+        assertEquals(veiculos, resultado);
+        Mockito.verify(veiculoRepository).findByPlacaGreaterThanOrderByPlacaAsc("MFW7020",
+                PageRequest.of(0, VeiculoService.TAMANHO_MAXIMO_PAGINA));
+    }
+
+    @Test
+    @DisplayName("Consulta ao menos um registro quando o tamanho pedido é zero")
+    void consultar_paginaTamanhoZero(){
+        // given
+        Mockito.when(veiculoRepository.findByPlacaGreaterThanOrderByPlacaAsc(Mockito.eq(""), Mockito.any()))
+                .thenReturn(List.of());
+        //when
+        service.consultarPagina(null, 0);
+        //then
+        Mockito.verify(veiculoRepository).findByPlacaGreaterThanOrderByPlacaAsc("", PageRequest.of(0, 1));
+    }
+
+    @Test
+    @DisplayName("Percorre todos os veículos do stream do repositório")
+    void percorrer(){
+        // given
+        Mockito.when(veiculoRepository.streamTodosOrdenadosPorPlaca()).thenReturn(Stream.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002 ),
+                new Veiculo("MFW7021", "Jetta","prata", 2012 )));
+        List<Veiculo> recebidos = new ArrayList<>();
+        //when
+        service.percorrer(recebidos::add);
+        //then
+        assertEquals(2, recebidos.size());
+        assertEquals("MFW7021", recebidos.get(1).getPlaca());
+    }
+
     @Test
     @DisplayName("Retorna apenas o veículo correspondente quando consultar uma placa existente")
     void consultar_placaExistente(){
@@ -80,17 +178,77 @@ class VeiculoServiceTest {
         assertThrows(RegistroInexistenteException.class, () -> service.consultar("MFW7022"));
     }
 
+    @Test
+    @DisplayName("Responde sem ir ao banco quando o filtro habilitado dá a placa como ausente")
+    void consultar_placaDescartadaPeloFiltro(){
+        // given
+        Mockito.when(filtroPlacas.ausenteComCerteza("MFW7022")).thenReturn(true);
+        //when
+        //then
+        assertThrows(RegistroInexistenteException.class, () -> service.consultar("MFW7022"));
+        assertTrue(service.versao("MFW7022").isEmpty());
+        assertThrows(RegistroInexistenteException.class, () -> service.excluir("MFW7022"));
+        Mockito.verifyNoInteractions(veiculoRepository, veiculoCache);
+    }
+
     @Test
     @DisplayName("Acrescenta multa quando veículo existe")
     void acrescenta_multa(){
         // given
-        Veiculo veiculo = new Veiculo("MFW7021", "Jetta","prata", 2012,0);
+        Veiculo veiculo = new Veiculo("MFW7021", "Jetta","prata", 2012,1);
+        Mockito.when(veiculoRepository.incrementarMultas(veiculo.getPlaca(), 1)).thenReturn(1);
+        Mockito.when(veiculoRepository.findById(Mockito.anyString())).thenReturn(Optional.of(veiculo));
+        //when
+        Veiculo veiculoComMulta = service.adicionarMulta(veiculo.getPlaca());
+        //then
+        assertEquals(1, veiculoComMulta.getQtdMultas());
+        Mockito.verify(veiculoCache).invalidar(veiculo.getPlaca());
+        Mockito.verify(agregadorFrota).registrarMultas(1);
+        Mockito.verify(versaoFrota).registrarAlteracao();
+        Mockito.verify(saidaEventos).registrarMultas(veiculo.getPlaca(), 1);
+        Mockito.verify(historicoMultas).registrar(veiculo.getPlaca(), 1);
+    }
+
+    @Test
+    @DisplayName("Retorna erro 404 quando o incremento atômico não encontra a placa")
+    void recusa_multa_em_placa_inexistente(){
+        // given
+        Mockito.when(veiculoRepository.incrementarMultas(Mockito.anyString(), Mockito.eq(1))).thenReturn(0);
+        //when
+        //then
+        assertThrows(RegistroInexistenteException.class, () -> service.adicionarMulta("MFW7022"));
+    }
+
+    @Test
+    @DisplayName("Recusa multa com erro 412 quando o veículo mudou depois da versão informada")
+    void recusa_multa_em_versao_desatualizada(){
+        // given
+        Mockito.when(veiculoRepository.incrementarMultasNaVersao("MFW7021", 1, 3L)).thenReturn(0);
+        Mockito.when(veiculoRepository.existsVeiculosByPlaca("MFW7021")).thenReturn(true);
+        //when
+        //then
+        assertThrows(VersaoDesatualizadaException.class, () -> service.adicionarMulta("MFW7021", 3L));
+        Mockito.verify(veiculoRepository, Mockito.never()).incrementarMultas(Mockito.anyString(), Mockito.anyInt());
+        Mockito.verifyNoInteractions(versaoFrota, saidaEventos, historicoMultas);
+    }
+
+    @Test
+    @DisplayName("Acumula multa em memória e soma as pendentes quando o modo acumulado está ativo")
+    void acrescenta_multa_acumulada(){
+        // given
+        ReflectionTestUtils.setField(service, "acumularMultas", true);
+        Veiculo veiculo = new Veiculo("MFW7021", "Jetta","prata", 2012,3, 4L);
         Mockito.when(veiculoRepository.findById(Mockito.anyString())).thenReturn(Optional.of(veiculo));
+        Mockito.when(acumuladorMultas.registrar(veiculo.getPlaca())).thenReturn(2L);
         //when
         Veiculo veiculoComMulta = service.adicionarMulta(veiculo.getPlaca());
-        //por que veiculoComMulta não recebe um veiculo?
         //then
-        assertEquals(1, veiculo.getQtdMultas());
+        assertEquals(5, veiculoComMulta.getQtdMultas());
+        assertNull(veiculoComMulta.getVersao());
+        assertEquals(3, veiculo.getQtdMultas());
+        Mockito.verify(veiculoRepository, Mockito.never()).incrementarMultas(Mockito.anyString(), Mockito.anyInt());
+        // O evento e o histórico só são gravados quando o acumulador descarrega a multa.
+        Mockito.verifyNoInteractions(saidaEventos, historicoMultas);
     }
 
     @Test
@@ -117,6 +275,48 @@ class VeiculoServiceTest {
         assertEquals(veiculo.getTipo(),veiculoCadastrado.getTipo());
         assertEquals(veiculo.getCor(),veiculoCadastrado.getCor());
         assertEquals(veiculo.getAnoDeFabricacao(),veiculoCadastrado.getAnoDeFabricacao());
+        Mockito.verify(veiculoRepository).inserir(veiculo);
+        Mockito.verify(filtroPlacas).adicionar(veiculo.getPlaca());
+        Mockito.verify(agregadorFrota).registrarCriacao(veiculo);
+        Mockito.verify(saidaEventos).registrarCriacao(veiculo);
+    }
+
+    @Test
+    @DisplayName("Cadastra lote separando placas já cadastradas e repetidas no próprio lote")
+    void cadastra_lote(){
+        // given
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002 ),
+                new Veiculo("MFW7021", "Jetta","prata", 2012 ),
+                new Veiculo("MFW7020", "Gol","branco", 2010 ),
+                new Veiculo("MFW7022", "fit","branco", 2014));
+        Mockito.when(veiculoRepository.findPlacasCadastradas(List.of("MFW7020", "MFW7021", "MFW7022")))
+                .thenReturn(List.of("MFW7021"));
+        //when
+        ResultadoLote resultado = service.criarEmLote(veiculos);
+        //then
+        assertEquals(List.of("MFW7020", "MFW7022"), resultado.getCriadas());
+        assertEquals(List.of("MFW7020", "MFW7021"), resultado.getConflitantes());
+        Mockito.verify(veiculoRepository).inserirEmLote(List.of(veiculos.get(0), veiculos.get(3)));
+        Mockito.verify(saidaEventos).registrarCriacoes(List.of(veiculos.get(0), veiculos.get(3)));
+    }
+
+    @Test
+    @DisplayName("Restaura lote de snapshot mantendo as multas e ignorando placas já cadastradas")
+    void restaura_lote(){
+        // given
+        var veiculos = List.of(
+                new Veiculo("MFW7020", "Clio","vermelho", 2002, 3),
+                new Veiculo("MFW7021", "Jetta","prata", 2012, 1));
+        Mockito.when(veiculoRepository.findPlacasCadastradas(List.of("MFW7020", "MFW7021")))
+                .thenReturn(List.of("MFW7021"));
+        //when
+        ResultadoLote resultado = service.restaurarEmLote(veiculos);
+        //then
+        assertEquals(List.of("MFW7020"), resultado.getCriadas());
+        assertEquals(List.of("MFW7021"), resultado.getConflitantes());
+        assertEquals(3, veiculos.get(0).getQtdMultas());
+        Mockito.verify(veiculoRepository).inserirEmLote(List.of(veiculos.get(0)));
     }
 
     @Test
@@ -135,11 +335,13 @@ class VeiculoServiceTest {
     void exclui_veiculo_sem_multa(){
         //given
         Veiculo veiculo  =  new Veiculo("MFW7020", "Clio","vermelho", 2002, 0 );
-        Mockito.when(veiculoRepository.existsVeiculosByPlaca(Mockito.anyString())).thenReturn(true);
-        Mockito.when(veiculoRepository.findById(Mockito.anyString())).thenReturn(Optional.of(veiculo));
+        Mockito.when(veiculoRepository.findParaExclusao(Mockito.anyString())).thenReturn(Optional.of(veiculo));
         //when
         //then
         assertDoesNotThrow(() -> service.excluir(veiculo.getPlaca()));
+        Mockito.verify(veiculoCache).invalidar(veiculo.getPlaca());
+        Mockito.verify(agregadorFrota).registrarExclusao(veiculo);
+        Mockito.verify(saidaEventos).registrarExclusao(veiculo.getPlaca());
         // Daria pra criar uma condição checando se o veículo com a placa ainda existe?
     }
 
@@ -148,20 +350,31 @@ class VeiculoServiceTest {
     void recusa_exclusao_veiculo_com_multa(){
         //given
         Veiculo veiculo  =  new Veiculo("MFW7020", "Clio","vermelho", 2002, 2 );
-        Mockito.when(veiculoRepository.existsVeiculosByPlaca(Mockito.anyString())).thenReturn(true);
-        Mockito.when(veiculoRepository.findById(Mockito.anyString())).thenReturn(Optional.of(veiculo));
+        Mockito.when(veiculoRepository.findParaExclusao(Mockito.anyString())).thenReturn(Optional.of(veiculo));
         //when
         //then
         assertThrows(VeiculoComMultaException.class, () -> service.excluir("MFW7020"));
     }
 
+    @Test
+    @DisplayName("Recusa exclusão quando o veículo mudou depois da versão informada")
+    void recusa_exclusao_versao_desatualizada(){
+        //given
+        Veiculo veiculo  =  new Veiculo("MFW7020", "Clio","vermelho", 2002, 0, 4L );
+        Mockito.when(veiculoRepository.findParaExclusao(Mockito.anyString())).thenReturn(Optional.of(veiculo));
+        //when
+        //then
+        assertThrows(VersaoDesatualizadaException.class, () -> service.excluir("MFW7020", 3L));
+        Mockito.verify(veiculoRepository, Mockito.never()).deleteById(Mockito.anyString());
+    }
+
     @Test
     @DisplayName("Lança exceção quando tenta excluir veículo não cadastrado")
     void recusa_exclusao_de_registro_inexistente() {
         //given
         // Mockito.when(veiculoRepository.findById(Mockito.anyString())).thenReturn(Optional.empty());
         // Por que dá erro Unneccessary Stubbing exception sem o lenient?
-        Mockito.lenient().when(veiculoRepository.findById(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.lenient().when(veiculoRepository.findParaExclusao(Mockito.anyString())).thenReturn(Optional.empty());
         //when
         //then
         assertThrows(RegistroInexistenteException.class, () -> service.excluir("MFW7020"));